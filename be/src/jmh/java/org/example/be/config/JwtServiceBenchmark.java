@@ -0,0 +1,49 @@
+package org.example.be.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh throughput xác thực token (≈ số request/giây mà JwtAuthFilter xử lý được)
+ * khi bật và tắt cache token đã verify.
+ * cacheMaxEntries = 0 tương đương hành vi cũ: mỗi request đều parse + verify HMAC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "ReplaceThisWithAStrongSecretKeyForProd";
+
+    @Param({"0", "10000"})
+    public int cacheMaxEntries;
+
+    // Số user đang hoạt động đồng thời (mỗi user một token)
+    @Param({"1000"})
+    public int activeUsers;
+
+    private JwtService jwtService;
+    private String[] tokens;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(SECRET, 86_400_000L, cacheMaxEntries);
+        tokens = new String[activeUsers];
+        for (int i = 0; i < activeUsers; i++) {
+            tokens[i] = jwtService.generateToken("user" + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String authenticateRequest(Cursor cursor) {
+        String token = tokens[cursor.next++ % tokens.length];
+        return jwtService.verify(token).subject();
+    }
+}
@@ -0,0 +1,274 @@
+package org.example.be.service;
+
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.CardHistoryRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Một lần backfill snapshot / forecast của board {@code cardCount} card trên Hibernate + H2
+ * in-memory, tính cả phần đọc DB (hydrate entity / projection). Chạy với -prof gc để so
+ * allocation mỗi lần gọi (gc.alloc.rate.norm):
+ * - backfillEntities: cách cũ, load entity Card + CardHistory, HashMap lần đầu DONE, sweep.
+ * - forecastProjections: cách cũ, sumByStatus + FirstDone + card DONE, HashMap theo card.
+ * - backfillTimeline / forecastTimeline: một câu SQL ghi thẳng vào BoardTimeline, đọc mảng.
+ * Chạy: java -jar build/libs/*-jmh.jar BoardTimelineBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardTimelineBenchmark {
+
+    private static final int DAYS = 365;
+
+    // JPQL của các method repository trước khi có BoardTimeline
+    private static final String CARDS_BY_BOARD = "SELECT c FROM Card c WHERE c.board = :board";
+    private static final String SUM_BY_STATUS =
+            "SELECT c.status, COUNT(c), SUM(COALESCE(c.estimateHours, 1.0)) FROM Card c WHERE c.board.id = :boardId GROUP BY c.status";
+    private static final String DONE_CARDS =
+            "SELECT c.id, c.createdAt, c.actualHours FROM Card c WHERE c.board.id = :boardId AND c.status = org.example.be.entity.Status.DONE";
+
+    @Param({"500", "5000"})
+    public int cardCount;
+
+    private SessionFactory sessionFactory;
+    private Board board;
+    private LocalDate from;
+    private LocalDate to;
+    private String historyQuery;
+    private String firstDoneQuery;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        historyQuery = jpql(CardHistoryRepository.class, "findByBoardOrderByChangeDateDescIdDesc", Board.class);
+        firstDoneQuery = jpql(CardHistoryRepository.class, "findFirstDoneByBoardId", Long.class);
+
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class).addAnnotatedClass(Workspace.class).addAnnotatedClass(Board.class)
+                .addAnnotatedClass(Card.class).addAnnotatedClass(CardHistory.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:timeline" + cardCount + ";DB_CLOSE_DELAY=-1")
+                // Cùng naming strategy với Spring Boot (snake_case) để index/column khớp
+                .setProperty("hibernate.physical_naming_strategy",
+                        "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .buildSessionFactory();
+
+        Random rnd = new Random(42);
+        to = LocalDate.now();
+        from = to.minusDays(DAYS - 1);
+        sessionFactory.inTransaction(session -> {
+            User actor = User.builder().username("bench").passwordHash("x").build();
+            session.persist(actor);
+            Workspace ws = Workspace.builder().name("ws").owner(actor).build();
+            session.persist(ws);
+            board = Board.builder().name("bench").workspace(ws).createdAt(from.atStartOfDay()).build();
+            session.persist(board);
+            for (int i = 0; i < cardCount; i++) {
+                LocalDateTime created = from.atStartOfDay().plusHours(rnd.nextInt(DAYS * 24));
+                Card card = Card.builder().board(board).title("Card " + i).description("Mô tả card " + i)
+                        .status(Status.TODO).position(i).createdAt(created)
+                        .estimateHours(rnd.nextInt(4) == 0 ? null : (double) (1 + rnd.nextInt(8)))
+                        .build();
+                session.persist(card);
+                // Khoảng 2/3 card đi qua IN_PROGRESS, một nửa số đó tới DONE
+                LocalDateTime at = created;
+                if (rnd.nextInt(3) > 0) {
+                    at = at.plusHours(1 + rnd.nextInt(72));
+                    session.persist(history(card, actor, Status.TODO, Status.IN_PROGRESS, at));
+                    card.setStatus(Status.IN_PROGRESS);
+                    if (rnd.nextBoolean()) {
+                        at = at.plusHours(1 + rnd.nextInt(120));
+                        session.persist(history(card, actor, Status.IN_PROGRESS, Status.DONE, at));
+                        card.setStatus(Status.DONE);
+                        card.setActualHours((double) (1 + rnd.nextInt(16)));
+                    }
+                }
+                if (i % 50 == 49) {
+                    session.flush();
+                    session.clear();
+                    board = session.getReference(Board.class, board.getId());
+                    actor = session.getReference(User.class, actor.getId());
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    private static String jpql(Class<?> repository, String method, Class<?>... params) throws NoSuchMethodException {
+        return repository.getMethod(method, params).getAnnotation(Query.class).value();
+    }
+
+    private static CardHistory history(Card card, User actor, Status from, Status to, LocalDateTime at) {
+        return CardHistory.builder().card(card).actor(actor).fromStatus(from).toStatus(to).changeDate(at).build();
+    }
+
+    // Cùng SQL và cách đọc với BoardTimelineService.load (JdbcTemplate trong ứng dụng)
+    private BoardTimeline loadTimeline(Session session) {
+        return session.doReturningWork(conn -> {
+            int count;
+            try (PreparedStatement ps = conn.prepareStatement(BoardTimelineService.COUNT_SQL)) {
+                ps.setLong(1, board.getId());
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    count = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(BoardTimelineService.SQL)) {
+                ps.setLong(1, board.getId());
+                BoardTimeline timeline = new BoardTimeline(count);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        BoardTimelineService.read(rs, timeline);
+                    }
+                }
+                return timeline;
+            }
+        });
+    }
+
+    @Benchmark
+    public List<DailySnapshot> backfillEntities() {
+        try (Session session = sessionFactory.openSession()) {
+            Board b = session.get(Board.class, board.getId());
+            List<Card> cards = session.createQuery(CARDS_BY_BOARD, Card.class).setParameter("board", b).getResultList();
+            List<CardHistory> histories = session.createQuery(historyQuery, CardHistory.class)
+                    .setParameter("board", b).getResultList();
+            return legacySweep(b, cards, histories);
+        }
+    }
+
+    @Benchmark
+    public List<DailySnapshot> backfillTimeline() {
+        try (Session session = sessionFactory.openSession()) {
+            Board b = session.get(Board.class, board.getId());
+            return SnapshotSweep.build(b, loadTimeline(session), from, to);
+        }
+    }
+
+    @Benchmark
+    public void forecastProjections(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            Long boardId = board.getId();
+            int total = 0;
+            double remainingPoints = 0;
+            for (Object[] row : session.createQuery(SUM_BY_STATUS, Object[].class).setParameter("boardId", boardId).getResultList()) {
+                total += ((Long) row[1]).intValue();
+                if (row[0] != Status.DONE) remainingPoints += (Double) row[2];
+            }
+            Map<Long, LocalDateTime> earliestDoneByCard = new HashMap<>();
+            for (CardDto.FirstDone done : session.createQuery(firstDoneQuery, CardDto.FirstDone.class)
+                    .setParameter("boardId", boardId).getResultList()) {
+                earliestDoneByCard.put(done.cardId(), done.changeDate());
+            }
+            double cycleSum = 0, actualSum = 0;
+            for (Object[] card : session.createQuery(DONE_CARDS, Object[].class).setParameter("boardId", boardId).getResultList()) {
+                LocalDateTime doneAt = earliestDoneByCard.get((Long) card[0]);
+                if (doneAt != null) {
+                    cycleSum += Math.max(0, Duration.between((LocalDateTime) card[1], doneAt).toMillis() / 86_400_000d);
+                }
+                if (card[2] != null) actualSum += (Double) card[2];
+            }
+            double[] samples = new double[DAYS];
+            for (LocalDateTime doneAt : earliestDoneByCard.values()) {
+                LocalDate day = doneAt.toLocalDate();
+                if (!day.isBefore(from) && !day.isAfter(to)) samples[(int) ChronoUnit.DAYS.between(from, day)]++;
+            }
+            bh.consume(total + remainingPoints + cycleSum + actualSum);
+            bh.consume(samples);
+        }
+    }
+
+    @Benchmark
+    public void forecastTimeline(Blackhole bh) {
+        try (Session session = sessionFactory.openSession()) {
+            BoardTimeline timeline = loadTimeline(session);
+            double remainingPoints = 0, cycleSum = 0, actualSum = 0;
+            for (int i = 0; i < timeline.size; i++) {
+                if (!timeline.isDone(i)) {
+                    remainingPoints += timeline.points(i);
+                    continue;
+                }
+                if (timeline.firstDoneAt[i] != BoardTimeline.NONE) {
+                    cycleSum += Math.max(0, (timeline.firstDoneAt[i] - timeline.createdAt[i]) / 86_400d);
+                }
+                if (!Double.isNaN(timeline.actualHours[i])) actualSum += timeline.actualHours[i];
+            }
+            double[] samples = new double[DAYS];
+            long fromDay = from.toEpochDay(), toDay = to.toEpochDay();
+            for (long doneAt : timeline.firstDoneAt) {
+                if (doneAt == BoardTimeline.NONE) continue;
+                long day = BoardTimeline.day(doneAt);
+                if (day >= fromDay && day <= toDay) samples[(int) (day - fromDay)]++;
+            }
+            bh.consume(timeline.size + remainingPoints + cycleSum + actualSum);
+            bh.consume(samples);
+        }
+    }
+
+    // SnapshotSweep trước BoardTimeline: HashMap lần đầu DONE từ entity history, tra theo card
+    private List<DailySnapshot> legacySweep(Board b, List<Card> cards, List<CardHistory> histories) {
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        Map<Long, LocalDateTime> first = new HashMap<>();
+        for (CardHistory h : histories) {
+            if (h.getToStatus() == Status.DONE) {
+                first.merge(h.getCard().getId(), h.getChangeDate(), (x, y) -> y.isBefore(x) ? y : x);
+            }
+        }
+        double[] addedPoints = new double[days], donePoints = new double[days], dailyPoints = new double[days];
+        int[] addedTasks = new int[days], doneTasks = new int[days];
+        for (Card card : cards) {
+            LocalDate created = card.getCreatedAt().toLocalDate();
+            if (created.isAfter(to)) continue;
+            double points = card.getEstimateHours() != null ? card.getEstimateHours() : 1.0;
+            int createdAt = slot(created);
+            addedPoints[createdAt] += points;
+            addedTasks[createdAt]++;
+            LocalDateTime doneTime = first.get(card.getId());
+            if (doneTime == null) continue;
+            LocalDate doneDay = doneTime.toLocalDate();
+            LocalDate countedFrom = doneDay.isAfter(created) ? doneDay : created;
+            if (countedFrom.isAfter(to)) continue;
+            int doneAt = slot(countedFrom);
+            donePoints[doneAt] += points;
+            doneTasks[doneAt]++;
+            if (!doneDay.isBefore(from) && !created.isAfter(doneDay)) dailyPoints[doneAt] += points;
+        }
+        List<DailySnapshot> snapshots = new ArrayList<>(days);
+        double totalPoints = 0, completedPoints = 0;
+        int totalTasks = 0, completedTasks = 0;
+        for (int i = 0; i < days; i++) {
+            totalPoints += addedPoints[i];
+            totalTasks += addedTasks[i];
+            completedPoints += donePoints[i];
+            completedTasks += doneTasks[i];
+            snapshots.add(DailySnapshot.builder().board(b).snapshotDate(from.plusDays(i))
+                    .remainingPoints(totalPoints - completedPoints).completedPoints(completedPoints)
+                    .completedPointsDaily(dailyPoints[i]).remainingTasks(totalTasks - completedTasks)
+                    .completedTasks(completedTasks).build());
+        }
+        return snapshots;
+    }
+
+    private int slot(LocalDate day) {
+        return day.isBefore(from) ? 0 : (int) ChronoUnit.DAYS.between(from, day);
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.be.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Độ trễ một lần kéo-thả card trong cùng cột theo kích thước cột, trên H2 in-memory
+ * với cùng câu SQL mà repository sinh ra.
+ * - legacyMove: cách cũ, đọc cả cột, sort lại, ghi lại position của mọi card.
+ * - rankedMove: rank thưa, đọc 2 card lân cận (OFFSET) và ghi đúng 1 dòng;
+ *   khi hết khoảng trống thì rebalance đồng bộ (chi phí được tính vào kết quả).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CardMoveBenchmark {
+
+    private static final long LEGACY_BOARD = 1L;
+    private static final long RANKED_BOARD = 2L;
+
+    @Param({"100", "500", "2000", "10000"})
+    public int columnSize;
+
+    private Connection conn;
+    private long legacyFirstId;
+    private long rankedFirstId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:cardmove" + columnSize + ";DB_CLOSE_DELAY=-1");
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS card");
+            st.execute("CREATE TABLE card (id BIGINT AUTO_INCREMENT PRIMARY KEY, board_id BIGINT NOT NULL, " +
+                    "status VARCHAR(16) NOT NULL, title VARCHAR(255), position INT)");
+            st.execute("CREATE INDEX idx_card_board_status_position ON card (board_id, status, position)");
+        }
+        legacyFirstId = insertColumn(LEGACY_BOARD, 1, 0);
+        rankedFirstId = insertColumn(RANKED_BOARD, CardRanks.GAP, CardRanks.GAP);
+        conn.commit();
+    }
+
+    private long insertColumn(long boardId, int step, int first) throws SQLException {
+        long firstId = -1;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO card (board_id, status, title, position) VALUES (?, 'TODO', ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < columnSize; i++) {
+                ps.setLong(1, boardId);
+                ps.setString(2, "Card " + i);
+                ps.setInt(3, first + i * step);
+                ps.executeUpdate();
+                if (firstId < 0) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        rs.next();
+                        firstId = rs.getLong(1);
+                    }
+                }
+            }
+        }
+        return firstId;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE card");
+        }
+        conn.close();
+    }
+
+    @Benchmark
+    public int legacyMove() throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long cardId = legacyFirstId + rnd.nextInt(columnSize);
+        int target = rnd.nextInt(columnSize);
+
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE card SET position = ? WHERE id = ?")) {
+            ps.setInt(1, target);
+            ps.setLong(2, cardId);
+            ps.executeUpdate();
+        }
+
+        List<long[]> rows = new ArrayList<>(columnSize);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id, position FROM card WHERE board_id = ? AND status = 'TODO' ORDER BY position ASC")) {
+            ps.setLong(1, LEGACY_BOARD);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new long[]{rs.getLong(1), rs.getInt(2)});
+                }
+            }
+        }
+        rows.sort((a, b) -> Long.compare(a[1], b[1]));
+
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE card SET position = ? WHERE id = ?")) {
+            int position = 0;
+            for (long[] row : rows) {
+                ps.setInt(1, position++);
+                ps.setLong(2, row[0]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        conn.commit();
+        return rows.size();
+    }
+
+    @Benchmark
+    public int rankedMove() throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long cardId = rankedFirstId + rnd.nextInt(columnSize);
+        int target = rnd.nextInt(columnSize - 1);
+
+        Integer rank = tryRank(cardId, target);
+        if (rank == null) {
+            rebalance();
+            rank = tryRank(cardId, target);
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE card SET position = ? WHERE id = ?")) {
+            ps.setInt(1, rank);
+            ps.setLong(2, cardId);
+            ps.executeUpdate();
+        }
+        conn.commit();
+        return rank;
+    }
+
+    private Integer tryRank(long cardId, int index) throws SQLException {
+        Integer next = positionAt(cardId, index);
+        if (next == null) {
+            return CardRanks.after(maxPosition(cardId));
+        }
+        Integer prev = index == 0 ? null : positionAt(cardId, index - 1);
+        return CardRanks.between(prev, next);
+    }
+
+    private Integer positionAt(long excludeId, int offset) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT position FROM card WHERE board_id = ? AND status = 'TODO' AND id <> ? " +
+                        "ORDER BY position ASC, id ASC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY")) {
+            ps.setLong(1, RANKED_BOARD);
+            ps.setLong(2, excludeId);
+            ps.setInt(3, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    private Integer maxPosition(long excludeId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT MAX(position) FROM card WHERE board_id = ? AND status = 'TODO' AND id <> ?")) {
+            ps.setLong(1, RANKED_BOARD);
+            ps.setLong(2, excludeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                int max = rs.getInt(1);
+                return rs.wasNull() ? null : max;
+            }
+        }
+    }
+
+    private void rebalance() throws SQLException {
+        List<Long> ids = new ArrayList<>(columnSize);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id FROM card WHERE board_id = ? AND status = 'TODO' ORDER BY position ASC, id ASC")) {
+            ps.setLong(1, RANKED_BOARD);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        int step = CardRanks.step(ids.size());
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE card SET position = ? WHERE id = ?")) {
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setInt(1, (i + 1) * step);
+                ps.setLong(2, ids.get(i));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
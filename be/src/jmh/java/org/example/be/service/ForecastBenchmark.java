@@ -0,0 +1,44 @@
+package org.example.be.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phần mô phỏng của forecast Monte Carlo (ThroughputForecast) với 90 ngày mẫu throughput.
+ * Mục tiêu: 10k lần thử dưới 100 ms.
+ * - remaining = khối lượng còn lại tính theo số ngày throughput trung bình (30 / 180 ngày).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ForecastBenchmark {
+
+    @Param({"10000", "50000"})
+    public int trials;
+
+    @Param({"30", "180"})
+    public int daysOfWork;
+
+    private double[] samples;
+    private double remaining;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        samples = new double[90];
+        double sum = 0;
+        for (int i = 0; i < samples.length; i++) {
+            // Khoảng 1/3 số ngày không xong việc nào
+            samples[i] = rnd.nextInt(3) == 0 ? 0 : 1 + rnd.nextInt(12);
+            sum += samples[i];
+        }
+        remaining = sum / samples.length * daysOfWork;
+    }
+
+    @Benchmark
+    public Integer[] monteCarlo() {
+        return ThroughputForecast.percentileDays(samples, remaining, trials, 7L);
+    }
+}
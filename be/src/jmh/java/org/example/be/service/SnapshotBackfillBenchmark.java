@@ -0,0 +1,153 @@
+package org.example.be.service;
+
+import org.example.be.entity.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backfill snapshot cho board đã tồn tại {@code days} ngày, chỉ phần tính toán
+ * (phần DB: cách cũ thêm 1 query kiểm tra + 1 INSERT mỗi ngày, cách mới 1 saveAll batch).
+ * - perDayLoop: cách cũ, mỗi ngày quét lại toàn bộ history và card.
+ * - sweep: SnapshotSweep trên BoardTimeline (lần đầu DONE có sẵn), một lượt qua card rồi cộng dồn theo ngày.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotBackfillBenchmark {
+
+    @Param({"30", "200", "365"})
+    public int days;
+
+    @Param({"200", "2000"})
+    public int cardCount;
+
+    private Board board;
+    private List<Card> cards;
+    private List<CardHistory> histories;
+    private BoardTimeline timeline;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(42);
+        to = LocalDate.now();
+        from = to.minusDays(days - 1);
+        board = Board.builder().id(1L).name("bench").createdAt(from.atStartOfDay()).build();
+        User actor = User.builder().id(1L).username("bench").build();
+
+        cards = new ArrayList<>(cardCount);
+        histories = new ArrayList<>();
+        for (int i = 0; i < cardCount; i++) {
+            LocalDateTime created = from.atStartOfDay().plusHours(rnd.nextInt(days * 24));
+            Card card = Card.builder().id((long) i + 1).board(board).title("c" + i)
+                    .status(Status.TODO).createdAt(created)
+                    .estimateHours(rnd.nextInt(4) == 0 ? null : (double) (1 + rnd.nextInt(8)))
+                    .build();
+            cards.add(card);
+            // Khoảng 2/3 card đi qua IN_PROGRESS, một nửa số đó tới DONE
+            LocalDateTime at = created;
+            if (rnd.nextInt(3) > 0) {
+                at = at.plusHours(1 + rnd.nextInt(72));
+                histories.add(history(card, actor, Status.TODO, Status.IN_PROGRESS, at));
+                if (rnd.nextBoolean()) {
+                    at = at.plusHours(1 + rnd.nextInt(120));
+                    histories.add(history(card, actor, Status.IN_PROGRESS, Status.DONE, at));
+                    card.setStatus(Status.DONE);
+                }
+            }
+        }
+        histories.sort(Comparator.comparing(CardHistory::getChangeDate).reversed());
+        timeline = timeline(cards, histories);
+    }
+
+    // BoardTimeline mà BoardTimelineService đọc được từ cùng dữ liệu
+    static BoardTimeline timeline(List<Card> cards, List<CardHistory> histories) {
+        Map<Long, LocalDateTime> started = new HashMap<>(), done = new HashMap<>();
+        for (CardHistory h : histories) {
+            Map<Long, LocalDateTime> first = h.getToStatus() == Status.DONE ? done
+                    : h.getToStatus() == Status.IN_PROGRESS ? started : null;
+            if (first != null) {
+                first.merge(h.getCard().getId(), h.getChangeDate(), (a, b) -> b.isBefore(a) ? b : a);
+            }
+        }
+        BoardTimeline timeline = new BoardTimeline(cards.size());
+        for (Card c : cards) {
+            timeline.add(c.getId(), BoardTimeline.epochSecond(c.getCreatedAt()),
+                    c.getEstimateHours() != null ? c.getEstimateHours() : Double.NaN,
+                    c.getActualHours() != null ? c.getActualHours() : Double.NaN, c.getStatus(),
+                    BoardTimeline.epochSecond(started.get(c.getId())), BoardTimeline.epochSecond(done.get(c.getId())));
+        }
+        return timeline;
+    }
+
+    private static CardHistory history(Card card, User actor, Status from, Status to, LocalDateTime at) {
+        return CardHistory.builder().card(card).actor(actor).fromStatus(from).toStatus(to).changeDate(at).build();
+    }
+
+    @Benchmark
+    public List<DailySnapshot> perDayLoop() {
+        List<DailySnapshot> result = new ArrayList<>(days);
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            result.add(legacySnapshot(d));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<DailySnapshot> sweep() {
+        return SnapshotSweep.build(board, timeline, from, to);
+    }
+
+    // Phần tính toán của BurndownService.createSnapshotForDate trước khi có SnapshotSweep
+    private DailySnapshot legacySnapshot(LocalDate date) {
+        LocalDateTime endOfDay = date.atTime(23, 59, 59);
+
+        Set<Long> doneCardIds = new HashSet<>();
+        Map<Long, LocalDateTime> firstDoneTime = new HashMap<>();
+        for (CardHistory h : histories) {
+            if (h.getToStatus() == Status.DONE && !h.getChangeDate().isAfter(endOfDay)) {
+                Long cardId = h.getCard().getId();
+                firstDoneTime.merge(cardId, h.getChangeDate(),
+                        (oldVal, newVal) -> newVal.isBefore(oldVal) ? newVal : oldVal);
+                doneCardIds.add(cardId);
+            }
+        }
+
+        double completedPoints = 0;
+        double completedPointsDaily = 0;
+        int completedTasks = 0;
+        double totalPoints = 0;
+        for (Card card : cards) {
+            if (card.getCreatedAt() != null && !card.getCreatedAt().toLocalDate().isAfter(date)) {
+                double points = card.getEstimateHours() != null ? card.getEstimateHours() : 1.0;
+                totalPoints += points;
+                if (doneCardIds.contains(card.getId())) {
+                    completedPoints += points;
+                    completedTasks++;
+                    LocalDateTime doneTime = firstDoneTime.get(card.getId());
+                    if (doneTime != null && doneTime.toLocalDate().equals(date)) {
+                        completedPointsDaily += points;
+                    }
+                }
+            }
+        }
+        int remainingTasks = (int) cards.stream()
+                .filter(c -> c.getCreatedAt() != null && !c.getCreatedAt().toLocalDate().isAfter(date))
+                .count() - completedTasks;
+
+        return DailySnapshot.builder()
+                .board(board)
+                .snapshotDate(date)
+                .remainingPoints(totalPoints - completedPoints)
+                .completedPoints(completedPoints)
+                .completedPointsDaily(completedPointsDaily)
+                .remainingTasks(remainingTasks)
+                .completedTasks(completedTasks)
+                .build();
+    }
+}
@@ -1,6 +1,13 @@
 package org.example.be.auth.dto;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.example.be.entity.Board;
+import org.example.be.entity.BoardStatus;
+import org.example.be.entity.Role;
+
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public class BoardDto {
     public record BoardCreateRequest(String name, Long workspaceId) {}
@@ -9,8 +16,42 @@ public class BoardDto {
     public record CardCreateRequest(Long boardId, String title, String description,
                                     Integer position, LocalDate dueDate, String priority,
                                     String status, Double estimateHours, Double actualHours) {}
-    public record MoveCardRequest(Long cardId, String targetStatus, Integer targetPosition) {}
+    // beforeCardId / afterCardId: đặt ngay trước / sau card đó trong cột đích (ưu tiên hơn targetPosition,
+    // là index trong cột không gồm card được kéo)
+    public record MoveCardRequest(Long cardId, String targetStatus, Integer targetPosition,
+                                  Long beforeCardId, Long afterCardId) {
+        public MoveCardRequest(Long cardId, String targetStatus, Integer targetPosition) {
+            this(cardId, targetStatus, targetPosition, null, null);
+        }
+    }
     public record CardAssignRequest(Long cardId, Long userId) {}
     public record ChangeRoleRequest(Long userId, Long boardId, String role) {}
     public record RemoveMemberRequest(Long userId, Long boardId) {}
+
+    // Projection cho GET /boards/{id}/members: chỉ id + username, không kéo Board/Workspace/passwordHash
+    public record UserSummary(Long id, String username) {}
+    public record MemberView(Long id, Role role, UserSummary user) {
+        public MemberView(Long id, Role role, Long userId, String username) {
+            this(id, role, new UserSummary(userId, username));
+        }
+    }
+
+    // Board phẳng cho response: chỉ workspaceId, không kéo Workspace/owner/passwordHash
+    public record BoardView(Long id, String name, Long workspaceId, BoardStatus status, LocalDate endDate,
+                            Integer wipLimit, LocalDateTime createdAt, Long version) {
+        public static BoardView from(Board b) {
+            return new BoardView(b.getId(), b.getName(), b.getWorkspace().getId(), b.getStatus(), b.getEndDate(),
+                    b.getWipLimit(), b.getCreatedAt(), b.getVersion());
+        }
+    }
+
+    // GET /boards/{id}/bootstrap: section không được yêu cầu thì null.
+    // forecast / burndown là JSON lấy nguyên từ BoardResponseCache (BoardForecastDto / BurndownResponse)
+    public record BoardBootstrap(BoardView board,
+                                 List<CardDto.CardView> cards,
+                                 List<MemberView> members,
+                                 CardDto.HistoryPage history,
+                                 List<CardDto.FirstDone> firstDone,
+                                 @JsonRawValue String forecast,
+                                 @JsonRawValue String burndown) {}
 }
\ No newline at end of file
@@ -10,5 +10,9 @@ public record BoardForecastDto(
         int remainingCards,
         double remainingTimeDays,
         double remainingEffortHours,
-        LocalDate estimatedEndDate
+        LocalDate estimatedEndDate,
+        // Monte Carlo theo throughput: 50% / 85% / 95% số lần thử xong trước ngày này (null = chưa đủ dữ liệu)
+        LocalDate p50EndDate,
+        LocalDate p85EndDate,
+        LocalDate p95EndDate
 ) {}
\ No newline at end of file
@@ -38,4 +38,12 @@ public class BurndownDto {
             Integer daysAheadOrBehind,             // Số ngày sớm (+) hoặc trễ (-) so với deadline
             String projectHealth                   // Trạng thái:  "ON_TRACK", "AT_RISK", "DELAYED"
     ) {}
-}
\ No newline at end of file
+
+    // Một ngày của Cumulative Flow Diagram: số card ở mỗi status vào cuối ngày
+    public record CfdPoint(
+            LocalDate date,
+            int todo,
+            int inProgress,
+            int done
+    ) {}
+}
@@ -1,6 +1,12 @@
 package org.example.be.auth.dto;
 
+import org.example.be.entity.Card;
+import org.example.be.entity.Priority;
+import org.example.be.entity.Status;
+
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public class CardDto {
     public record CardUpdateRequest(Long id, String title, String description,
@@ -9,4 +15,58 @@ public class CardDto {
     }
     public record MoveCardRequest(Long cardId, String targetStatus, Integer targetPosition) {}
     public record CardAssignRequest(Long cardId, Long userId) {}
+
+    // op = CREATE | UPDATE | MOVE, kèm đúng payload tương ứng
+    public record CardBatchCommand(String op, BoardDto.CardCreateRequest create,
+                                   CardUpdateRequest update, BoardDto.MoveCardRequest move) {}
+    public record CardBatchRequest(List<CardBatchCommand> commands) {}
+    // status = OK | FAILED | SKIPPED
+    public record CardBatchResult(int index, String op, String status, Long cardId, String error) {}
+    public record CardBatchResponse(boolean applied, List<CardBatchResult> results) {}
+
+    // Projection cho GET /boards/{id}/cards: field phẳng, board chỉ còn boardId
+    public record CardView(Long id, String title, String description, Integer position,
+                           LocalDate dueDate, Priority priority, Status status,
+                           Double estimateHours, Double actualHours, LocalDateTime createdAt,
+                           Long boardId) {
+        public static CardView from(Card c) {
+            return new CardView(c.getId(), c.getTitle(), c.getDescription(), c.getPosition(),
+                    c.getDueDate(), c.getPriority(), c.getStatus(), c.getEstimateHours(),
+                    c.getActualHours(), c.getCreatedAt(), c.getBoard().getId());
+        }
+    }
+
+    // Projection cho GET /boards/{id}/history: card chỉ còn id + title, actor chỉ còn id + username
+    public record CardRef(Long id, String title) {}
+    public record HistoryView(Long id, Status fromStatus, Status toStatus, LocalDateTime changeDate,
+                              CardRef card, BoardDto.UserSummary actor) {
+        public HistoryView(Long id, Status fromStatus, Status toStatus, LocalDateTime changeDate,
+                           Long cardId, String cardTitle, Long actorId, String actorUsername) {
+            this(id, fromStatus, toStatus, changeDate, new CardRef(cardId, cardTitle),
+                    actorId != null ? new BoardDto.UserSummary(actorId, actorUsername) : null);
+        }
+    }
+
+    // nextCursor = "changeDate,id" của dòng cuối trang, null khi đã hết history
+    public record HistoryPage(List<HistoryView> items, String nextCursor) {}
+    public record FirstDone(Long cardId, LocalDateTime changeDate) {}
+
+    // /cycle-time: phân vị (ngày, cận trên của bucket) + số card theo bucket, bucketUpperDays[i] = cận trên bucket i
+    public record DurationHistogram(long samples, Double p50Days, Double p85Days, Double p95Days,
+                                    double[] bucketUpperDays, int[] counts) {}
+    public record CycleTimeStats(DurationHistogram leadTime, DurationHistogram cycleTime) {}
+
+    // /aging: daysInStatus tính từ lần vào status hiện tại, wipAgeDays từ lần đầu vào IN_PROGRESS;
+    // band so wipAgeDays với phân vị cycle time của board (null khi chưa có mẫu)
+    public record AgingCard(Long id, String title, Double estimateHours, LocalDateTime statusEnteredAt,
+                            LocalDateTime firstStartedAt, int daysInStatus, Integer wipAgeDays, String band) {}
+    public record AgingReport(Status status, Double p50Days, Double p85Days, Double p95Days, List<AgingCard> cards) {}
+
+    // /changes?since=V: version = version mới của board để lần sau gửi lại
+    public record CardChanges(long version, boolean resyncRequired,
+                              List<CardView> upserted, List<Long> deleted) {
+        public static CardChanges resync(long version) {
+            return new CardChanges(version, true, List.of(), List.of());
+        }
+    }
 }
\ No newline at end of file
@@ -2,6 +2,10 @@ package org.example.be.auth.dto;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 public class WorkspaceDtos {
     public record WorkspaceCreateRequest(
             @NotBlank String name
@@ -12,4 +16,31 @@ public class WorkspaceDtos {
             @NotBlank String name
     ) {
     }
+
+    public record BoardRollup(
+            Long boardId,
+            String name,
+            double totalPoints,
+            double completedPoints,
+            double remainingPoints,
+            double averageVelocity,
+            LocalDate estimatedEndDate,
+            LocalDate deadline,
+            Integer daysAheadOrBehind,
+            String projectHealth
+    ) {
+    }
+
+    public record WorkspaceRollup(
+            Long workspaceId,
+            double totalPoints,
+            double completedPoints,
+            double remainingPoints,
+            double averageVelocity,      // tổng velocity các board (points/tuần)
+            LocalDate projectedEndDate,  // board xong muộn nhất, null nếu có board không ước lượng được
+            String projectHealth,        // tệ nhất trong các board
+            Map<String, Integer> healthCounts,
+            List<BoardRollup> boards
+    ) {
+    }
 }
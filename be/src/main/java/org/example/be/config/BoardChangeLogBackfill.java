@@ -0,0 +1,30 @@
+package org.example.be.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * board.change_log_floor được thêm sau: thay đổi trước đó không có trong log nên
+ * với board cũ, mốc compact = version hiện tại (client cũ hơn mốc này phải tải lại).
+ */
+@Component
+public class BoardChangeLogBackfill {
+
+    private final JdbcTemplate jdbc;
+
+    // entityManagerFactory chỉ để bean này được tạo sau khi Hibernate đã cập nhật schema
+    public BoardChangeLogBackfill(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            jdbc.update("UPDATE board SET change_log_floor = version WHERE change_log_floor IS NULL");
+        } catch (Exception e) {
+            System.err.println("Could not backfill board.change_log_floor: " + e.getMessage());
+        }
+    }
+}
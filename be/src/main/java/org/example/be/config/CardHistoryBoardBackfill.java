@@ -0,0 +1,33 @@
+package org.example.be.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * card_history.board_id được thêm sau: history cũ có board_id = NULL nên không
+ * xuất hiện trong API history phân trang. Khi khởi động, điền board_id từ card
+ * (chỉ đụng các dòng còn NULL, lần chạy sau gần như không tốn gì nhờ index).
+ */
+@Component
+public class CardHistoryBoardBackfill {
+
+    private final JdbcTemplate jdbc;
+
+    // entityManagerFactory chỉ để bean này được tạo sau khi Hibernate đã cập nhật schema
+    public CardHistoryBoardBackfill(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            jdbc.update("UPDATE card_history SET board_id = " +
+                    "(SELECT c.board_id FROM card c WHERE c.id = card_history.card_id) " +
+                    "WHERE board_id IS NULL");
+        } catch (Exception e) {
+            System.err.println("Could not backfill card_history.board_id: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.be.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * card.status_entered_at / first_started_at / first_done_at được thêm sau: card cũ có NULL.
+ * Khi khởi động, điền từ card_history (lần chuyển cuối vào status hiện tại, lần đầu vào
+ * IN_PROGRESS / DONE), không có history thì lấy created_at (first_done_at để NULL).
+ * Chỉ đụng các dòng còn NULL status_entered_at.
+ */
+@Component
+public class CardStatusEnteredBackfill {
+
+    private final JdbcTemplate jdbc;
+
+    // entityManagerFactory chỉ để bean này được tạo sau khi Hibernate đã cập nhật schema
+    public CardStatusEnteredBackfill(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            jdbc.update("UPDATE card SET " +
+                    "status_entered_at = COALESCE((SELECT MAX(h.change_date) FROM card_history h " +
+                    "WHERE h.card_id = card.id AND h.to_status = card.status), card.created_at), " +
+                    "first_started_at = COALESCE((SELECT MIN(h.change_date) FROM card_history h " +
+                    "WHERE h.card_id = card.id AND h.to_status = 'IN_PROGRESS'), " +
+                    "CASE WHEN card.status = 'IN_PROGRESS' THEN card.created_at END), " +
+                    "first_done_at = (SELECT MIN(h.change_date) FROM card_history h " +
+                    "WHERE h.card_id = card.id AND h.to_status = 'DONE') " +
+                    "WHERE status_entered_at IS NULL");
+        } catch (Exception e) {
+            System.err.println("Could not backfill card status timestamps: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.be.config;
+
+import jakarta.annotation.PostConstruct;
+import org.example.be.service.CycleTimeService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Board tạo trước khi có bảng cycle_time_histogram chưa có dòng histogram. Khi khởi động,
+ * dựng dòng cho các board đó từ history để GET /cycle-time và /aging chỉ còn đọc.
+ * Board mới được tạo dòng ngay trong BoardService.createBoard.
+ */
+@Component
+public class CycleTimeHistogramBackfill {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final CycleTimeService cycleTimeService;
+
+    // CardStatusEnteredBackfill chỉ để first_started_at của card cũ được điền trước
+    public CycleTimeHistogramBackfill(CycleTimeService cycleTimeService, CardStatusEnteredBackfill statusEnteredBackfill) {
+        this.cycleTimeService = cycleTimeService;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            cycleTimeService.backfillMissing(PAGE_SIZE);
+        } catch (Exception e) {
+            System.err.println("Could not backfill cycle_time_histogram: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.be.config;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Map có giới hạn số entry, mỗi giá trị tự mang thời điểm hết hạn (expiresAtMs).
+ * Entry hết hạn bị loại khi đọc; khi đầy thì dọn entry hết hạn trước, nếu vẫn đầy
+ * thì bỏ các entry sắp hết hạn nhất. Dùng chung cho cache token (JwtService) và
+ * cache quyền (PermissionService). maxEntries <= 0 nghĩa là tắt cache.
+ */
+public final class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final ToLongFunction<V> expiresAtMs;
+    private final Map<K, V> entries = new ConcurrentHashMap<>();
+
+    public ExpiringCache(int maxEntries, ToLongFunction<V> expiresAtMs) {
+        this.maxEntries = maxEntries;
+        this.expiresAtMs = expiresAtMs;
+    }
+
+    public V get(K key, long nowMs) {
+        V value = entries.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (expiresAtMs.applyAsLong(value) <= nowMs) {
+            entries.remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    // false khi cache tắt hoặc giá trị đã hết hạn (không được lưu)
+    public boolean put(K key, V value, long nowMs) {
+        if (maxEntries <= 0 || expiresAtMs.applyAsLong(value) <= nowMs) {
+            return false;
+        }
+        if (entries.size() >= maxEntries) {
+            evict(nowMs);
+        }
+        entries.put(key, value);
+        return true;
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public void remove(K key, V value) {
+        entries.remove(key, value);
+    }
+
+    public void removeKeys(Predicate<K> filter) {
+        entries.keySet().removeIf(filter);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void evict(long nowMs) {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        entries.values().removeIf(value -> expiresAtMs.applyAsLong(value) <= nowMs);
+
+        // Giữ lại ~90% dung lượng để không phải evict ở mỗi lần put
+        int excess = entries.size() - (maxEntries - Math.max(1, maxEntries / 10));
+        if (excess <= 0) {
+            return;
+        }
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> expiresAtMs.applyAsLong(e.getValue())))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+    }
+}
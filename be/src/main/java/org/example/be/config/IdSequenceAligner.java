@@ -0,0 +1,42 @@
+package org.example.be.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Card, CardHistory và DailySnapshot đã chuyển từ IDENTITY sang sequence pooled. Trên MySQL,
+ * Hibernate giả lập sequence bằng bảng (card_seq, card_history_seq, ...) và khởi tạo
+ * next_val = 1, sẽ trùng id của dữ liệu cũ. Khi khởi động, đẩy next_val lên quá
+ * MAX(id) hiện có (chạy sau khi Hibernate cập nhật schema, trước khi nhận request).
+ */
+@Component
+public class IdSequenceAligner {
+
+    // >= allocationSize của @SequenceGenerator
+    private static final int HEADROOM = 51;
+
+    private final JdbcTemplate jdbc;
+
+    // entityManagerFactory chỉ để bean này được tạo sau khi Hibernate đã cập nhật schema
+    public IdSequenceAligner(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void align() {
+        align("card_seq", "card");
+        align("card_history_seq", "card_history");
+        align("daily_snapshot_seq", "daily_snapshot");
+    }
+
+    private void align(String sequenceTable, String table) {
+        try {
+            jdbc.update("UPDATE " + sequenceTable + " SET next_val = GREATEST(next_val, " +
+                    "(SELECT COALESCE(MAX(id), 0) + " + HEADROOM + " FROM " + table + "))");
+        } catch (Exception e) {
+            System.err.println("Could not align id sequence " + sequenceTable + ": " + e.getMessage());
+        }
+    }
+}
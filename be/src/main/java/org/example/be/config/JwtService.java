@@ -1,13 +1,19 @@
 package org.example.be.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.example.be.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,22 +22,62 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String USER_ID_CLAIM = "uid";
 
-    @Value("${jwt.expirationMs}")
-    private Long expirationMs;
+    private final Long expirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Key và parser được dựng một lần, dùng lại cho mọi request
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Cache token đã verify: digest(token) -> (subject, expiry)
+    private final ExpiringCache<String, VerifiedToken> tokenCache;
+
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expirationMs}") Long expirationMs,
+                      @Value("${jwt.cache.maxEntries:10000}") int cacheMaxEntries) {
+        this.expirationMs = expirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokenCache = new ExpiringCache<>(cacheMaxEntries, VerifiedToken::expiresAtMs);
+    }
+
+    /**
+     * Kết quả verify một token: subject, user id (claim "uid", null với token cũ)
+     * và thời điểm hết hạn (epoch millis).
+     */
+    public record VerifiedToken(String subject, Long userId, long expiresAtMs) {
+    }
+
+    /**
+     * Verify chữ ký + hạn của token đúng một lần và trả về subject/expiry.
+     * Token đã verify được cache theo SHA-256 digest cho tới khi hết hạn,
+     * nên các request sau với cùng token không phải parse/verify lại.
+     * Ném JwtException (ExpiredJwtException, SignatureException...) nếu token không hợp lệ.
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        String digest = digest(token);
+        VerifiedToken cached = tokenCache.get(digest, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                claims.getExpiration().getTime());
+        tokenCache.put(digest, verified, now);
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return new Date(verify(token).expiresAtMs());
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -40,11 +86,7 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -56,13 +98,20 @@ public class JwtService {
         return createToken(claims, username);
     }
 
+    // Token kèm user id để filter dựng principal mà không cần query users
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        return createToken(claims, user.getUsername());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -70,4 +119,14 @@ public class JwtService {
         final String extractedUsername = extractUsername(token);
         return extractedUsername.equals(username) && !isTokenExpired(token);
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
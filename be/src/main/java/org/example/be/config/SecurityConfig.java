@@ -1,10 +1,12 @@
 package org.example.be. config;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta. servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.example.be.repository.UserRepository;
 import org.example.be.service.UserDetailsServiceImpl;
 import org. springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +15,7 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config. Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core. context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -27,6 +30,7 @@ public class SecurityConfig {
 
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final UserRepository userRepository;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
     @Bean
@@ -36,6 +40,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch ASYNC của SSE (/boards/{id}/events) đã được xác thực ở request gốc
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/columns/**").authenticated()
                         .requestMatchers("/cards/**").authenticated()
@@ -47,7 +53,7 @@ public class SecurityConfig {
                 .exceptionHandling(ex -> ex
                         .authenticationEntryPoint(jwtAuthenticationEntryPoint)
                 )
-                .addFilterBefore(new JwtAuthFilter(jwtService, userDetailsService), BasicAuthenticationFilter.class)
+                .addFilterBefore(new JwtAuthFilter(jwtService, userRepository), BasicAuthenticationFilter.class)
                 .authenticationProvider(daoAuthProvider());
         return http.build();
     }
@@ -68,12 +74,12 @@ public class SecurityConfig {
     // JWT Filter - Improved error handling
     static class JwtAuthFilter extends BasicAuthenticationFilter {
         private final JwtService jwtService;
-        private final UserDetailsServiceImpl uds;
+        private final UserRepository userRepo;
 
-        public JwtAuthFilter(JwtService jwtService, UserDetailsServiceImpl uds) {
+        public JwtAuthFilter(JwtService jwtService, UserRepository userRepo) {
             super(authentication -> authentication);
             this.jwtService = jwtService;
-            this. uds = uds;
+            this.userRepo = userRepo;
         }
 
         @Override
@@ -85,18 +91,23 @@ public class SecurityConfig {
             if (auth != null && auth.startsWith("Bearer ")) {
                 try {
                     String token = auth.substring(7);
-                    String username = jwtService.extractUsername(token);
+                    // verify() kiểm tra chữ ký + hạn đúng một lần (có cache), không parse lại
+                    var verified = jwtService.verify(token);
+                    String username = verified.subject();
 
                     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        var userDetails = uds.loadUserByUsername(username);
+                        // Principal dựng từ claims, không query users. Token cũ chưa có claim uid
+                        // thì tra id một lần theo username.
+                        Long userId = verified.userId() != null
+                                ? verified.userId()
+                                : userRepo.findByUsername(username).map(u -> u.getId()).orElse(null);
 
-                        if (jwtService. validateToken(token, username)) {
+                        if (userId != null) {
                             var authToken = new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                                    new UserPrincipal(userId, username), null, AuthorityUtils.createAuthorityList("ROLE_USER"));
                             SecurityContextHolder.getContext().setAuthentication(authToken);
                         } else {
-                            // Token invalid - log và không set authentication
-                            System.err.println("JWT validation failed for user: " + username);
+                            System.err.println("JWT user not found: " + username);
                         }
                     }
                 } catch (io.jsonwebtoken.ExpiredJwtException e) {
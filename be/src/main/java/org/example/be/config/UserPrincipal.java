@@ -0,0 +1,15 @@
+package org.example.be.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal của request đã xác thực, dựng trực tiếp từ claims của JWT
+ * (không query DB). Controller inject qua @AuthenticationPrincipal.
+ */
+public record UserPrincipal(Long id, String username) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
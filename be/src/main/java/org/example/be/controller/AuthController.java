@@ -8,19 +8,23 @@ import org.example.be.auth.dto.AuthDtos;
 import org.example.be.service.AuthService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 public class AuthController {
     private final AuthService authService;
 
+    // Trả CompletableFuture: Spring MVC xử lý bất đồng bộ, thread request không chờ BCrypt
+
     @PostMapping("/register")
-    public AuthDtos.AuthResponse register(@RequestBody @Valid AuthDtos.RegisterRequest req) {
+    public CompletableFuture<AuthDtos.AuthResponse> register(@RequestBody @Valid AuthDtos.RegisterRequest req) {
         return authService.register(req);
     }
 
     @PostMapping("/login")
-    public AuthDtos.AuthResponse login(@RequestBody @Valid AuthDtos.LoginRequest req) {
+    public CompletableFuture<AuthDtos.AuthResponse> login(@RequestBody @Valid AuthDtos.LoginRequest req) {
         return authService.login(req);
     }
 }
@@ -2,12 +2,16 @@ package org.example.be.controller;
 
 import org.example.be.auth.dto.*;
 import org.example.be.entity.Board;
+import org.example.be.config.UserPrincipal;
+import org.example.be.entity.PurgeState;
 import org.example.be.entity.User;
 import org.example.be.repository.UserRepository;
+import org.example.be.service.BoardPurgeService;
 import org.example.be.service.BoardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,42 +23,51 @@ public class BoardController {
     private final BoardService boardService;
     private final UserRepository userRepo;
 
-    private User current(UserDetails ud) {
-        return userRepo.findByUsername(ud.getUsername()).orElseThrow();
+    // Principal đã có sẵn id từ JWT -> chỉ cần reference, không query users
+    private User current(UserPrincipal principal) {
+        return userRepo.getReferenceById(principal.id());
     }
 
     @PostMapping
-    public Object create(@RequestBody BoardDto.BoardCreateRequest req, @AuthenticationPrincipal UserDetails ud) {
-        return boardService.createBoard(req, current(ud));
+    public Object create(@RequestBody BoardDto.BoardCreateRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        return boardService.createBoard(req, current(principal));
     }
 
     @PutMapping("/{id}")
-    public Object update(@PathVariable Long id, @RequestBody BoardDto.BoardUpdateRequest req, @AuthenticationPrincipal UserDetails ud) {
-        return boardService.updateBoard(id, req, current(ud));
+    public Object update(@PathVariable Long id, @RequestBody BoardDto.BoardUpdateRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        return boardService.updateBoard(id, req, current(principal));
     }
 
+    // 200 khi đã xóa xong, 202 khi board lớn đang được purge nền
     @DeleteMapping("/{id}")
-    public void deleteBoard(@PathVariable Long id, @AuthenticationPrincipal UserDetails ud) {
-        boardService.deleteBoard(id, current(ud));
+    public ResponseEntity<BoardPurgeService.PurgeProgress> deleteBoard(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        var progress = boardService.deleteBoard(id, current(principal));
+        var status = progress.state() == PurgeState.RUNNING ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(progress);
+    }
+
+    @GetMapping("/{id}/purge-status")
+    public BoardPurgeService.PurgeProgress purgeStatus(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        return boardService.purgeStatus(id, current(principal));
     }
 
     @GetMapping("/me")
-    public List<Board> myBoards(@AuthenticationPrincipal UserDetails ud) {
-        return boardService.listBoardsForUser(current(ud));
+    public List<Board> myBoards(@AuthenticationPrincipal UserPrincipal principal) {
+        return boardService.listBoardsForUser(current(principal));
     }
 
     @PostMapping("/invite")
-    public void invite(@RequestBody BoardDto.InviteRequest req, @AuthenticationPrincipal UserDetails ud) {
-        boardService.invite(req, current(ud));
+    public void invite(@RequestBody BoardDto.InviteRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        boardService.invite(req, current(principal));
     }
 
     @PostMapping("/change-role")
-    public void changeRole(@RequestBody BoardDto.ChangeRoleRequest req, @AuthenticationPrincipal UserDetails ud) {
-        boardService.changeRole(req, current(ud));
+    public void changeRole(@RequestBody BoardDto.ChangeRoleRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        boardService.changeRole(req, current(principal));
     }
 
     @PostMapping("/remove-member")
-    public void removeMember(@RequestBody BoardDto.RemoveMemberRequest req, @AuthenticationPrincipal UserDetails ud) {
-        boardService.removeMember(req, current(ud));
+    public void removeMember(@RequestBody BoardDto.RemoveMemberRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        boardService.removeMember(req, current(principal));
     }
 }
\ No newline at end of file
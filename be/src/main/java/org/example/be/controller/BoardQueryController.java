@@ -1,13 +1,24 @@
 package org.example.be.controller;
 
-import org.example.be.auth.dto.BoardForecastDto;
-import org.example.be.entity.BoardMember;
-import org.example.be.entity.Card;
-import org.example.be.entity.CardHistory;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
 import org.example.be.entity.Board;
+import org.example.be.entity.Status;
+import org.example.be.config.UserPrincipal;
+import org.example.be.repository.UserRepository;
+import org.example.be.service.BoardBootstrapService;
+import org.example.be.service.BoardChangeService;
+import org.example.be.service.BoardEventBroadcaster;
 import org.example.be.service.BoardQueryService;
+import org.example.be.service.BoardResponseCache;
+import org.example.be.service.BoardVersionService;
+import org.example.be.service.CycleTimeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -17,35 +28,104 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BoardQueryController {
     private final BoardQueryService boardQueryService;
+    private final BoardBootstrapService boardBootstrapService;
+    private final BoardVersionService boardVersionService;
+    private final BoardEventBroadcaster boardEventBroadcaster;
+    private final BoardChangeService boardChangeService;
+    private final BoardResponseCache boardResponseCache;
+    private final CycleTimeService cycleTimeService;
+    private final UserRepository userRepo;
+
+    // Các API GET dưới đây trả ETag = version của board; If-None-Match khớp -> 304, không query gì thêm
+
+    // Dữ liệu mở board trong một request: ?sections=cards,members,history,forecast,burndown (mặc định tất cả)
+    @GetMapping("/{boardId}/bootstrap")
+    public BoardDto.BoardBootstrap bootstrap(@PathVariable Long boardId,
+                                             @RequestParam(required = false) List<String> sections,
+                                             @AuthenticationPrincipal UserPrincipal principal,
+                                             ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.datedEtag(boardId))) return null;
+        return boardBootstrapService.bootstrap(boardId, sections, userRepo.getReferenceById(principal.id()));
+    }
+
+    // Stream SSE các thay đổi của board (event name = BoardEventBroadcaster.Type, data = BoardEvent JSON)
+    @GetMapping(value = "/{boardId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long boardId, @AuthenticationPrincipal UserPrincipal principal) {
+        boardBootstrapService.requireViewer(boardId, userRepo.getReferenceById(principal.id()));
+        return boardEventBroadcaster.subscribe(boardId);
+    }
 
     @GetMapping("/{boardId}/cards")
-    public List<Card> cards(@PathVariable Long boardId) {
+    public List<CardDto.CardView> cards(@PathVariable Long boardId, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
         return boardQueryService.getCards(boardId);
     }
 
     @GetMapping("/{boardId}/members")
-    public List<BoardMember> members(@PathVariable Long boardId) {
+    public List<BoardDto.MemberView> members(@PathVariable Long boardId, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
         return boardQueryService.getMembers(boardId);
     }
 
+    // Phân trang keyset: ?before=<nextCursor của trang trước>&limit=N
     @GetMapping("/{boardId}/history")
-    public List<CardHistory> history(@PathVariable Long boardId) {
-        return boardQueryService.getHistory(boardId);
+    public CardDto.HistoryPage history(@PathVariable Long boardId,
+                                       @RequestParam(required = false) String before,
+                                       @RequestParam(required = false) Integer limit,
+                                       ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
+        return boardQueryService.getHistory(boardId, before, limit);
+    }
+
+    // Đồng bộ delta: card đổi sau version since (version lấy từ board.version hoặc lần gọi trước)
+    @GetMapping("/{boardId}/changes")
+    public CardDto.CardChanges changes(@PathVariable Long boardId,
+                                       @RequestParam long since,
+                                       ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
+        return boardChangeService.changesSince(boardId, since);
+    }
+
+    @GetMapping("/{boardId}/history/first-done")
+    public List<CardDto.FirstDone> firstDone(@PathVariable Long boardId, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
+        return boardQueryService.getFirstDone(boardId);
+    }
+
+    // P50/P85/P95 lead time + cycle time và số card theo bucket, đọc từ histogram của board (không quét history)
+    @GetMapping("/{boardId}/cycle-time")
+    public CardDto.CycleTimeStats cycleTime(@PathVariable Long boardId, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
+        return cycleTimeService.stats(boardId);
+    }
+
+    // Aging WIP: card trong status (mặc định IN_PROGRESS) theo tuổi, kèm dải phân vị cycle time
+    @GetMapping("/{boardId}/aging")
+    public CardDto.AgingReport aging(@PathVariable Long boardId,
+                                     @RequestParam(defaultValue = "IN_PROGRESS") Status status,
+                                     ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.datedEtag(boardId))) return null;
+        return cycleTimeService.aging(boardId, status);
     }
 
     @GetMapping("/{boardId}")
-    public Board detail(@PathVariable Long boardId) {
+    public Board detail(@PathVariable Long boardId, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
         return boardQueryService.getBoard(boardId);
     }
 
-    @GetMapping("/{boardId}/forecast")
-    public BoardForecastDto forecast(@PathVariable Long boardId) {
-        return boardQueryService.forecast(boardId);
+    // Body là JSON BoardForecastDto lấy từ BoardResponseCache theo version đã dùng làm ETag
+    @GetMapping(value = "/{boardId}/forecast", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] forecast(@PathVariable Long boardId, ServletWebRequest request) {
+        long version = boardVersionService.current(boardId);
+        if (ConditionalGet.notModified(request, BoardVersionService.datedEtagOf(version))) return null;
+        return boardResponseCache.forecast(boardId, version);
     }
 
     //API lấy progress của board (số task done / tổng)
     @GetMapping("/{boardId}/progress")
-    public Map<String, Integer> progress(@PathVariable Long boardId) {
+    public Map<String, Integer> progress(@PathVariable Long boardId, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.etag(boardId))) return null;
         return boardQueryService.getBoardProgress(boardId);
     }
 
@@ -1,24 +1,51 @@
 package org.example.be.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.example.be.auth.dto.BurndownDto.BurndownResponse;
-import org.example.be.service.BurndownService;
+import org.example.be.auth.dto.BurndownDto;
+import org.example.be.service.BoardResponseCache;
+import org.example.be.service.BoardVersionService;
+import org.example.be.service.CumulativeFlowService;
+import org.example.be.service.DailySnapshotService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/boards")
 @RequiredArgsConstructor
 public class BurndownController {
 
-    private final BurndownService burndownService;
+    private final DailySnapshotService dailySnapshotService;
+    private final BoardVersionService boardVersionService;
+    private final BoardResponseCache boardResponseCache;
+    private final CumulativeFlowService cumulativeFlowService;
 
-    @GetMapping("/{boardId}/burndown")
-    public BurndownResponse getBurndownData(@PathVariable Long boardId) {
-        return burndownService.getBurndownData(boardId);
+    // ETag = version board + ngày hiện tại; snapshot mới trong ngày chỉ sinh ra khi card đổi (đã tăng version).
+    // Body là JSON BurndownResponse lấy từ BoardResponseCache theo cùng version.
+    @GetMapping(value = "/{boardId}/burndown", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getBurndownData(@PathVariable Long boardId, ServletWebRequest request) {
+        long version = boardVersionService.current(boardId);
+        if (ConditionalGet.notModified(request, BoardVersionService.datedEtagOf(version))) return null;
+        return boardResponseCache.burndown(boardId, version);
     }
 
+    // Dựng lại snapshot hôm nay từ đầu (bình thường dòng này đã được cập nhật theo từng thay đổi card)
     @PostMapping("/{boardId}/snapshot/refresh")
     public void refreshTodaySnapshot(@PathVariable Long boardId) {
-        burndownService.updateTodaySnapshot(boardId);
+        dailySnapshotService.rebuildToday(boardId);
+    }
+
+    // CFD theo ngày: ?from=yyyy-MM-dd&to=yyyy-MM-dd (mặc định từ ngày tạo board tới hôm nay)
+    @GetMapping("/{boardId}/cfd")
+    public List<BurndownDto.CfdPoint> cumulativeFlow(@PathVariable Long boardId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, boardVersionService.datedEtag(boardId))) return null;
+        return cumulativeFlowService.cfd(boardId, from, to);
     }
-}
\ No newline at end of file
+}
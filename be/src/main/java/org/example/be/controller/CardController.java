@@ -3,11 +3,13 @@ package org.example.be.controller;
 import lombok.RequiredArgsConstructor;
 import org.example.be.auth.dto.BoardDto;
 import org.example.be.auth.dto.CardDto;
+import org.example.be.config.UserPrincipal;
 import org.example.be.entity.User;
 import org.example.be.repository.UserRepository;
 import org.example.be.service.CardService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,30 +19,39 @@ public class CardController {
     private final CardService cardService;
     private final UserRepository userRepo;
 
-    private User current(UserDetails ud) { return userRepo.findByUsername(ud.getUsername()).orElseThrow(); }
+    // Principal đã có sẵn id từ JWT -> chỉ cần reference, không query users
+    private User current(UserPrincipal principal) { return userRepo.getReferenceById(principal.id()); }
 
     @PostMapping
-    public Object create(@RequestBody BoardDto.CardCreateRequest req, @AuthenticationPrincipal UserDetails ud) {
-        return cardService.create(req, current(ud));
+    public Object create(@RequestBody BoardDto.CardCreateRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.create(req, current(principal));
     }
 
     @PutMapping
-    public Object update(@RequestBody CardDto.CardUpdateRequest req, @AuthenticationPrincipal UserDetails ud) {
-        return cardService.update(req, current(ud));
+    public Object update(@RequestBody CardDto.CardUpdateRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.update(req, current(principal));
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id, @AuthenticationPrincipal UserDetails ud) {
-        cardService.delete(id, current(ud));
+    public void delete(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        cardService.delete(id, current(principal));
     }
 
     @PostMapping("/move")
-    public Object move(@RequestBody BoardDto.MoveCardRequest req, @AuthenticationPrincipal UserDetails ud) {
-        return cardService.move(req, current(ud));
+    public Object move(@RequestBody BoardDto.MoveCardRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        return cardService.move(req, current(principal));
     }
 
     @PostMapping("/assign")
-    public void assign(@RequestBody BoardDto.CardAssignRequest req, @AuthenticationPrincipal UserDetails ud) {
-        cardService.assign(req, current(ud));
+    public void assign(@RequestBody BoardDto.CardAssignRequest req, @AuthenticationPrincipal UserPrincipal principal) {
+        cardService.assign(req, current(principal));
+    }
+
+    // Nhiều lệnh create/update/move trong một transaction; lỗi -> 400 kèm kết quả từng lệnh
+    @PostMapping("/batch")
+    public ResponseEntity<CardDto.CardBatchResponse> batch(@RequestBody CardDto.CardBatchRequest req,
+                                                           @AuthenticationPrincipal UserPrincipal principal) {
+        var res = cardService.batch(req, current(principal));
+        return ResponseEntity.status(res.applied() ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(res);
     }
 }
\ No newline at end of file
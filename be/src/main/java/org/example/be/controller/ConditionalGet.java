@@ -0,0 +1,21 @@
+package org.example.be.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * GET có điều kiện theo ETag. Đặt Cache-Control "private, no-cache" (thay cho no-store
+ * mặc định của Spring Security) để trình duyệt giữ bản cũ và tự gửi If-None-Match.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static boolean notModified(ServletWebRequest request, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return request.checkNotModified(etag);
+    }
+}
@@ -3,12 +3,17 @@ package org.example.be.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.example.be.auth.dto.WorkspaceDtos;
+import org.example.be.config.UserPrincipal;
+import org.example.be.entity.PurgeState;
 import org.example.be.entity.User;
 import org.example.be.entity.Workspace;
 import org.example.be.repository.UserRepository;
+import org.example.be.service.BoardPurgeService;
+import org.example.be.service.WorkspaceRollupService;
 import org.example.be.service.WorkspaceService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,42 +24,59 @@ import java.util.List;
 public class WorkspaceController {
 
     private final WorkspaceService workspaceService;
+    private final WorkspaceRollupService workspaceRollupService;
     private final UserRepository userRepo;
 
-    private User current(UserDetails ud) {
-        return userRepo.findByUsername(ud.getUsername()).orElseThrow();
+    // Principal đã có sẵn id từ JWT -> chỉ cần reference, không query users
+    private User current(UserPrincipal principal) {
+        return userRepo.getReferenceById(principal.id());
     }
 
     @PostMapping
     public Workspace create(@RequestBody @Valid WorkspaceDtos.WorkspaceCreateRequest req,
-                            @AuthenticationPrincipal UserDetails ud) {
-        return workspaceService.create(req, current(ud));
+                            @AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceService.create(req, current(principal));
     }
 
     @GetMapping("/{id}")
-    public Workspace get(@PathVariable Long id, @AuthenticationPrincipal UserDetails ud) {
-        return workspaceService.get(id, current(ud));
+    public Workspace get(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceService.get(id, current(principal));
+    }
+
+    // Tổng hợp points, velocity, ngày dự kiến xong và health của mọi board trong workspace
+    @GetMapping("/{id}/rollup")
+    public WorkspaceDtos.WorkspaceRollup rollup(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceRollupService.rollup(id, current(principal));
     }
 
     @GetMapping
-    public List<Workspace> list(@AuthenticationPrincipal UserDetails ud) {
-        return workspaceService.list(current(ud));
+    public List<Workspace> list(@AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceService.list(current(principal));
     }
 
     @GetMapping("/search")
-    public List<Workspace> search(@RequestParam("q") String q, @AuthenticationPrincipal UserDetails ud) {
-        return workspaceService.search(q, current(ud));
+    public List<Workspace> search(@RequestParam("q") String q, @AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceService.search(q, current(principal));
     }
 
     @PutMapping("/{id}")
     public Workspace update(@PathVariable Long id,
                             @RequestBody @Valid WorkspaceDtos.WorkspaceUpdateRequest req,
-                            @AuthenticationPrincipal UserDetails ud) {
-        return workspaceService.update(id, req, current(ud));
+                            @AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceService.update(id, req, current(principal));
     }
 
+    // 200 khi đã xóa xong, 202 khi workspace lớn đang được purge nền
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id, @AuthenticationPrincipal UserDetails ud) {
-        workspaceService.delete(id, current(ud));
+    public ResponseEntity<BoardPurgeService.PurgeProgress> delete(@PathVariable Long id,
+                                                                  @AuthenticationPrincipal UserPrincipal principal) {
+        var progress = workspaceService.delete(id, current(principal));
+        var status = progress.state() == PurgeState.RUNNING ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(progress);
+    }
+
+    @GetMapping("/{id}/purge-status")
+    public BoardPurgeService.PurgeProgress purgeStatus(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        return workspaceService.purgeStatus(id, current(principal));
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package org.example.be.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -27,9 +28,20 @@ public class Board {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Tăng mỗi khi dữ liệu board thay đổi (xem BoardVersionService), dùng làm ETag.
+    // Chỉ đổi bằng UPDATE trực tiếp nên save(board) không ghi đè giá trị mới hơn.
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long version;
+
+    // Log thay đổi card (BoardChange) đã bị dọn tới version này: client có version
+    // nhỏ hơn phải tải lại toàn bộ. null = board có từ trước khi có log (xem BoardChangeLogBackfill).
+    private Long changeLogFloor;
+
     @PrePersist
     public void prePersist() {
         if (status == null) status = BoardStatus.IN_PROGRESS;
         if (createdAt == null) createdAt = LocalDateTime.now();
+        if (changeLogFloor == null) changeLogFloor = 0L;
     }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package org.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Log chỉ-ghi-thêm các thay đổi card của board: version = version của board sau
+ * transaction đã ghi thay đổi. Client giữ version cuối cùng đã thấy và chỉ hỏi
+ * các card đổi sau đó (xem BoardChangeService). Log cũ được dọn định kỳ.
+ */
+@Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@Table(indexes = @Index(name = "idx_change_board_version", columnList = "board_id, version"))
+public class BoardChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "board_change_seq")
+    @SequenceGenerator(name = "board_change_seq", sequenceName = "board_change_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "board_id", nullable = false)
+    private Long boardId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private Long cardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeOp op;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
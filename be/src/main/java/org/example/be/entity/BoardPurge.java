@@ -0,0 +1,52 @@
+package org.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Một lần purge board / workspace (khóa "board:1" / "workspace:2"). Lưu trong DB vì
+ * member của board lớn bị gỡ ngay khi bắt đầu: job bị dừng giữa chừng (restart) được
+ * chạy tiếp khi khởi động, job lỗi được giữ tới khi người yêu cầu gọi DELETE lại.
+ * Tiến độ được ghi cùng transaction với từng lô card bị xóa.
+ */
+@Entity
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BoardPurge {
+    @Id
+    private String jobKey;
+
+    @Column(nullable = false)
+    private String target;
+
+    @Column(nullable = false)
+    private Long targetId;
+
+    @Column(nullable = false)
+    private Long requestedBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PurgeState state;
+
+    @Column(nullable = false)
+    private Integer boardsTotal;
+
+    @Column(nullable = false)
+    private Integer boardsDone;
+
+    @Column(nullable = false)
+    private Long cardsTotal;
+
+    @Column(nullable = false)
+    private Long cardsDeleted;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+}
@@ -0,0 +1,43 @@
+package org.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Bộ đếm phi chuẩn hóa cho từng board: số card và tổng points theo Status.
+ * CardService cập nhật bằng tăng/giảm trong cùng transaction với thay đổi card,
+ * nên progress, WIP limit và trạng thái DONE của board đọc được trong O(1).
+ * Points = estimateHours, null tính là 1 (giống BurndownService).
+ */
+@Entity
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BoardSummary {
+    @Id
+    private Long boardId;
+
+    @Column(nullable = false)
+    private Integer todoCount;
+
+    @Column(nullable = false)
+    private Integer inProgressCount;
+
+    @Column(nullable = false)
+    private Integer doneCount;
+
+    @Column(nullable = false)
+    private Double todoPoints;
+
+    @Column(nullable = false)
+    private Double inProgressPoints;
+
+    @Column(nullable = false)
+    private Double donePoints;
+
+    public int totalCount() {
+        return todoCount + inProgressCount + doneCount;
+    }
+
+    public double totalPoints() {
+        return todoPoints + inProgressPoints + donePoints;
+    }
+}
@@ -6,9 +6,16 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_card_board_status_position", columnList = "board_id, status, position"),
+        @Index(name = "idx_card_board_status_entered", columnList = "board_id, status, status_entered_at")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Card {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence pooled (MySQL: bảng card_seq) thay cho IDENTITY để Hibernate batch được INSERT
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_seq")
+    @SequenceGenerator(name = "card_seq", sequenceName = "card_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -18,7 +25,7 @@ public class Card {
     private String title;
 
     private String description;
-    private Integer position;            // order inside a status
+    private Integer position;            // sparse rank inside a status (see CardRankService)
     private LocalDate dueDate;
 
     @Enumerated(EnumType.STRING)
@@ -34,9 +41,17 @@ public class Card {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Lần chuyển vào status hiện tại / lần đầu vào IN_PROGRESS / lần đầu vào DONE,
+    // CardService cập nhật cùng CardHistory (firstDoneAt chỉ có khi đã có history vào DONE)
+    private LocalDateTime statusEnteredAt;
+    private LocalDateTime firstStartedAt;
+    private LocalDateTime firstDoneAt;
+
     @PrePersist
     public void prePersist() {
         if (createdAt == null) createdAt = LocalDateTime.now();
         if (status == null) status = Status.TODO;
+        if (statusEnteredAt == null) statusEnteredAt = createdAt;
+        if (firstStartedAt == null && status == Status.IN_PROGRESS) firstStartedAt = createdAt;
     }
 }
\ No newline at end of file
@@ -5,13 +5,21 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+@Table(indexes = @Index(name = "idx_history_board_date_id", columnList = "board_id, change_date, id"))
 public class CardHistory {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence pooled (MySQL: bảng card_history_seq) thay cho IDENTITY để Hibernate batch được INSERT
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_history_seq")
+    @SequenceGenerator(name = "card_history_seq", sequenceName = "card_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
     private Card card;
 
+    // Bản sao card.board.id để phân trang history theo board bằng index, không cần join card
+    @Column(name = "board_id")
+    private Long boardId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Status fromStatus;
@@ -25,4 +33,9 @@ public class CardHistory {
 
     @ManyToOne(optional = false)
     private User actor; // NEW: ai thao tác
-}
\ No newline at end of file
+
+    @PrePersist
+    public void prePersist() {
+        if (boardId == null && card != null) boardId = card.getBoard().getId();
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.be.entity;
+
+public enum ChangeOp {
+    UPSERT,   // card được tạo / sửa / di chuyển
+    DELETE
+}
@@ -0,0 +1,22 @@
+package org.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Histogram lead time (tạo -> DONE lần đầu) và cycle time (IN_PROGRESS lần đầu -> DONE lần đầu)
+ * của từng board, kích thước cố định: mỗi cột là LogHistogram.BUCKETS bộ đếm int (big-endian).
+ * CardService cập nhật khi card vào DONE lần đầu nên /cycle-time đọc một dòng, không quét history.
+ */
+@Entity
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CycleTimeHistogram {
+    @Id
+    private Long boardId;
+
+    @Column(nullable = false, length = 256)
+    private byte[] leadTimeCounts;
+
+    @Column(nullable = false, length = 256)
+    private byte[] cycleTimeCounts;
+}
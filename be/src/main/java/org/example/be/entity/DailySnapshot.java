@@ -12,8 +12,10 @@ import java.time.LocalDate;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = {"board_id", "snapshot_date"}))
 public class DailySnapshot {
+    // Sequence pooled (MySQL: bảng daily_snapshot_seq) để backfill nhiều ngày được batch INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_snapshot_seq")
+    @SequenceGenerator(name = "daily_snapshot_seq", sequenceName = "daily_snapshot_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
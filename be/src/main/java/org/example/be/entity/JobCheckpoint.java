@@ -0,0 +1,35 @@
+package org.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Tiến độ đã lưu của một job nền chạy theo lô board id (VD: snapshot hằng đêm).
+ * lastBoardId = mọi board có id <= giá trị này đã xử lý xong cho runDate;
+ * finishedAt null nghĩa là lần chạy bị dừng giữa chừng và sẽ được chạy tiếp.
+ */
+@Entity
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class JobCheckpoint {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDate runDate;
+
+    @Column(nullable = false)
+    private Long lastBoardId;
+
+    @Column(nullable = false)
+    private Long processed;
+
+    @Column(nullable = false)
+    private Long failed;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,5 @@
+package org.example.be.entity;
+
+public enum PurgeState {
+    RUNNING, DONE, FAILED
+}
@@ -1,8 +1,11 @@
 package org.example.be.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
+// Controller truyền User dạng reference (proxy) -> bỏ qua field nội bộ của proxy khi serialize
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Entity @Table(name = "users")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class User {
@@ -0,0 +1,31 @@
+package org.example.be.repository;
+
+import org.example.be.entity.BoardChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface BoardChangeRepository extends JpaRepository<BoardChange, Long> {
+
+    // Đi theo idx_change_board_version: (since, upTo] của một board, cũ -> mới
+    @Query("SELECT c FROM BoardChange c WHERE c.boardId = :boardId " +
+            "AND c.version > :since AND c.version <= :upTo ORDER BY c.version, c.id")
+    List<BoardChange> findSince(@Param("boardId") Long boardId,
+                                @Param("since") long since,
+                                @Param("upTo") long upTo,
+                                Pageable pageable);
+
+    // Xóa mọi dòng đã nằm dưới mốc compact của board
+    @Modifying
+    @Query("DELETE FROM BoardChange c WHERE c.version <= " +
+            "(SELECT b.changeLogFloor FROM Board b WHERE b.id = c.boardId)")
+    int deleteBulkCompacted();
+
+    @Modifying
+    @Query("DELETE FROM BoardChange c WHERE c.boardId = :boardId")
+    int deleteBulkByBoardId(@Param("boardId") Long boardId);
+}
@@ -1,9 +1,14 @@
 package org.example.be.repository;
 
+import org.example.be.auth.dto.BoardDto;
 import org.example.be.entity.Board;
 import org.example.be.entity.BoardMember;
+import org.example.be.entity.Role;
 import org.example.be.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +19,16 @@ public interface BoardMemberRepository extends JpaRepository<BoardMember, Long>
     Optional<BoardMember> findByBoardAndUser(Board board, User user);
     List<BoardMember> findByBoard(Board board);
     List<BoardMember> findByUser(User user);
+
+    // Chỉ lấy role (PermissionService cache kết quả)
+    @Query("SELECT m.role FROM BoardMember m WHERE m.board.id = :boardId AND m.user.id = :userId")
+    Optional<Role> findRoleByBoardIdAndUserId(@Param("boardId") Long boardId, @Param("userId") Long userId);
+
+    @Query("SELECT new org.example.be.auth.dto.BoardDto$MemberView(m.id, m.role, u.id, u.username) " +
+            "FROM BoardMember m JOIN m.user u WHERE m.board.id = :boardId")
+    List<BoardDto.MemberView> findViewsByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM BoardMember m WHERE m.board.id = :boardId")
+    int deleteBulkByBoardId(@Param("boardId") Long boardId);
 }
\ No newline at end of file
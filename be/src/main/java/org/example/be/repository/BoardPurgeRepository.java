@@ -0,0 +1,21 @@
+package org.example.be.repository;
+
+import org.example.be.entity.BoardPurge;
+import org.example.be.entity.PurgeState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BoardPurgeRepository extends JpaRepository<BoardPurge, String> {
+
+    List<BoardPurge> findByState(PurgeState state);
+
+    // Job đã xong chỉ giữ để client poll kết quả
+    @Modifying
+    @Query("DELETE FROM BoardPurge p WHERE p.state = org.example.be.entity.PurgeState.DONE AND p.finishedAt < :cutoff")
+    int deleteDoneBefore(@Param("cutoff") Instant cutoff);
+}
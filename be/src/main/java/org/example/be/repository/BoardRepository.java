@@ -1,7 +1,67 @@
 package org.example.be.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.be.entity.Board;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface BoardRepository extends JpaRepository<Board, Long> {
+
+    // Keyset theo id cho các job duyệt toàn bộ board (không load entity)
+    @Query("SELECT b.id FROM Board b WHERE b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Board b WHERE b.workspace.id = :workspaceId")
+    List<Long> findIdsByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    interface RollupView {
+        Long getId();
+        String getName();
+        LocalDate getEndDate();
+        Double getTotalPoints();   // null khi board chưa có dòng BoardSummary
+        Double getDonePoints();
+    }
+
+    // Các board của workspace kèm tổng points từ BoardSummary trong một query
+    @Query("SELECT b.id AS id, b.name AS name, b.endDate AS endDate, " +
+            "(s.todoPoints + s.inProgressPoints + s.donePoints) AS totalPoints, s.donePoints AS donePoints " +
+            "FROM Board b LEFT JOIN BoardSummary s ON s.boardId = b.id " +
+            "WHERE b.workspace.id = :workspaceId ORDER BY b.id")
+    List<RollupView> findRollupByWorkspaceId(@Param("workspaceId") Long workspaceId);
+
+    // Lookup theo khóa chính, không đụng tới bảng card
+    @Query("SELECT b.version FROM Board b WHERE b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Khóa dòng board như transaction card (vốn khóa qua bumpVersion) nhưng không đổi version
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Board b WHERE b.id = :id")
+    Optional<Board> findForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Board b SET b.version = b.version + 1 WHERE b.id = :id")
+    int bumpVersion(@Param("id") Long id);
+
+    @Query("SELECT b.changeLogFloor FROM Board b WHERE b.id = :id")
+    Optional<Long> findChangeLogFloorById(@Param("id") Long id);
+
+    // Nâng mốc compact lên version lớn nhất có thay đổi cũ hơn cutoff
+    @Modifying
+    @Query("UPDATE Board b SET b.changeLogFloor = " +
+            "(SELECT MAX(c.version) FROM BoardChange c WHERE c.boardId = b.id AND c.changedAt < :cutoff) " +
+            "WHERE EXISTS (SELECT 1 FROM BoardChange c WHERE c.boardId = b.id AND c.changedAt < :cutoff)")
+    int raiseChangeLogFloors(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM Board b WHERE b.id = :id")
+    int deleteBulkById(@Param("id") Long id);
 }
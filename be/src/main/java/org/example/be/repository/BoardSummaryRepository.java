@@ -0,0 +1,64 @@
+package org.example.be.repository;
+
+import org.example.be.entity.BoardSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BoardSummaryRepository extends JpaRepository<BoardSummary, Long> {
+
+    interface ProgressView {
+        Integer getTotal();
+        Integer getDone();
+    }
+
+    // Đọc thẳng từ DB (không qua entity đã managed) để thấy các delta vừa áp dụng
+    @Query("SELECT (s.todoCount + s.inProgressCount + s.doneCount) AS total, s.doneCount AS done " +
+            "FROM BoardSummary s WHERE s.boardId = :boardId")
+    Optional<ProgressView> findProgress(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("DELETE FROM BoardSummary s WHERE s.boardId = :boardId")
+    int deleteBulkByBoardId(@Param("boardId") Long boardId);
+
+    @Modifying
+    @Query("UPDATE BoardSummary s SET " +
+            "s.todoCount = s.todoCount + :todoCount, " +
+            "s.inProgressCount = s.inProgressCount + :inProgressCount, " +
+            "s.doneCount = s.doneCount + :doneCount, " +
+            "s.todoPoints = s.todoPoints + :todoPoints, " +
+            "s.inProgressPoints = s.inProgressPoints + :inProgressPoints, " +
+            "s.donePoints = s.donePoints + :donePoints " +
+            "WHERE s.boardId = :boardId")
+    int applyDelta(@Param("boardId") Long boardId,
+                   @Param("todoCount") int todoCount,
+                   @Param("inProgressCount") int inProgressCount,
+                   @Param("doneCount") int doneCount,
+                   @Param("todoPoints") double todoPoints,
+                   @Param("inProgressPoints") double inProgressPoints,
+                   @Param("donePoints") double donePoints);
+
+    // Như applyDelta nhưng chỉ áp dụng khi số IN_PROGRESS sau khi cộng không vượt WIP limit (check + tăng trong một câu UPDATE)
+    @Modifying
+    @Query("UPDATE BoardSummary s SET " +
+            "s.todoCount = s.todoCount + :todoCount, " +
+            "s.inProgressCount = s.inProgressCount + :inProgressCount, " +
+            "s.doneCount = s.doneCount + :doneCount, " +
+            "s.todoPoints = s.todoPoints + :todoPoints, " +
+            "s.inProgressPoints = s.inProgressPoints + :inProgressPoints, " +
+            "s.donePoints = s.donePoints + :donePoints " +
+            "WHERE s.boardId = :boardId AND s.inProgressCount + :inProgressCount <= :wipLimit")
+    int applyDeltaWithinWipLimit(@Param("boardId") Long boardId,
+                                 @Param("todoCount") int todoCount,
+                                 @Param("inProgressCount") int inProgressCount,
+                                 @Param("doneCount") int doneCount,
+                                 @Param("todoPoints") double todoPoints,
+                                 @Param("inProgressPoints") double inProgressPoints,
+                                 @Param("donePoints") double donePoints,
+                                 @Param("wipLimit") int wipLimit);
+}
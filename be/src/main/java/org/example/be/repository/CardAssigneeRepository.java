@@ -4,8 +4,12 @@ import org.example.be.entity.Card;
 import org.example.be.entity.CardAssignee;
 import org.example.be.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +17,8 @@ public interface CardAssigneeRepository extends JpaRepository<CardAssignee, Long
     List<CardAssignee> findByCard(Card card);
 
     boolean existsByCardAndUser(Card card, User user);
+
+    @Modifying
+    @Query("DELETE FROM CardAssignee a WHERE a.card.id IN :cardIds")
+    int deleteBulkByCardIdIn(@Param("cardIds") Collection<Long> cardIds);
 }
\ No newline at end of file
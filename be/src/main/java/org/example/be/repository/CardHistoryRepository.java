@@ -1,13 +1,23 @@
 package org.example.be.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.example.be.auth.dto.CardDto;
 import org.example.be.entity.Board;
 import org.example.be.entity.CardHistory;
+import org.example.be.entity.Status;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
 public interface CardHistoryRepository extends JpaRepository<CardHistory, Long> {
@@ -20,6 +30,60 @@ public interface CardHistoryRepository extends JpaRepository<CardHistory, Long>
     @Query("SELECT h FROM CardHistory h WHERE h.card.board = :board ORDER BY h.changeDate DESC, h.id DESC")
     List<CardHistory> findByBoardOrderByChangeDateDescIdDesc(@Param("board") Board board);
 
+    /**
+     * Phân trang keyset cho API history, đi theo index (board_id, change_date, id):
+     * trang đầu lấy mới nhất, các trang sau lấy các dòng đứng sau cursor (changeDate, id).
+     * Chỉ join card + actor cho đúng các dòng của trang.
+     */
+    @Query("SELECT new org.example.be.auth.dto.CardDto$HistoryView(h.id, h.fromStatus, h.toStatus, h.changeDate, " +
+            "c.id, c.title, a.id, a.username) " +
+            "FROM CardHistory h JOIN h.card c LEFT JOIN h.actor a " +
+            "WHERE h.boardId = :boardId ORDER BY h.changeDate DESC, h.id DESC")
+    List<CardDto.HistoryView> findViewPage(@Param("boardId") Long boardId, Pageable pageable);
+
+    @Query("SELECT new org.example.be.auth.dto.CardDto$HistoryView(h.id, h.fromStatus, h.toStatus, h.changeDate, " +
+            "c.id, c.title, a.id, a.username) " +
+            "FROM CardHistory h JOIN h.card c LEFT JOIN h.actor a " +
+            "WHERE h.boardId = :boardId " +
+            "AND (h.changeDate < :beforeDate OR (h.changeDate = :beforeDate AND h.id < :beforeId)) " +
+            "ORDER BY h.changeDate DESC, h.id DESC")
+    List<CardDto.HistoryView> findViewPageBefore(@Param("boardId") Long boardId,
+                                                 @Param("beforeDate") LocalDateTime beforeDate,
+                                                 @Param("beforeId") Long beforeId,
+                                                 Pageable pageable);
+
+    // Lần đầu mỗi card vào DONE (một dòng mỗi card) cho cycle time trên UI
+    @Query("SELECT new org.example.be.auth.dto.CardDto$FirstDone(h.card.id, MIN(h.changeDate)) " +
+            "FROM CardHistory h WHERE h.boardId = :boardId AND h.toStatus = org.example.be.entity.Status.DONE " +
+            "GROUP BY h.card.id")
+    List<CardDto.FirstDone> findFirstDoneByBoardId(@Param("boardId") Long boardId);
+
+    interface Transition {
+        Long getCardId();
+        Status getFromStatus();
+        Status getToStatus();
+        LocalDateTime getChangeDate();
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * Các lần chuyển status của board cho CFD, kèm ngày tạo card, đọc dạng stream với fetch size
+     * (MySQL cần useCursorFetch=true). Bỏ các dòng không ảnh hưởng khoảng ngày: chuyển trước
+     * fromStart, hoặc card tạo từ toEnd trở đi. Không ORDER BY vì bên đọc không cần thứ tự.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.id AS cardId, h.fromStatus AS fromStatus, h.toStatus AS toStatus, " +
+            "h.changeDate AS changeDate, c.createdAt AS createdAt " +
+            "FROM CardHistory h JOIN h.card c " +
+            "WHERE h.boardId = :boardId AND h.changeDate >= :fromStart AND c.createdAt < :toEnd")
+    Stream<Transition> streamTransitions(@Param("boardId") Long boardId,
+                                         @Param("fromStart") LocalDateTime fromStart,
+                                         @Param("toEnd") LocalDateTime toEnd);
+
     // Giữ lại method cũ để tương thích ngược nếu cần
     List<CardHistory> findByCard_BoardOrderByChangeDateDesc(Board board);
+
+    @Modifying
+    @Query("DELETE FROM CardHistory h WHERE h.card.id IN :cardIds")
+    int deleteBulkByCardIdIn(@Param("cardIds") Collection<Long> cardIds);
 }
\ No newline at end of file
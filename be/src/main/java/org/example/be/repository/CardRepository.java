@@ -1,14 +1,141 @@
 package org.example.be.repository;
 
+import org.example.be.auth.dto.CardDto;
 import org.example.be.entity.Card;
 import org.example.be.entity.Board;
 import org.example.be.entity.Status;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CardRepository extends JpaRepository<Card, Long> {
     List<Card> findByBoard(Board board);
+
+    // Một SELECT trên bảng card, không join board/workspace/users
+    @Query("SELECT new org.example.be.auth.dto.CardDto$CardView(c.id, c.title, c.description, c.position, " +
+            "c.dueDate, c.priority, c.status, c.estimateHours, c.actualHours, c.createdAt, c.board.id) " +
+            "FROM Card c WHERE c.board.id = :boardId")
+    List<CardDto.CardView> findViewsByBoardId(@Param("boardId") Long boardId);
+
+    @Query("SELECT new org.example.be.auth.dto.CardDto$CardView(c.id, c.title, c.description, c.position, " +
+            "c.dueDate, c.priority, c.status, c.estimateHours, c.actualHours, c.createdAt, c.board.id) " +
+            "FROM Card c WHERE c.id IN :ids")
+    List<CardDto.CardView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
     List<Card> findByBoardAndStatusOrderByPositionAsc(Board board, Status status);
-}
\ No newline at end of file
+    long countByBoardIdAndStatus(Long boardId, Status status);
+    long countByBoardId(Long boardId);
+    long countByBoardWorkspaceId(Long workspaceId);
+
+    // Xóa theo lô khi purge board
+    @Query("SELECT c.id FROM Card c WHERE c.board.id = :boardId ORDER BY c.id ASC")
+    List<Long> findIdsByBoardId(@Param("boardId") Long boardId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Card c WHERE c.id IN :ids")
+    int deleteBulkByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface StatusTotals {
+        Status getStatus();
+        Long getCount();
+        Double getPoints();
+    }
+
+    // Số card + tổng points theo status, dùng để dựng BoardSummary lần đầu
+    @Query("SELECT c.status AS status, COUNT(c) AS count, SUM(COALESCE(c.estimateHours, 1.0)) AS points " +
+            "FROM Card c WHERE c.board.id = :boardId GROUP BY c.status")
+    List<StatusTotals> sumByStatus(@Param("boardId") Long boardId);
+
+    interface ColumnSlot {
+        Long getId();
+        Integer getPosition();
+    }
+
+    // Card thứ index trong cột (Pageable offset = index, size 1); chỉ dùng khi client gửi index
+    @Query("SELECT c.id AS id, c.position AS position FROM Card c " +
+            "WHERE c.board = :board AND c.status = :status AND c.id <> :excludeId " +
+            "ORDER BY c.position ASC, c.id ASC")
+    List<ColumnSlot> findColumnSlots(@Param("board") Board board,
+                                     @Param("status") Status status,
+                                     @Param("excludeId") Long excludeId,
+                                     Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.position AS position FROM Card c " +
+            "WHERE c.id = :id AND c.board = :board AND c.status = :status")
+    Optional<ColumnSlot> findColumnSlot(@Param("board") Board board,
+                                        @Param("status") Status status,
+                                        @Param("id") Long id);
+
+    // Card liền trước / liền sau (position, id) theo keyset trên index (board_id, status, position)
+    @Query("SELECT c.id AS id, c.position AS position FROM Card c " +
+            "WHERE c.board = :board AND c.status = :status AND c.id <> :excludeId " +
+            "AND (c.position < :position OR (c.position = :position AND c.id < :id)) " +
+            "ORDER BY c.position DESC, c.id DESC")
+    List<ColumnSlot> findSlotsBefore(@Param("board") Board board,
+                                     @Param("status") Status status,
+                                     @Param("excludeId") Long excludeId,
+                                     @Param("position") Integer position,
+                                     @Param("id") Long id,
+                                     Limit limit);
+
+    @Query("SELECT c.id AS id, c.position AS position FROM Card c " +
+            "WHERE c.board = :board AND c.status = :status AND c.id <> :excludeId " +
+            "AND (c.position > :position OR (c.position = :position AND c.id > :id)) " +
+            "ORDER BY c.position ASC, c.id ASC")
+    List<ColumnSlot> findSlotsAfter(@Param("board") Board board,
+                                    @Param("status") Status status,
+                                    @Param("excludeId") Long excludeId,
+                                    @Param("position") Integer position,
+                                    @Param("id") Long id,
+                                    Limit limit);
+
+    @Query("SELECT MAX(c.position) FROM Card c WHERE c.board = :board AND c.status = :status AND c.id <> :excludeId")
+    Integer findMaxPosition(@Param("board") Board board,
+                            @Param("status") Status status,
+                            @Param("excludeId") Long excludeId);
+
+    @Query("SELECT c.id FROM Card c WHERE c.board.id = :boardId AND c.status = :status ORDER BY c.position ASC, c.id ASC")
+    List<Long> findColumnIdsInOrder(@Param("boardId") Long boardId, @Param("status") Status status);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.position = :position WHERE c.id = :id")
+    int updatePosition(@Param("id") Long id, @Param("position") Integer position);
+
+    interface AgingView {
+        Long getId();
+        String getTitle();
+        Double getEstimateHours();
+        LocalDateTime getStatusEnteredAt();
+        LocalDateTime getFirstStartedAt();
+    }
+
+    // Card lâu nhất trong status lên đầu; đọc theo index (board_id, status, status_entered_at), không quét history
+    @Query("SELECT c.id AS id, c.title AS title, c.estimateHours AS estimateHours, " +
+            "c.statusEnteredAt AS statusEnteredAt, c.firstStartedAt AS firstStartedAt " +
+            "FROM Card c WHERE c.board.id = :boardId AND c.status = :status " +
+            "ORDER BY c.statusEnteredAt ASC, c.id ASC")
+    List<AgingView> findAging(@Param("boardId") Long boardId, @Param("status") Status status);
+
+    interface CreatedView {
+        LocalDateTime getCreatedAt();
+        Status getStatus();
+    }
+
+    // Card tạo trước toEnd cho CFD, đọc dạng stream (phải đóng stream, trong transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT c.createdAt AS createdAt, c.status AS status FROM Card c " +
+            "WHERE c.board.id = :boardId AND c.createdAt < :toEnd")
+    Stream<CreatedView> streamCreatedBefore(@Param("boardId") Long boardId, @Param("toEnd") LocalDateTime toEnd);
+}
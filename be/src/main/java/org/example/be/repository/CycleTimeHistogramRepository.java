@@ -0,0 +1,32 @@
+package org.example.be.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.be.entity.CycleTimeHistogram;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CycleTimeHistogramRepository extends JpaRepository<CycleTimeHistogram, Long> {
+
+    // Khóa dòng tới khi commit: hai card vào DONE song song không ghi đè bộ đếm của nhau
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM CycleTimeHistogram h WHERE h.boardId = :boardId")
+    Optional<CycleTimeHistogram> findForUpdate(@Param("boardId") Long boardId);
+
+    // Board cũ chưa có dòng histogram, keyset theo id (cho backfill lúc khởi động)
+    @Query("SELECT b.id FROM Board b WHERE b.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM CycleTimeHistogram h WHERE h.boardId = b.id) ORDER BY b.id")
+    List<Long> findBoardIdsWithoutHistogram(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CycleTimeHistogram h WHERE h.boardId = :boardId")
+    int deleteBulkByBoardId(@Param("boardId") Long boardId);
+}
@@ -3,6 +3,7 @@ package org.example.be.repository;
 import org.example.be.entity.Board;
 import org.example.be.entity.DailySnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,9 +31,48 @@ public interface DailySnapshotRepository extends JpaRepository<DailySnapshot, Lo
             @Param("endDate") LocalDate endDate
     );
 
+    interface VelocityView {
+        Long getBoardId();
+        LocalDate getFirstDate();
+        Double getCompletedBefore();   // points hoàn thành trước :weekStart
+        Double getCompletedTotal();
+    }
+
+    // Gom snapshot của mọi board trong workspace theo board (một query thay cho N lần đọc snapshot)
+    @Query("SELECT ds.board.id AS boardId, MIN(ds.snapshotDate) AS firstDate, " +
+            "SUM(CASE WHEN ds.snapshotDate < :weekStart THEN ds.completedPointsDaily ELSE 0.0 END) AS completedBefore, " +
+            "SUM(ds.completedPointsDaily) AS completedTotal " +
+            "FROM DailySnapshot ds WHERE ds.board.workspace.id = :workspaceId AND ds.snapshotDate <= :today " +
+            "GROUP BY ds.board.id")
+    List<VelocityView> sumVelocityByWorkspaceId(@Param("workspaceId") Long workspaceId,
+                                                @Param("weekStart") LocalDate weekStart,
+                                                @Param("today") LocalDate today);
+
     // Lấy snapshot gần nhất của board
     Optional<DailySnapshot> findTopByBoardOrderBySnapshotDateDesc(Board board);
 
+    // Cộng delta vào snapshot của một ngày; trả về 0 nếu ngày đó chưa có dòng
+    @Modifying
+    @Query("UPDATE DailySnapshot ds SET " +
+            "ds.remainingPoints = ds.remainingPoints + :remainingPoints, " +
+            "ds.completedPoints = ds.completedPoints + :completedPoints, " +
+            "ds.completedPointsDaily = ds.completedPointsDaily + :completedPointsDaily, " +
+            "ds.remainingTasks = ds.remainingTasks + :remainingTasks, " +
+            "ds.completedTasks = ds.completedTasks + :completedTasks " +
+            "WHERE ds.board.id = :boardId AND ds.snapshotDate = :date")
+    int applyDelta(@Param("boardId") Long boardId,
+                   @Param("date") LocalDate date,
+                   @Param("remainingPoints") double remainingPoints,
+                   @Param("completedPoints") double completedPoints,
+                   @Param("completedPointsDaily") double completedPointsDaily,
+                   @Param("remainingTasks") int remainingTasks,
+                   @Param("completedTasks") int completedTasks);
+
     // Xóa tất cả snapshot của board (khi xóa board)
     void deleteByBoard(Board board);
+
+    // Xóa hàng loạt bằng một câu DELETE (không load entity)
+    @Modifying
+    @Query("DELETE FROM DailySnapshot ds WHERE ds.board.id = :boardId")
+    int deleteBulkByBoardId(@Param("boardId") Long boardId);
 }
\ No newline at end of file
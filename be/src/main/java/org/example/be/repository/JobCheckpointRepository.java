@@ -0,0 +1,7 @@
+package org.example.be.repository;
+
+import org.example.be.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -3,6 +3,9 @@ package org.example.be.repository;
 import org.example.be.entity.User;
 import org.example.be.entity.Workspace;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,8 @@ public interface WorkspaceRepository extends JpaRepository<Workspace, Long> {
     List<Workspace> findByOwner(User owner);
     List<Workspace> findByOwnerAndNameContainingIgnoreCaseOrderByNameAsc(User owner, String name);
 
+    @Modifying
+    @Query("DELETE FROM Workspace w WHERE w.id = :id")
+    int deleteBulkById(@Param("id") Long id);
+
 }
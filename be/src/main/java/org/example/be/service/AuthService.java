@@ -1,40 +1,66 @@
 package org.example.be.service;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
-
-
 import org.example.be.auth.dto.AuthDtos;
-
 import org.example.be.config.JwtService;
 import org.example.be.entity.User;
 import org.example.be.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
     private final UserRepository userRepo;
-    private final PasswordEncoder encoder;
+    private final PasswordHasher hasher;
     private final JwtService jwtService;
+    private final TransactionTemplate tx;
+    // Phần ghi DB sau khi hash xong chạy ở đây, không giữ thread của pool BCrypt
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public AuthService(UserRepository userRepo, PasswordHasher hasher, JwtService jwtService,
+                       PlatformTransactionManager txManager) {
+        this.userRepo = userRepo;
+        this.hasher = hasher;
+        this.jwtService = jwtService;
+        this.tx = new TransactionTemplate(txManager);
+    }
 
-    public AuthDtos.AuthResponse register(@Valid AuthDtos.RegisterRequest req) {
+    // Pool của PasswordHasher chỉ hash; kiểm tra trùng + insert user chạy trong transaction riêng trên virtual thread
+    public CompletableFuture<AuthDtos.AuthResponse> register(@Valid AuthDtos.RegisterRequest req) {
         if (userRepo.findByUsername(req.username()).isPresent())
             throw new RuntimeException("Username exists");
-        User u = User.builder()
-                .username(req.username())
-                .passwordHash(encoder.encode(req.password()))
-                .build();
-        userRepo.save(u);
-        return new AuthDtos.AuthResponse(jwtService.generateToken(u.getUsername()));
+        return hasher.encode(req.password())
+                .thenApplyAsync(hash -> tx.execute(s -> createUser(req.username(), hash)), writers)
+                .thenApply(u -> new AuthDtos.AuthResponse(jwtService.generateToken(u)));
     }
 
-    public AuthDtos.AuthResponse login(AuthDtos.LoginRequest req) {
+    public CompletableFuture<AuthDtos.AuthResponse> login(AuthDtos.LoginRequest req) {
         var u = userRepo.findByUsername(req.username())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
-        if (!encoder.matches(req.password(), u.getPasswordHash()))
-            throw new RuntimeException("Invalid credentials");
-        return new AuthDtos.AuthResponse(jwtService.generateToken(u.getUsername()));
+        return hasher.matches(req.password(), u.getPasswordHash()).thenApply(ok -> {
+            if (!ok) throw new RuntimeException("Invalid credentials");
+            return new AuthDtos.AuthResponse(jwtService.generateToken(u));
+        });
+    }
+
+    // Kiểm tra lại vì trong lúc hash có thể request khác đã đăng ký cùng username
+    private User createUser(String username, String hash) {
+        if (userRepo.findByUsername(username).isPresent())
+            throw new RuntimeException("Username exists");
+        return userRepo.save(User.builder()
+                .username(username)
+                .passwordHash(hash)
+                .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
     }
-}
\ No newline at end of file
+}
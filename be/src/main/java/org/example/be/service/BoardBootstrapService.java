@@ -0,0 +1,100 @@
+package org.example.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.Board;
+import org.example.be.entity.Permission;
+import org.example.be.entity.User;
+import org.example.be.repository.BoardMemberRepository;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.CardHistoryRepository;
+import org.example.be.repository.CardRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Gom các request mở board (board, cards, members, history, forecast, burndown)
+ * thành một: load board + kiểm tra membership một lần, rồi chạy các section
+ * song song trên virtual thread (mỗi section một query/connection riêng).
+ * Forecast/burndown lấy JSON từ BoardResponseCache theo version của board vừa load
+ * và ghi thẳng vào response, không deserialize lại.
+ */
+@Service
+@RequiredArgsConstructor
+public class BoardBootstrapService {
+
+    public static final Set<String> ALL_SECTIONS =
+            Set.of("cards", "members", "history", "forecast", "burndown");
+
+    private final BoardRepository boardRepo;
+    private final CardRepository cardRepo;
+    private final BoardMemberRepository boardMemberRepo;
+    private final CardHistoryRepository cardHistoryRepo;
+    private final PermissionService permissionService;
+    private final BoardQueryService boardQueryService;
+    private final BoardResponseCache boardResponseCache;
+
+    /**
+     * Load board và kiểm tra user được xem board (dùng chung cho bootstrap và stream event).
+     */
+    public Board requireViewer(Long boardId, User current) {
+        Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        if (!permissionService.hasPermission(current, board, Permission.CARD_VIEW)) {
+            throw new RuntimeException("Forbidden: not a member");
+        }
+        return board;
+    }
+
+    /**
+     * sections: tập con của {@link #ALL_SECTIONS}, null/rỗng = tất cả.
+     * Section "history" gồm trang history đầu tiên và firstDone.
+     */
+    public BoardDto.BoardBootstrap bootstrap(Long boardId, Collection<String> sections, User current) {
+        Set<String> wanted = sections == null || sections.isEmpty() ? ALL_SECTIONS : new HashSet<>(sections);
+        for (String section : wanted) {
+            if (!ALL_SECTIONS.contains(section)) throw new RuntimeException("Unknown section: " + section);
+        }
+
+        Board board = requireViewer(boardId, current);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<CardDto.CardView>> cards =
+                    submit(executor, wanted, "cards", () -> cardRepo.findViewsByBoardId(boardId));
+            Future<List<BoardDto.MemberView>> members =
+                    submit(executor, wanted, "members", () -> boardMemberRepo.findViewsByBoardId(boardId));
+            Future<CardDto.HistoryPage> history =
+                    submit(executor, wanted, "history", () -> boardQueryService.historyPage(boardId, null, null));
+            Future<List<CardDto.FirstDone>> firstDone =
+                    submit(executor, wanted, "history", () -> cardHistoryRepo.findFirstDoneByBoardId(boardId));
+            Future<String> forecast =
+                    submit(executor, wanted, "forecast", () -> boardResponseCache.forecastJson(board));
+            Future<String> burndown =
+                    submit(executor, wanted, "burndown", () -> boardResponseCache.burndownJson(board));
+
+            return new BoardDto.BoardBootstrap(BoardDto.BoardView.from(board),
+                    join(cards), join(members), join(history), join(firstDone),
+                    join(forecast), join(burndown));
+        }
+    }
+
+    private static <T> Future<T> submit(ExecutorService executor, Set<String> wanted,
+                                        String section, Callable<T> task) {
+        return wanted.contains(section) ? executor.submit(task) : CompletableFuture.completedFuture(null);
+    }
+
+    // Lỗi của một section làm hỏng cả response, giữ nguyên RuntimeException gốc để map ra 400
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.be.service;
+
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.BoardChange;
+import org.example.be.entity.ChangeOp;
+import org.example.be.repository.BoardChangeRepository;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.CardRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Đồng bộ delta cho card: mỗi thay đổi card tăng version của board và ghi
+ * (version, cardId, op) vào log; client gửi version cuối cùng đã có và chỉ nhận
+ * lại các card đổi sau đó, chi phí theo số thay đổi thay vì kích thước board.
+ * Log cũ hơn retention được dọn định kỳ; client cũ hơn mốc dọn nhận resyncRequired.
+ */
+@Service
+public class BoardChangeService {
+
+    private final BoardRepository boardRepo;
+    private final BoardChangeRepository changeRepo;
+    private final CardRepository cardRepo;
+    private final int maxChanges;
+    private final int retentionDays;
+
+    public BoardChangeService(BoardRepository boardRepo,
+                              BoardChangeRepository changeRepo,
+                              CardRepository cardRepo,
+                              @Value("${board.changes.maxChanges:1000}") int maxChanges,
+                              @Value("${board.changes.retentionDays:7}") int retentionDays) {
+        this.boardRepo = boardRepo;
+        this.changeRepo = changeRepo;
+        this.cardRepo = cardRepo;
+        this.maxChanges = maxChanges;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Tăng version của board rồi ghi các card vừa đổi với version mới, trong
+     * transaction của caller (UPDATE version khóa dòng board nên version được
+     * cấp theo đúng thứ tự commit).
+     */
+    public long record(Long boardId, ChangeOp op, Collection<Long> cardIds) {
+        boardRepo.bumpVersion(boardId);
+        long version = boardRepo.findVersionById(boardId)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+        if (cardIds.isEmpty()) return version;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BoardChange> rows = new ArrayList<>(cardIds.size());
+        for (Long cardId : cardIds) {
+            rows.add(BoardChange.builder()
+                    .boardId(boardId).version(version).cardId(cardId).op(op).changedAt(now)
+                    .build());
+        }
+        changeRepo.saveAll(rows);
+        return version;
+    }
+
+    /**
+     * Card đổi sau version since: upserted = trạng thái hiện tại, deleted = id đã xóa.
+     * resyncRequired khi log đã bị dọn qua since, since không hợp lệ, hoặc số thay
+     * đổi vượt maxChanges (tải lại cả board rẻ hơn).
+     */
+    @Transactional(readOnly = true)
+    public CardDto.CardChanges changesSince(Long boardId, long since) {
+        long version = boardRepo.findVersionById(boardId)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+        Long floor = boardRepo.findChangeLogFloorById(boardId).orElse(null);
+        if (floor == null || since < floor || since > version) {
+            return CardDto.CardChanges.resync(version);
+        }
+        if (since == version) {
+            return new CardDto.CardChanges(version, false, List.of(), List.of());
+        }
+
+        List<BoardChange> log = changeRepo.findSince(boardId, since, version, PageRequest.of(0, maxChanges + 1));
+        if (log.size() > maxChanges) {
+            return CardDto.CardChanges.resync(version);
+        }
+
+        // Thay đổi cuối cùng của mỗi card quyết định card đó được upsert hay xóa
+        Map<Long, ChangeOp> lastOp = new LinkedHashMap<>();
+        for (BoardChange change : log) {
+            lastOp.remove(change.getCardId());
+            lastOp.put(change.getCardId(), change.getOp());
+        }
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        lastOp.forEach((cardId, op) -> (op == ChangeOp.DELETE ? deleted : upsertIds).add(cardId));
+
+        List<CardDto.CardView> upserted = upsertIds.isEmpty() ? List.of() : cardRepo.findViewsByIdIn(upsertIds);
+        if (upserted.size() < upsertIds.size()) {
+            // Card đã bị xóa khi board đang được purge: báo xóa luôn
+            Set<Long> found = new HashSet<>();
+            upserted.forEach(c -> found.add(c.id()));
+            upsertIds.stream().filter(id -> !found.contains(id)).forEach(deleted::add);
+        }
+        return new CardDto.CardChanges(version, false, upserted, deleted);
+    }
+
+    // Dọn log cũ: nâng mốc compact của từng board trước rồi mới xóa dòng dưới mốc
+    @Scheduled(cron = "${board.changes.compactCron:0 30 3 * * *}")
+    @Transactional
+    public void compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        boardRepo.raiseChangeLogFloors(cutoff);
+        changeRepo.deleteBulkCompacted();
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.be.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.be.auth.dto.CardDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Đẩy thay đổi của board tới các client đang mở board qua SSE.
+ * Service publish {@link BoardEvent}, sau commit event được serialize một lần
+ * rồi chỉ offer vào buffer có giới hạn của từng client (không chặn thread commit).
+ * Mỗi client có tối đa một task ghi chạy trên virtual thread; client đọc chậm
+ * làm đầy buffer thì bị ngắt kết nối (client tự reconnect và tải lại theo ETag).
+ */
+@Service
+public class BoardEventBroadcaster {
+
+    public enum Type {
+        CARD_CREATED, CARD_UPDATED, CARD_MOVED, CARD_DELETED, CARD_ASSIGNED,
+        MEMBER_ADDED, MEMBER_ROLE_CHANGED, MEMBER_REMOVED, BOARD_UPDATED
+    }
+
+    /**
+     * Thay đổi gọn của board: card = trạng thái mới của card (null với CARD_DELETED
+     * và event member), userId = member/assignee liên quan.
+     */
+    public record BoardEvent(Long boardId, Type type, Long cardId, Long userId, CardDto.CardView card) {
+    }
+
+    private final ObjectMapper json;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Counter evictedCounter;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT =
+            Collections.unmodifiableSet(SseEmitter.event().comment("ping").build());
+
+    public BoardEventBroadcaster(ObjectMapper json,
+                                 MeterRegistry registry,
+                                 @Value("${board.events.bufferSize:64}") int bufferSize,
+                                 @Value("${board.events.timeoutMs:1800000}") long timeoutMs) {
+        this.json = json;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+
+        Gauge.builder("board.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Số kết nối SSE đang mở")
+                .register(registry);
+        this.evictedCounter = Counter.builder("board.events.evicted")
+                .description("Số client bị ngắt vì đọc chậm (buffer đầy)")
+                .register(registry);
+    }
+
+    public SseEmitter subscribe(Long boardId) {
+        return subscribe(boardId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long boardId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(boardId, emitter);
+        // add bên trong compute để không đua với remove() đang xóa set rỗng của board
+        subscribers.compute(boardId, (id, board) -> {
+            Set<Subscriber> set = board != null ? board : ConcurrentHashMap.<Subscriber>newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(e -> subscriber.remove());
+        // Gửi ngay một comment để proxy/trình duyệt mở stream
+        subscriber.offer(HEARTBEAT);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBoardEvent(BoardEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.boardId());
+        if (targets == null || targets.isEmpty()) return;
+
+        String payload;
+        try {
+            payload = json.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            System.err.println("Could not serialize board event: " + e.getMessage());
+            return;
+        }
+        // Build một lần, dùng chung cho mọi client (LinkedHashSet giữ thứ tự các dòng của frame)
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = Collections.unmodifiableSet(SseEmitter.event()
+                .name(event.type().name())
+                .data(payload, MediaType.APPLICATION_JSON)
+                .build());
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(frame);
+        }
+    }
+
+    // Giữ kết nối qua proxy và phát hiện client đã đóng
+    @Scheduled(fixedRateString = "${board.events.heartbeatMs:25000}")
+    public void heartbeat() {
+        for (Set<Subscriber> board : subscribers.values()) {
+            for (Subscriber subscriber : board) {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+        subscribers.values().forEach(board -> board.forEach(s -> s.emitter.complete()));
+    }
+
+    private final class Subscriber {
+        private final Long boardId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        Subscriber(Long boardId, SseEmitter emitter) {
+            this.boardId = boardId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (removed.get()) return;
+            if (!buffer.offer(frame)) {
+                evictedCounter.increment();
+                remove();
+                emitter.complete();
+                return;
+            }
+            scheduleWrite();
+        }
+
+        private void scheduleWrite() {
+            if (writing.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    writing.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame;
+                while (!removed.get() && (frame = buffer.poll()) != null) {
+                    emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove();
+            } finally {
+                writing.set(false);
+            }
+            // Frame đến đúng lúc vừa thoát vòng lặp
+            if (!removed.get() && !buffer.isEmpty()) scheduleWrite();
+        }
+
+        void remove() {
+            if (!removed.compareAndSet(false, true)) return;
+            buffer.clear();
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(boardId, (id, board) -> {
+                board.remove(this);
+                return board.isEmpty() ? null : board;
+            });
+        }
+    }
+}
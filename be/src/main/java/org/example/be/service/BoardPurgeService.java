@@ -0,0 +1,259 @@
+package org.example.be.service;
+
+import org.example.be.entity.BoardPurge;
+import org.example.be.entity.PurgeState;
+import org.example.be.repository.*;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Xóa board/workspace bằng các câu DELETE theo tập, đúng thứ tự khóa ngoại:
+ * assignee -> history -> card (theo lô id), rồi snapshot, change log, summary, member, board.
+ * Board nhỏ được xóa ngay trong transaction của request. Board lớn chỉ bị gỡ
+ * member ngay (board biến mất khỏi mọi user), phần còn lại chạy nền sau commit,
+ * mỗi lô card một transaction riêng, tiến độ xem qua {@link #status}.
+ * Trạng thái job nằm trong bảng BoardPurge (ghi cùng transaction với từng lô):
+ * job bị dừng do restart được chạy tiếp khi app sẵn sàng, job lỗi được giữ tới khi
+ * người yêu cầu gọi DELETE lại, nên board đã mất member không bị bỏ dở vĩnh viễn.
+ */
+@Service
+public class BoardPurgeService {
+
+    static final int CHUNK_SIZE = 1000;
+    // Job đã xong chỉ cần giữ đủ lâu để client poll thấy kết quả
+    static final Duration DONE_TTL = Duration.ofMinutes(15);
+
+    private final BoardRepository boardRepo;
+    private final WorkspaceRepository workspaceRepo;
+    private final BoardMemberRepository boardMemberRepo;
+    private final BoardSummaryRepository boardSummaryRepo;
+    private final CardRepository cardRepo;
+    private final CardAssigneeRepository cardAssigneeRepo;
+    private final CardHistoryRepository cardHistoryRepo;
+    private final DailySnapshotRepository snapshotRepo;
+    private final BoardChangeRepository boardChangeRepo;
+    private final CycleTimeHistogramRepository cycleTimeRepo;
+    private final BoardPurgeRepository purgeRepo;
+    private final PermissionService permissionService;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate newTx;
+
+    public BoardPurgeService(BoardRepository boardRepo,
+                             WorkspaceRepository workspaceRepo,
+                             BoardMemberRepository boardMemberRepo,
+                             BoardSummaryRepository boardSummaryRepo,
+                             CardRepository cardRepo,
+                             CardAssigneeRepository cardAssigneeRepo,
+                             CardHistoryRepository cardHistoryRepo,
+                             DailySnapshotRepository snapshotRepo,
+                             BoardChangeRepository boardChangeRepo,
+                             CycleTimeHistogramRepository cycleTimeRepo,
+                             BoardPurgeRepository purgeRepo,
+                             PermissionService permissionService,
+                             ApplicationEventPublisher events,
+                             PlatformTransactionManager txManager) {
+        this.boardRepo = boardRepo;
+        this.workspaceRepo = workspaceRepo;
+        this.boardMemberRepo = boardMemberRepo;
+        this.boardSummaryRepo = boardSummaryRepo;
+        this.cardRepo = cardRepo;
+        this.cardAssigneeRepo = cardAssigneeRepo;
+        this.cardHistoryRepo = cardHistoryRepo;
+        this.snapshotRepo = snapshotRepo;
+        this.boardChangeRepo = boardChangeRepo;
+        this.cycleTimeRepo = cycleTimeRepo;
+        this.purgeRepo = purgeRepo;
+        this.permissionService = permissionService;
+        this.events = events;
+        this.newTx = new TransactionTemplate(txManager);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record PurgeProgress(String target, Long id, PurgeState state,
+                                int boardsTotal, int boardsDone,
+                                long cardsTotal, long cardsDeleted,
+                                Instant startedAt, Instant finishedAt, String error) {
+        static PurgeProgress of(BoardPurge job) {
+            return new PurgeProgress(job.getTarget(), job.getTargetId(), job.getState(),
+                    job.getBoardsTotal(), job.getBoardsDone(), job.getCardsTotal(), job.getCardsDeleted(),
+                    job.getStartedAt(), job.getFinishedAt(), job.getError());
+        }
+    }
+
+    public record PurgeRequested(String jobKey) {
+    }
+
+    /**
+     * Xóa board (quyền đã được kiểm tra ở caller, trong transaction của caller).
+     */
+    public PurgeProgress purgeBoard(Long boardId, Long requestedBy) {
+        long cards = cardRepo.countByBoardId(boardId);
+        return start(newJob("board", boardId, requestedBy, 1, cards), List.of(boardId));
+    }
+
+    /**
+     * Xóa workspace cùng toàn bộ board bên trong; workspace chỉ bị xóa sau board cuối cùng.
+     */
+    public PurgeProgress purgeWorkspace(Long workspaceId, Long requestedBy) {
+        List<Long> boardIds = boardRepo.findIdsByWorkspaceId(workspaceId);
+        long cards = cardRepo.countByBoardWorkspaceId(workspaceId);
+        return start(newJob("workspace", workspaceId, requestedBy, boardIds.size(), cards), boardIds);
+    }
+
+    /**
+     * Tiến độ purge gần nhất của board/workspace, chỉ người yêu cầu được xem.
+     */
+    public PurgeProgress status(String target, Long id, Long userId) {
+        BoardPurge job = job(target, id);
+        if (job == null) throw new RuntimeException("No purge found");
+        if (!job.getRequestedBy().equals(userId)) throw new RuntimeException("Forbidden: not your purge");
+        return PurgeProgress.of(job);
+    }
+
+    /**
+     * Job nền trước đó của chính user này đã lỗi: member đã bị gỡ nên không
+     * kiểm tra quyền theo board được nữa, cho phép gọi DELETE lại để xóa tiếp.
+     */
+    public boolean canResume(String target, Long id, Long userId) {
+        BoardPurge job = job(target, id);
+        return job != null && job.getState() == PurgeState.FAILED && job.getRequestedBy().equals(userId);
+    }
+
+    private BoardPurge job(String target, Long id) {
+        BoardPurge job = purgeRepo.findById(key(target, id)).orElse(null);
+        if (job != null && job.getState() == PurgeState.DONE
+                && job.getFinishedAt().plus(DONE_TTL).isBefore(Instant.now())) {
+            return null;
+        }
+        return job;
+    }
+
+    // Bỏ các job đã xong quá TTL (cần transaction của caller); job lỗi được giữ để còn xóa tiếp
+    void evictFinished(Instant now) {
+        purgeRepo.deleteDoneBefore(now.minus(DONE_TTL));
+    }
+
+    private static BoardPurge newJob(String target, Long id, Long requestedBy, int boardsTotal, long cardsTotal) {
+        return BoardPurge.builder()
+                .jobKey(key(target, id)).target(target).targetId(id).requestedBy(requestedBy)
+                .state(PurgeState.RUNNING).boardsTotal(boardsTotal).boardsDone(0)
+                .cardsTotal(cardsTotal).cardsDeleted(0L).startedAt(Instant.now())
+                .build();
+    }
+
+    private PurgeProgress start(BoardPurge job, List<Long> boardIds) {
+        evictFinished(Instant.now());
+        BoardPurge running = purgeRepo.findById(job.getJobKey()).orElse(null);
+        if (running != null && running.getState() == PurgeState.RUNNING) {
+            throw new RuntimeException("Purge already in progress");
+        }
+        // Ghi trong transaction của request: rollback thì không còn dòng job nào
+        job = purgeRepo.save(job);
+        // Member của các board này sẽ bị xóa: bỏ role đã cache (lần nữa sau commit)
+        for (Long boardId : boardIds) {
+            permissionService.evictBoard(boardId);
+        }
+
+        if (job.getCardsTotal() <= CHUNK_SIZE) {
+            // Đủ nhỏ: xóa hết trong transaction hiện tại, lỗi thì rollback cùng request
+            run(job, boardIds, Runnable::run);
+            return PurgeProgress.of(job);
+        }
+
+        // Ẩn ngay khỏi mọi user rồi để job nền xóa phần còn lại sau commit
+        for (Long boardId : boardIds) {
+            boardMemberRepo.deleteBulkByBoardId(boardId);
+        }
+        events.publishEvent(new PurgeRequested(job.getJobKey()));
+        return PurgeProgress.of(job);
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPurgeRequested(PurgeRequested event) {
+        purgeRepo.findById(event.jobKey()).ifPresent(this::runInBackground);
+    }
+
+    // Job bị dừng giữa chừng (deploy, crash) chạy tiếp ngay khi app sẵn sàng, như NightlySnapshotJob
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        for (BoardPurge job : purgeRepo.findByState(PurgeState.RUNNING)) {
+            runInBackground(job);
+        }
+    }
+
+    private void runInBackground(BoardPurge job) {
+        // Board đã xóa xong ở lần chạy trước không còn trong danh sách
+        List<Long> boardIds = "workspace".equals(job.getTarget())
+                ? boardRepo.findIdsByWorkspaceId(job.getTargetId())
+                : List.of(job.getTargetId());
+        try {
+            run(job, boardIds, work -> newTx.executeWithoutResult(s -> work.run()));
+        } catch (RuntimeException e) {
+            // Các lô đã xóa vẫn giữ nguyên; gọi DELETE lại sẽ xóa tiếp phần còn lại
+            newTx.executeWithoutResult(s -> purgeRepo.findById(job.getJobKey()).ifPresent(current -> {
+                current.setState(PurgeState.FAILED);
+                current.setError(e.getMessage());
+                current.setFinishedAt(Instant.now());
+            }));
+        }
+    }
+
+    private void run(BoardPurge job, List<Long> boardIds, Consumer<Runnable> inTx) {
+        for (Long boardId : boardIds) {
+            purgeCards(job, boardId, inTx);
+            inTx.accept(() -> {
+                snapshotRepo.deleteBulkByBoardId(boardId);
+                boardChangeRepo.deleteBulkByBoardId(boardId);
+                cycleTimeRepo.deleteBulkByBoardId(boardId);
+                boardSummaryRepo.deleteBulkByBoardId(boardId);
+                boardMemberRepo.deleteBulkByBoardId(boardId);
+                boardRepo.deleteBulkById(boardId);
+                job.setBoardsDone(job.getBoardsDone() + 1);
+                purgeRepo.save(job);
+            });
+        }
+        inTx.accept(() -> {
+            if ("workspace".equals(job.getTarget())) {
+                workspaceRepo.deleteBulkById(job.getTargetId());
+            }
+            job.setFinishedAt(Instant.now());
+            job.setState(PurgeState.DONE);
+            purgeRepo.save(job);
+        });
+    }
+
+    private void purgeCards(BoardPurge job, Long boardId, Consumer<Runnable> inTx) {
+        while (true) {
+            // Luôn lấy trang đầu: lô trước đã bị xóa nên không cần offset
+            List<Long> ids = cardRepo.findIdsByBoardId(boardId, PageRequest.of(0, CHUNK_SIZE));
+            if (ids.isEmpty()) return;
+            inTx.accept(() -> {
+                cardAssigneeRepo.deleteBulkByCardIdIn(ids);
+                cardHistoryRepo.deleteBulkByCardIdIn(ids);
+                cardRepo.deleteBulkByIdIn(ids);
+                job.setCardsDeleted(job.getCardsDeleted() + ids.size());
+                purgeRepo.save(job);
+            });
+        }
+    }
+
+    private static String key(String target, Long id) {
+        return target + ":" + id;
+    }
+}
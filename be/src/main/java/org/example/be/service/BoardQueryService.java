@@ -1,25 +1,23 @@
 package org.example.be.service;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
 import lombok.RequiredArgsConstructor;
+import org.example.be.auth.dto.BoardDto;
 import org.example.be.auth.dto.BoardForecastDto;
+import org.example.be.auth.dto.CardDto;
 import org.example.be.entity.Board;
-import org.example.be.entity.BoardMember;
-import org.example.be.entity.BoardStatus;
-import org.example.be.entity.Card;
-import org.example.be.entity.CardHistory;
-import org.example.be.entity.Status;
+import org.example.be.entity.DailySnapshot;
 import org.example.be.repository.BoardMemberRepository;
 import org.example.be.repository.BoardRepository;
 import org.example.be.repository.CardHistoryRepository;
 import org.example.be.repository.CardRepository;
+import org.example.be.repository.DailySnapshotRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,132 +29,142 @@ public class BoardQueryService {
     private final CardRepository cardRepo;
     private final BoardMemberRepository boardMemberRepo;
     private final CardHistoryRepository cardHistoryRepo;
+    private final BoardSummaryService boardSummaryService;
+    private final DailySnapshotRepository snapshotRepo;
+    private final BoardTimelineService boardTimelineService;
 
-    public List<Card> getCards(Long boardId) {
-        Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        return cardRepo.findByBoard(board);
+    public List<CardDto.CardView> getCards(Long boardId) {
+        requireBoard(boardId);
+        return cardRepo.findViewsByBoardId(boardId);
     }
 
-    public List<BoardMember> getMembers(Long boardId) {
-        Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        return boardMemberRepo.findByBoard(board);
+    public List<BoardDto.MemberView> getMembers(Long boardId) {
+        requireBoard(boardId);
+        return boardMemberRepo.findViewsByBoardId(boardId);
     }
 
+    static final int HISTORY_DEFAULT_LIMIT = 50;
+    static final int HISTORY_MAX_LIMIT = 200;
+
     /**
-     * Trả về lịch sử được sắp xếp theo thời gian: mới nhất lên trên.
-     * Sử dụng query tối ưu từ repository và thêm sort Java để đảm bảo chính xác.
+     * Một trang lịch sử, mới nhất lên trên (changeDate giảm dần, trùng thì id giảm dần).
+     * before = nextCursor của trang trước ("changeDate,id"), null cho trang đầu.
+     * Lấy limit + 1 dòng để biết còn trang sau hay không.
      */
-    public List<CardHistory> getHistory(Long boardId) {
-        Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-
-        List<CardHistory> histories = cardHistoryRepo.findByBoardOrderByChangeDateDescIdDesc(board);
+    public CardDto.HistoryPage getHistory(Long boardId, String before, Integer limit) {
+        requireBoard(boardId);
+        return historyPage(boardId, before, limit);
+    }
 
-        histories.sort((first, second) -> {
-            int dateCompare = second.getChangeDate().compareTo(first.getChangeDate());
-            if (dateCompare != 0) {
-                return dateCompare;
+    // Không kiểm tra board tồn tại: caller (bootstrap) đã load board
+    CardDto.HistoryPage historyPage(Long boardId, String before, Integer limit) {
+        int size = limit == null ? HISTORY_DEFAULT_LIMIT : Math.max(1, Math.min(limit, HISTORY_MAX_LIMIT));
+        PageRequest page = PageRequest.of(0, size + 1);
+
+        List<CardDto.HistoryView> rows;
+        if (before == null || before.isBlank()) {
+            rows = cardHistoryRepo.findViewPage(boardId, page);
+        } else {
+            int comma = before.lastIndexOf(',');
+            LocalDateTime beforeDate;
+            Long beforeId;
+            try {
+                beforeDate = LocalDateTime.parse(before.substring(0, comma));
+                beforeId = Long.valueOf(before.substring(comma + 1));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid history cursor");
             }
-            Long firstId = first.getId() != null ? first.getId() : Long.MIN_VALUE;
-            Long secondId = second.getId() != null ? second.getId() : Long.MIN_VALUE;
-            return Long.compare(secondId, firstId);
-        });
+            rows = cardHistoryRepo.findViewPageBefore(boardId, beforeDate, beforeId, page);
+        }
+
+        if (rows.size() <= size) {
+            return new CardDto.HistoryPage(rows, null);
+        }
+        List<CardDto.HistoryView> items = rows.subList(0, size);
+        CardDto.HistoryView last = items.get(size - 1);
+        return new CardDto.HistoryPage(items, last.changeDate() + "," + last.id());
+    }
+
+    public List<CardDto.FirstDone> getFirstDone(Long boardId) {
+        requireBoard(boardId);
+        return cardHistoryRepo.findFirstDoneByBoardId(boardId);
+    }
 
-        return histories;
+    // existsById không load Board -> Workspace -> owner như findById
+    private void requireBoard(Long boardId) {
+        if (!boardRepo.existsById(boardId)) throw new RuntimeException("Board not found");
     }
 
     public Board getBoard(Long boardId) {
         return boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
     }
 
-    //Lấy thống kê số task DONE và tổng số task của board
+    //Lấy thống kê số task DONE và tổng số task của board (từ BoardSummary, O(1))
     public Map<String, Integer> getBoardProgress(Long boardId) {
-        Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        List<Card> cards = cardRepo.findByBoard(board);
-
-        int total = cards.size();
-        int doneCount = (int) cards.stream().filter(card -> card.getStatus() == Status.DONE).count();
-
-        Map<String, Integer> result = new HashMap<>();
-        result.put("total", total);
-        result.put("done", doneCount);
-        return result;
+        boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        return boardSummaryService.progress(boardId);
     }
 
     //Kiểm tra và tự động cập nhật trạng thái board nếu tất cả task đều DONE
     @Transactional
     public Board checkAndUpdateBoardStatus(Long boardId) {
         Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        List<Card> cards = cardRepo.findByBoard(board);
-
-        if (cards.isEmpty()) {
-            return board;
-        }
-
-        int total = cards.size();
-        int doneCount = (int) cards.stream().filter(card -> card.getStatus() == Status.DONE).count();
-
-        if (doneCount == total && board.getStatus() != BoardStatus.DONE) {
-            board.setStatus(BoardStatus.DONE);
-            boardRepo.save(board);
-        } else if (doneCount < total && board.getStatus() == BoardStatus.DONE) {
-            board.setStatus(BoardStatus.IN_PROGRESS);
-            boardRepo.save(board);
-        }
-
-        return board;
+        return boardSummaryService.syncBoardStatus(board);
     }
 
     public BoardForecastDto forecast(Long boardId) {
         Board board = boardRepo.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        List<Card> cards = cardRepo.findByBoard(board);
-        List<CardHistory> histories = cardHistoryRepo.findByBoardOrderByChangeDateDescIdDesc(board);
-
-        Map<Long, LocalDateTime> earliestDoneByCard = new HashMap<>();
-        for (CardHistory history : histories) {
-            if (history.getToStatus() == Status.DONE) {
-                Long cardId = history.getCard().getId();
-                earliestDoneByCard.merge(
-                        cardId,
-                        history.getChangeDate(),
-                        (oldValue, newValue) -> newValue.isBefore(oldValue) ? newValue : oldValue
-                );
-            }
-        }
+        return forecast(board);
+    }
 
-        List<Double> cycleTimes = new ArrayList<>();
-        int doneCount = 0;
+    static final int FORECAST_TRIALS = 10_000;
+    static final int FORECAST_HISTORY_DAYS = 90;
 
-        for (Card card : cards) {
-            if (card.getStatus() == Status.DONE) {
-                doneCount++;
-                LocalDateTime createdAt = card.getCreatedAt();
-                LocalDateTime doneAt = earliestDoneByCard.get(card.getId());
-                if (createdAt != null && doneAt != null) {
-                    double days = Math.max(0, Duration.between(createdAt, doneAt).toMillis() / 86_400_000d);
-                    cycleTimes.add(days);
-                }
+    /**
+     * avgCycleDays / estimatedEndDate giữ cách tính cũ (số card còn lại × cycle time trung bình),
+     * p50/p85/p95 lấy từ ThroughputForecast. Mọi số liệu đọc từ BoardTimeline (một query, không load entity).
+     */
+    public BoardForecastDto forecast(Board board) {
+        BoardTimeline timeline = boardTimelineService.load(board.getId());
+        int total = timeline.size;
+        int doneCount = 0;
+        double remainingPoints = 0;
+        double cycleSum = 0;
+        int cycleCount = 0;
+        double actualSum = 0;
+        int actualCount = 0;
+        for (int i = 0; i < timeline.size; i++) {
+            if (!timeline.isDone(i)) {
+                remainingPoints += timeline.points(i);
+                continue;
+            }
+            doneCount++;
+            long createdAt = timeline.createdAt[i];
+            long doneAt = timeline.firstDoneAt[i];
+            if (createdAt != BoardTimeline.NONE && doneAt != BoardTimeline.NONE) {
+                cycleSum += Math.max(0, (doneAt - createdAt) / 86_400d);
+                cycleCount++;
+            }
+            if (!Double.isNaN(timeline.actualHours[i])) {
+                actualSum += timeline.actualHours[i];
+                actualCount++;
             }
         }
 
-        double avgCycle = cycleTimes.isEmpty()
-                ? 0
-                : cycleTimes.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        double avgCycle = cycleCount == 0 ? 0 : cycleSum / cycleCount;
+        double avgActualHours = actualCount == 0 ? 0 : actualSum / actualCount;
 
-        double avgActualHours = cards.stream()
-                .filter(card -> card.getStatus() == Status.DONE && card.getActualHours() != null)
-                .mapToDouble(Card::getActualHours)
-                .average()
-                .orElse(0);
-
-        int total = cards.size();
         int remaining = total - doneCount;
         double remainingTimeDays = remaining * avgCycle;
         double remainingEffortHours = remaining * avgActualHours;
 
+        LocalDate today = LocalDate.now();
         LocalDate estimatedEndDate = remainingTimeDays > 0
-                ? LocalDate.now().plusDays((long) Math.ceil(remainingTimeDays))
+                ? today.plusDays((long) Math.ceil(remainingTimeDays))
                 : null;
 
+        Integer[] percentiles = simulateCompletion(board, timeline, remaining, remainingPoints, today);
+
         return new BoardForecastDto(
                 avgCycle,
                 avgActualHours,
@@ -165,7 +173,51 @@ public class BoardQueryService {
                 remaining,
                 remainingTimeDays,
                 remainingEffortHours,
-                estimatedEndDate
+                estimatedEndDate,
+                endDate(today, percentiles, 0),
+                endDate(today, percentiles, 1),
+                endDate(today, percentiles, 2)
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Mẫu throughput của tối đa FORECAST_HISTORY_DAYS ngày trước hôm nay: completedPointsDaily
+     * của DailySnapshot (khối lượng còn lại tính bằng points); board chưa có snapshot thì dùng
+     * số card vào DONE lần đầu mỗi ngày (khối lượng = số card còn lại). Seed theo board + ngày
+     * nên kết quả ổn định trong ngày (khớp cache/ETag theo version + ngày).
+     */
+    private Integer[] simulateCompletion(Board board, BoardTimeline timeline,
+                                         int remainingCards, double remainingPoints, LocalDate today) {
+        LocalDate created = board.getCreatedAt() != null ? board.getCreatedAt().toLocalDate() : today;
+        LocalDate from = created.isAfter(today.minusDays(FORECAST_HISTORY_DAYS)) ? created : today.minusDays(FORECAST_HISTORY_DAYS);
+        // Board tạo hôm nay: lấy hôm nay làm mẫu duy nhất
+        LocalDate to = from.isAfter(today.minusDays(1)) ? today : today.minusDays(1);
+        double[] samples = new double[(int) ChronoUnit.DAYS.between(from, to) + 1];
+
+        double remaining;
+        List<DailySnapshot> snapshots = snapshotRepo.findByBoardAndDateRange(board, from, to);
+        if (!snapshots.isEmpty()) {
+            for (DailySnapshot snapshot : snapshots) {
+                samples[(int) ChronoUnit.DAYS.between(from, snapshot.getSnapshotDate())] = snapshot.getCompletedPointsDaily();
+            }
+            remaining = remainingPoints;
+        } else {
+            long fromDay = from.toEpochDay(), toDay = to.toEpochDay();
+            for (long doneAt : timeline.firstDoneAt) {
+                if (doneAt == BoardTimeline.NONE) continue;
+                long day = BoardTimeline.day(doneAt);
+                if (day >= fromDay && day <= toDay) {
+                    samples[(int) (day - fromDay)]++;
+                }
+            }
+            remaining = remainingCards;
+        }
+        long seed = board.getId() * 31 + today.toEpochDay();
+        return ThroughputForecast.percentileDays(samples, remaining, FORECAST_TRIALS, seed);
+    }
+
+    private static LocalDate endDate(LocalDate today, Integer[] percentiles, int index) {
+        if (percentiles == null || percentiles[index] == null) return null;
+        return today.plusDays(percentiles[index]);
+    }
+}
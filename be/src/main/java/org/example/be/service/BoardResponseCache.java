@@ -0,0 +1,158 @@
+package org.example.be.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.be.entity.Board;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through cho burndown và forecast (tính từ toàn bộ card + history).
+ * Lưu JSON đã serialize, mỗi (loại, board) một entry gắn với version board và ngày
+ * tính: card đổi -> version tăng -> entry cũ không còn khớp và bị thay ở lần đọc sau.
+ * Giữa hai lần sửa, đọc chỉ tốn lookup version theo khóa chính.
+ * Tổng dung lượng bị chặn theo số byte, vượt thì bỏ entry ít dùng gần đây nhất.
+ */
+@Service
+public class BoardResponseCache {
+
+    enum Kind { BURNDOWN, FORECAST }
+
+    private record Key(Kind kind, Long boardId) {
+    }
+
+    private record Entry(long version, LocalDate day, byte[] json) {
+    }
+
+    private final BurndownService burndownService;
+    private final BoardQueryService boardQueryService;
+    private final ObjectMapper json;
+    private final long maxBytes;
+
+    // accessOrder = true: duyệt từ entry lâu không dùng nhất
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // Chỉ ghi trong lock; atomic để gauge đọc mà không cần tham chiếu tới cache
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public BoardResponseCache(BurndownService burndownService,
+                              BoardQueryService boardQueryService,
+                              ObjectMapper json,
+                              MeterRegistry registry,
+                              @Value("${board.responseCache.maxBytes:33554432}") long maxBytes) {
+        this.burndownService = burndownService;
+        this.boardQueryService = boardQueryService;
+        this.json = json;
+        this.maxBytes = maxBytes;
+
+        this.hits = Counter.builder("board.response.cache.requests").tag("result", "hit")
+                .description("Burndown/forecast trả từ cache")
+                .register(registry);
+        this.misses = Counter.builder("board.response.cache.requests").tag("result", "miss")
+                .description("Burndown/forecast phải tính lại")
+                .register(registry);
+        Gauge.builder("board.response.cache.bytes", totalBytes, AtomicLong::get)
+                .description("Tổng số byte JSON đang cache")
+                .register(registry);
+    }
+
+    /**
+     * JSON của burndown tại version (caller đã đọc version trước khi gọi,
+     * dữ liệu tính ra vì vậy không cũ hơn version).
+     */
+    public byte[] burndown(Long boardId, long version) {
+        return get(Kind.BURNDOWN, boardId, version, () -> burndownService.getBurndownData(boardId));
+    }
+
+    public byte[] forecast(Long boardId, long version) {
+        return get(Kind.FORECAST, boardId, version, () -> boardQueryService.forecast(boardId));
+    }
+
+    /**
+     * Cho bootstrap: JSON đã cache được nhúng nguyên văn vào response (@JsonRawValue),
+     * không đọc lại thành object. Board vừa insert chưa có version thì tính thẳng.
+     */
+    public String burndownJson(Board board) {
+        Supplier<Object> compute = () -> burndownService.getBurndownData(board);
+        return text(board.getVersion() == null
+                ? serialize(Kind.BURNDOWN, compute.get())
+                : get(Kind.BURNDOWN, board.getId(), board.getVersion(), compute));
+    }
+
+    public String forecastJson(Board board) {
+        Supplier<Object> compute = () -> boardQueryService.forecast(board);
+        return text(board.getVersion() == null
+                ? serialize(Kind.FORECAST, compute.get())
+                : get(Kind.FORECAST, board.getId(), board.getVersion(), compute));
+    }
+
+    private byte[] get(Kind kind, Long boardId, long version, Supplier<Object> compute) {
+        Key key = new Key(kind, boardId);
+        // Forecast/burndown còn phụ thuộc ngày hiện tại (giống datedEtag)
+        LocalDate today = LocalDate.now();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() == version && entry.day().equals(today)) {
+                hits.increment();
+                return entry.json();
+            }
+        }
+        misses.increment();
+
+        // Tính ngoài lock; hai request miss cùng lúc có thể cùng tính, kết quả như nhau
+        byte[] bytes = serialize(kind, compute.get());
+        put(key, new Entry(version, today, bytes));
+        return bytes;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        Entry current = entries.get(key);
+        // Không ghi đè bản mới hơn do request khác vừa tính xong
+        if (current != null && (current.version() > entry.version() || current.day().isAfter(entry.day()))) {
+            return;
+        }
+        if (entry.json().length > maxBytes) {
+            return;
+        }
+        if (current != null) {
+            totalBytes.addAndGet(-current.json().length);
+        }
+        entries.put(key, entry);
+        totalBytes.addAndGet(entry.json().length);
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes.get() > maxBytes && eldest.hasNext()) {
+            totalBytes.addAndGet(-eldest.next().getValue().json().length);
+            eldest.remove();
+        }
+    }
+
+    long totalBytes() {
+        return totalBytes.get();
+    }
+
+    private byte[] serialize(Kind kind, Object value) {
+        try {
+            return json.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + kind, e);
+        }
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.example.be.auth.dto.BoardDto;
 import org.example.be.entity.*;
 import org.example.be.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,8 +18,11 @@ public class BoardService {
     private final BoardMemberRepository boardMemberRepo;
     private final PermissionService permissionService;
     private final UserRepository userRepo;
-    private final CardRepository cardRepo;
-    private final CardAssigneeRepository cardAssigneeRepo;
+    private final BoardSummaryService boardSummaryService;
+    private final CycleTimeService cycleTimeService;
+    private final BoardPurgeService boardPurgeService;
+    private final BoardVersionService boardVersionService;
+    private final ApplicationEventPublisher events;
 
     @Transactional
     public Board createBoard(BoardDto.BoardCreateRequest req, User current) {
@@ -30,8 +34,11 @@ public class BoardService {
                 .status(BoardStatus.IN_PROGRESS)
                 .build();
         boardRepo.save(b);
+        boardSummaryService.initialize(b);
+        cycleTimeService.initialize(b.getId());
         boardMemberRepo.save(BoardMember.builder()
                 .board(b).user(current).role(Role.ADMIN).build());
+        permissionService.evict(b.getId(), current.getId());
         return b;
     }
 
@@ -45,23 +52,25 @@ public class BoardService {
         b.setEndDate(req.endDate());
         b.setWipLimit(req.wipLimit());
 
+        boardVersionService.bump(id);
+        publish(id, BoardEventBroadcaster.Type.BOARD_UPDATED, null);
         return boardRepo.save(b);
     }
 
+    // Board lớn được purge nền: kết quả có state RUNNING, xem tiếp qua purge-status
     @Transactional
-    public void deleteBoard(Long boardId, User current) {
+    public BoardPurgeService.PurgeProgress deleteBoard(Long boardId, User current) {
         Board board = boardRepo.findById(boardId)
                 .orElseThrow(() -> new RuntimeException("Board not found"));
-        permissionService.checkManageMember(current, board);
-        var cards = cardRepo.findByBoard(board);
-        for (var card : cards) {
-            var assignees = cardAssigneeRepo.findByCard(card);
-            cardAssigneeRepo.deleteAll(assignees);
-            cardRepo.delete(card);
+        if (!boardPurgeService.canResume("board", boardId, current.getId())) {
+            permissionService.checkManageMember(current, board);
         }
-        var members = boardMemberRepo.findByBoard(board);
-        boardMemberRepo.deleteAll(members);
-        boardRepo.delete(board);
+        // Membership bị xóa (ngay hoặc ở job nền) -> BoardPurgeService bỏ cache quyền của board
+        return boardPurgeService.purgeBoard(boardId, current.getId());
+    }
+
+    public BoardPurgeService.PurgeProgress purgeStatus(Long boardId, User current) {
+        return boardPurgeService.status("board", boardId, current.getId());
     }
 
     public List<Board> listBoardsForUser(User current) {
@@ -73,15 +82,11 @@ public class BoardService {
     public void invite(BoardDto.InviteRequest req, User current) {
         Board board = boardRepo.findById(req.boardId())
                 .orElseThrow(() -> new RuntimeException("Board not found"));
-        // ADMIN hoặc MEMBER đều được phép mời (đã check trong PermissionService)
-        permissionService.checkAddMember(current, board);
-
-        // Lấy role của người mời
-        BoardMember inviter = boardMemberRepo.findByBoardAndUser(board, current)
-                .orElseThrow(() -> new RuntimeException("Forbidden: not a member"));
+        // ADMIN hoặc MEMBER đều được phép mời; trả về role của người mời (từ cache quyền)
+        Role inviterRole = permissionService.checkAddMember(current, board);
         Role targetRole = Role.valueOf(req.role());
         // Nếu người mời là MEMBER thì không được mời với quyền ADMIN
-        if (inviter.getRole() == Role.MEMBER && targetRole == Role.ADMIN) {
+        if (inviterRole == Role.MEMBER && targetRole == Role.ADMIN) {
             throw new RuntimeException("Members cannot invite with ADMIN role");
         }
 
@@ -92,6 +97,9 @@ public class BoardService {
 
         boardMemberRepo.save(BoardMember.builder()
                 .board(board).user(target).role(targetRole).build());
+        permissionService.evict(board.getId(), target.getId());
+        boardVersionService.bump(board.getId());
+        publish(board.getId(), BoardEventBroadcaster.Type.MEMBER_ADDED, target.getId());
     }
 
     @Transactional
@@ -104,6 +112,9 @@ public class BoardService {
                 .orElseThrow(() -> new RuntimeException("Member not found"));
         bm.setRole(Role.valueOf(req.role()));
         boardMemberRepo.save(bm);
+        permissionService.evict(board.getId(), req.userId());
+        boardVersionService.bump(board.getId());
+        publish(board.getId(), BoardEventBroadcaster.Type.MEMBER_ROLE_CHANGED, req.userId());
     }
 
     @Transactional
@@ -115,5 +126,12 @@ public class BoardService {
                         userRepo.findById(req.userId()).orElseThrow())
                 .orElseThrow(() -> new RuntimeException("Member not found"));
         boardMemberRepo.delete(bm);
+        permissionService.evict(board.getId(), req.userId());
+        boardVersionService.bump(board.getId());
+        publish(board.getId(), BoardEventBroadcaster.Type.MEMBER_REMOVED, req.userId());
+    }
+
+    private void publish(Long boardId, BoardEventBroadcaster.Type type, Long userId) {
+        events.publishEvent(new BoardEventBroadcaster.BoardEvent(boardId, type, null, userId, null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package org.example.be.service;
+
+import org.example.be.entity.Board;
+import org.example.be.entity.BoardStatus;
+import org.example.be.entity.BoardSummary;
+import org.example.be.entity.Status;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.BoardSummaryRepository;
+import org.example.be.repository.CardRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Duy trì BoardSummary (số card + points theo Status) bằng delta trong cùng
+ * transaction với thay đổi card, thay cho việc load toàn bộ card của board.
+ * Chuyển card vào IN_PROGRESS khi board có WIP limit dùng UPDATE có điều kiện:
+ * câu UPDATE vừa kiểm tra vừa tăng bộ đếm và khóa dòng summary tới khi commit,
+ * nên hai lần kéo-thả song song không thể cùng vượt limit (kể cả khác node).
+ */
+@Service
+public class BoardSummaryService {
+
+    private final BoardSummaryRepository summaryRepo;
+    private final BoardRepository boardRepo;
+    private final CardRepository cardRepo;
+    private final TransactionTemplate newTx;
+
+    public BoardSummaryService(BoardSummaryRepository summaryRepo,
+                               BoardRepository boardRepo,
+                               CardRepository cardRepo,
+                               PlatformTransactionManager txManager) {
+        this.summaryRepo = summaryRepo;
+        this.boardRepo = boardRepo;
+        this.cardRepo = cardRepo;
+        this.newTx = new TransactionTemplate(txManager);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static double points(Double estimateHours) {
+        return estimateHours != null ? estimateHours : 1.0;
+    }
+
+    // Board mới tạo: dòng summary rỗng
+    public void initialize(Board board) {
+        summaryRepo.save(emptySummary(board.getId()));
+    }
+
+    // card* chỉ cộng vào delta của request / batch; apply ghi cả delta bằng một câu UPDATE mỗi board
+    public void cardCreated(Delta delta, Status status, Double estimateHours) {
+        delta.add(status, estimateHours);
+    }
+
+    public void cardDeleted(Delta delta, Status status, Double estimateHours) {
+        delta.remove(status, estimateHours);
+    }
+
+    // Card đổi status và/hoặc estimate
+    public void cardChanged(Delta delta, Status from, Double fromEstimate, Status to, Double toEstimate) {
+        if (from == to && points(fromEstimate) == points(toEstimate)) {
+            return;
+        }
+        delta.remove(from, fromEstimate).add(to, toEstimate);
+    }
+
+    public BoardSummary get(Long boardId) {
+        return summaryRepo.findById(boardId).or(() -> {
+            ensureExists(boardId);
+            return summaryRepo.findById(boardId);
+        }).orElseThrow(() -> new RuntimeException("Board not found"));
+    }
+
+    public Map<String, Integer> progress(Long boardId) {
+        var progress = findProgress(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        Map<String, Integer> result = new HashMap<>();
+        result.put("total", progress.getTotal());
+        result.put("done", progress.getDone());
+        return result;
+    }
+
+    /**
+     * Tự động chuyển board sang DONE khi mọi card đều DONE và ngược lại.
+     * Đọc bộ đếm trong summary, không load card.
+     */
+    public Board syncBoardStatus(Board board) {
+        var progress = findProgress(board.getId()).orElse(null);
+        if (progress == null || progress.getTotal() == 0) {
+            return board;
+        }
+
+        int total = progress.getTotal();
+        int doneCount = progress.getDone();
+
+        if (doneCount == total && board.getStatus() != BoardStatus.DONE) {
+            board.setStatus(BoardStatus.DONE);
+            boardRepo.save(board);
+            boardRepo.bumpVersion(board.getId());
+        } else if (doneCount < total && board.getStatus() == BoardStatus.DONE) {
+            board.setStatus(BoardStatus.IN_PROGRESS);
+            boardRepo.save(board);
+            boardRepo.bumpVersion(board.getId());
+        }
+        return board;
+    }
+
+    private Optional<BoardSummaryRepository.ProgressView> findProgress(Long boardId) {
+        return summaryRepo.findProgress(boardId).or(() -> {
+            ensureExists(boardId);
+            return summaryRepo.findProgress(boardId);
+        });
+    }
+
+    /**
+     * Ghi delta vào summary. Delta làm tăng số card IN_PROGRESS thì chỉ được áp dụng khi
+     * tổng mới không vượt WIP limit, ngược lại ném lỗi.
+     * UPDATE trước; 0 dòng nghĩa là board chưa có summary (board cũ) hoặc vượt WIP limit:
+     * tạo summary rồi thử lại đúng một lần. Đường thường chỉ tốn một câu UPDATE.
+     */
+    public void apply(Board board, Delta d) {
+        if (d.isEmpty()) {
+            return;
+        }
+        boolean enteringInProgress = d.inProgressCount > 0;
+        if (update(board, d, enteringInProgress) > 0) {
+            return;
+        }
+        ensureExists(board.getId());
+        if (update(board, d, enteringInProgress) == 0) {
+            if (enteringInProgress) throw new RuntimeException("WIP limit reached for IN_PROGRESS");
+            throw new RuntimeException("Board not found");
+        }
+    }
+
+    private int update(Board board, Delta d, boolean enteringInProgress) {
+        Integer wipLimit = board.getWipLimit();
+        if (enteringInProgress && wipLimit != null && wipLimit > 0) {
+            return summaryRepo.applyDeltaWithinWipLimit(board.getId(),
+                    d.todoCount, d.inProgressCount, d.doneCount,
+                    d.todoPoints, d.inProgressPoints, d.donePoints, wipLimit);
+        }
+        return summaryRepo.applyDelta(board.getId(),
+                d.todoCount, d.inProgressCount, d.doneCount,
+                d.todoPoints, d.inProgressPoints, d.donePoints);
+    }
+
+    /**
+     * Board tạo trước khi có BoardSummary: dựng dòng summary một lần từ bảng card
+     * (GROUP BY status) trong transaction riêng. Nếu request khác đã tạo trước thì bỏ qua.
+     */
+    private void ensureExists(Long boardId) {
+        if (summaryRepo.existsById(boardId)) {
+            return;
+        }
+        try {
+            newTx.executeWithoutResult(status -> {
+                if (summaryRepo.existsById(boardId)) {
+                    return;
+                }
+                BoardSummary summary = emptySummary(boardId);
+                for (var totals : cardRepo.sumByStatus(boardId)) {
+                    int count = totals.getCount().intValue();
+                    double points = totals.getPoints() != null ? totals.getPoints() : 0;
+                    switch (totals.getStatus()) {
+                        case TODO -> { summary.setTodoCount(count); summary.setTodoPoints(points); }
+                        case IN_PROGRESS -> { summary.setInProgressCount(count); summary.setInProgressPoints(points); }
+                        case DONE -> { summary.setDoneCount(count); summary.setDonePoints(points); }
+                    }
+                }
+                summaryRepo.saveAndFlush(summary);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // request song song đã tạo dòng summary
+        }
+    }
+
+    private static BoardSummary emptySummary(Long boardId) {
+        return BoardSummary.builder()
+                .boardId(boardId)
+                .todoCount(0).inProgressCount(0).doneCount(0)
+                .todoPoints(0.0).inProgressPoints(0.0).donePoints(0.0)
+                .build();
+    }
+
+    // Thay đổi bộ đếm / points theo status, gom trong một request hoặc một batch
+    public static final class Delta {
+        int todoCount, inProgressCount, doneCount;
+        double todoPoints, inProgressPoints, donePoints;
+
+        boolean isEmpty() {
+            return todoCount == 0 && inProgressCount == 0 && doneCount == 0
+                    && todoPoints == 0 && inProgressPoints == 0 && donePoints == 0;
+        }
+
+        Delta add(Status status, Double estimateHours) {
+            return shift(status, 1, points(estimateHours));
+        }
+
+        Delta remove(Status status, Double estimateHours) {
+            return shift(status, -1, -points(estimateHours));
+        }
+
+        private Delta shift(Status status, int count, double points) {
+            switch (status) {
+                case TODO -> { todoCount += count; todoPoints += points; }
+                case IN_PROGRESS -> { inProgressCount += count; inProgressPoints += points; }
+                case DONE -> { doneCount += count; donePoints += points; }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.be.service;
+
+import org.example.be.entity.Status;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Card của một board dưới dạng các mảng nguyên thủy song song (phần tử i = card thứ i),
+ * đọc thẳng từ ResultSet (BoardTimelineService) và dùng chung cho snapshot (SnapshotSweep),
+ * forecast và histogram cycle time, thay cho việc load entity Card/CardHistory hay
+ * projection rồi dựng HashMap/HashSet và giá trị boxed mỗi lần tính.
+ * Thời điểm là epoch-second của LocalDateTime coi như UTC, nên {@link #day} trùng
+ * LocalDate.toEpochDay() của giờ địa phương; {@link #NONE} = không có.
+ */
+final class BoardTimeline {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final byte DONE = (byte) Status.DONE.ordinal();
+
+    int size;
+    long[] cardIds;
+    long[] createdAt;
+    double[] estimate;       // NaN = chưa có estimate (tính 1 point)
+    double[] actualHours;    // NaN = chưa có
+    long[] firstStartedAt;   // lần đầu vào IN_PROGRESS
+    long[] firstDoneAt;      // lần đầu vào DONE
+    byte[] status;           // Status.ordinal() hiện tại
+
+    BoardTimeline() {
+        this(64);
+    }
+
+    BoardTimeline(int capacity) {
+        cardIds = new long[capacity];
+        createdAt = new long[capacity];
+        estimate = new double[capacity];
+        actualHours = new double[capacity];
+        firstStartedAt = new long[capacity];
+        firstDoneAt = new long[capacity];
+        status = new byte[capacity];
+    }
+
+    void add(long cardId, long createdAt, double estimate, double actualHours, Status status,
+             long firstStartedAt, long firstDoneAt) {
+        if (size == cardIds.length) grow();
+        int i = size++;
+        this.cardIds[i] = cardId;
+        this.createdAt[i] = createdAt;
+        this.estimate[i] = estimate;
+        this.actualHours[i] = actualHours;
+        this.status[i] = (byte) status.ordinal();
+        this.firstStartedAt[i] = firstStartedAt;
+        this.firstDoneAt[i] = firstDoneAt;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, cardIds.length * 2);
+        cardIds = Arrays.copyOf(cardIds, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        estimate = Arrays.copyOf(estimate, capacity);
+        actualHours = Arrays.copyOf(actualHours, capacity);
+        firstStartedAt = Arrays.copyOf(firstStartedAt, capacity);
+        firstDoneAt = Arrays.copyOf(firstDoneAt, capacity);
+        status = Arrays.copyOf(status, capacity);
+    }
+
+    // Points như BoardSummaryService.points: estimate hoặc 1
+    double points(int i) {
+        return Double.isNaN(estimate[i]) ? 1.0 : estimate[i];
+    }
+
+    boolean isDone(int i) {
+        return status[i] == DONE;
+    }
+
+    static long epochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : NONE;
+    }
+
+    static long day(long epochSecond) {
+        return Math.floorDiv(epochSecond, 86_400L);
+    }
+}
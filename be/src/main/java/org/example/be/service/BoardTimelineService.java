@@ -0,0 +1,63 @@
+package org.example.be.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.example.be.entity.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Đọc BoardTimeline của một board bằng một câu SQL (card + lần đầu vào IN_PROGRESS / DONE
+ * gom trên card_history), ghi thẳng từng dòng vào mảng nguyên thủy: không entity,
+ * không DTO/projection trung gian cho mỗi card.
+ */
+@Service
+@RequiredArgsConstructor
+public class BoardTimelineService {
+
+    // card.first_started_at có cả card tạo thẳng trong IN_PROGRESS (không có dòng history nào)
+    static final String SQL = "SELECT c.id, c.created_at, c.estimate_hours, c.actual_hours, c.status, " +
+            "COALESCE(c.first_started_at, MIN(CASE WHEN h.to_status = 'IN_PROGRESS' THEN h.change_date END)), " +
+            "MIN(CASE WHEN h.to_status = 'DONE' THEN h.change_date END) " +
+            "FROM card c LEFT JOIN card_history h ON h.card_id = c.id AND h.to_status <> 'TODO' " +
+            "WHERE c.board_id = ? " +
+            "GROUP BY c.id, c.created_at, c.estimate_hours, c.actual_hours, c.status, c.first_started_at";
+
+    // Đếm trước để cấp mảng đúng kích thước một lần (không nhân đôi + copy khi đọc)
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM card WHERE board_id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final EntityManager entityManager;
+
+    BoardTimeline load(Long boardId) {
+        // Query JDBC không tự flush như JPQL: ghi các thay đổi card/history đang chờ trong transaction trước
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        Integer count = jdbc.queryForObject(COUNT_SQL, Integer.class, boardId);
+        BoardTimeline timeline = new BoardTimeline(count != null ? count : 0);
+        jdbc.query(SQL, (RowCallbackHandler) rs -> read(rs, timeline), boardId);
+        return timeline;
+    }
+
+    static void read(ResultSet rs, BoardTimeline timeline) throws SQLException {
+        timeline.add(rs.getLong(1),
+                BoardTimeline.epochSecond(rs.getObject(2, LocalDateTime.class)),
+                doubleOrNaN(rs, 3),
+                doubleOrNaN(rs, 4),
+                Status.valueOf(rs.getString(5)),
+                BoardTimeline.epochSecond(rs.getObject(6, LocalDateTime.class)),
+                BoardTimeline.epochSecond(rs.getObject(7, LocalDateTime.class)));
+    }
+
+    private static double doubleOrNaN(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.be.repository.BoardRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Version của board: mọi thay đổi card / member / thông tin board gọi {@link #bump}
+ * trong cùng transaction, các API đọc dùng version làm ETag để trả 304 khi
+ * client đã có dữ liệu mới nhất (chỉ tốn một lookup theo khóa chính).
+ */
+@Service
+@RequiredArgsConstructor
+public class BoardVersionService {
+
+    private final BoardRepository boardRepo;
+
+    public void bump(Long boardId) {
+        boardRepo.bumpVersion(boardId);
+    }
+
+    public long current(Long boardId) {
+        return boardRepo.findVersionById(boardId)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+    }
+
+    public String etag(Long boardId) {
+        return etagOf(current(boardId));
+    }
+
+    // Forecast / burndown còn phụ thuộc ngày hiện tại nên ETag đổi theo ngày
+    public String datedEtag(Long boardId) {
+        return datedEtagOf(current(boardId));
+    }
+
+    public static String etagOf(long version) {
+        return "v" + version;
+    }
+
+    public static String datedEtagOf(long version) {
+        return etagOf(version) + "-" + LocalDate.now();
+    }
+}
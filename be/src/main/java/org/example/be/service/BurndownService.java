@@ -6,21 +6,14 @@ import org.example.be.auth.dto.BurndownDto.BurndownResponse;
 import org.example.be.auth.dto.BurndownDto.BurndownPoint;
 import org.example.be.auth.dto.BurndownDto.WeeklyVelocity;
 import org.example.be.entity.Board;
-import org.example.be.entity.Card;
-import org.example.be.entity.CardHistory;
+import org.example.be.entity.BoardSummary;
 import org.example.be.entity.DailySnapshot;
-import org.example.be.entity.Status;
 import org.example.be.repository.BoardRepository;
-import org.example.be.repository.CardHistoryRepository;
-import org.example.be.repository.CardRepository;
 import org.example.be.repository.DailySnapshotRepository;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
@@ -31,23 +24,26 @@ import java.util.stream.Collectors;
 public class BurndownService {
 
     private final BoardRepository boardRepo;
-    private final CardRepository cardRepo;
-    private final CardHistoryRepository cardHistoryRepo;
     private final DailySnapshotRepository snapshotRepo;
+    private final BoardSummaryService boardSummaryService;
 
     public BurndownResponse getBurndownData(Long boardId) {
         Board board = boardRepo.findById(boardId)
                 .orElseThrow(() -> new RuntimeException("Board not found"));
+        return getBurndownData(board);
+    }
 
-        List<Card> cards = cardRepo.findByBoard(board);
-        List<CardHistory> histories = cardHistoryRepo.findByBoardOrderByChangeDateDescIdDesc(board);
-
-        ensureSnapshotsExist(board, cards, histories);
-
-        List<DailySnapshot> snapshots = snapshotRepo.findByBoardOrderBySnapshotDateAsc(board);
-
-        double totalPoints = calculateTotalPoints(cards);
-        double completedPoints = calculateCompletedPoints(cards);
+    /**
+     * Chỉ đọc: snapshot theo khoảng ngày (index board_id + snapshot_date) và tổng points
+     * từ BoardSummary. Snapshot hôm nay do DailySnapshotService cập nhật theo thay đổi card.
+     */
+    public BurndownResponse getBurndownData(Board board) {
+        List<DailySnapshot> snapshots = snapshotRepo.findByBoardAndDateRange(
+                board, board.getCreatedAt().toLocalDate(), LocalDate.now());
+
+        BoardSummary summary = boardSummaryService.get(board.getId());
+        double totalPoints = summary.getTodoPoints() + summary.getInProgressPoints() + summary.getDonePoints();
+        double completedPoints = summary.getDonePoints();
         double remainingPoints = totalPoints - completedPoints;
 
         List<BurndownPoint> burndownData = buildBurndownData(board, snapshots, totalPoints);
@@ -56,17 +52,8 @@ public class BurndownService {
         LocalDate estimatedEndDate = calculateEstimatedEndDate(remainingPoints, averageVelocity);
 
         LocalDate deadline = board.getEndDate();
-        Integer daysAheadOrBehind = null;
-        String projectHealth = "ON_TRACK";
-
-        if (deadline != null && estimatedEndDate != null) {
-            daysAheadOrBehind = (int) ChronoUnit.DAYS.between(estimatedEndDate, deadline);
-            if (daysAheadOrBehind < 0) {
-                projectHealth = "DELAYED";
-            } else if (daysAheadOrBehind <= 3) {
-                projectHealth = "AT_RISK";
-            }
-        }
+        Integer daysAheadOrBehind = daysAheadOrBehind(estimatedEndDate, deadline);
+        String projectHealth = projectHealth(daysAheadOrBehind);
 
         return new BurndownResponse(
                 burndownData,
@@ -82,85 +69,6 @@ public class BurndownService {
         );
     }
 
-    @Transactional
-    public void ensureSnapshotsExist(Board board, List<Card> cards, List<CardHistory> histories) {
-        LocalDate startDate = board.getCreatedAt().toLocalDate();
-        LocalDate today = LocalDate.now();
-
-        Optional<DailySnapshot> lastSnapshot = snapshotRepo.findTopByBoardOrderBySnapshotDateDesc(board);
-        LocalDate lastSnapshotDate = lastSnapshot.map(DailySnapshot::getSnapshotDate)
-                .orElse(startDate.minusDays(1));
-
-        LocalDate currentDate = lastSnapshotDate.plusDays(1);
-        while (!currentDate.isAfter(today)) {
-            createSnapshotForDate(board, cards, histories, currentDate);
-            currentDate = currentDate.plusDays(1);
-        }
-    }
-
-    @Transactional
-    public void createSnapshotForDate(Board board, List<Card> cards,
-                                      List<CardHistory> histories, LocalDate date) {
-        if (snapshotRepo.findByBoardAndSnapshotDate(board, date).isPresent()) {
-            return;
-        }
-
-        LocalDateTime endOfDay = date.atTime(23, 59, 59);
-
-        Set<Long> doneCardIds = new HashSet<>();
-        Map<Long, LocalDateTime> firstDoneTime = new HashMap<>();
-
-        for (CardHistory h : histories) {
-            if (h.getToStatus() == Status.DONE && !h.getChangeDate().isAfter(endOfDay)) {
-                Long cardId = h.getCard().getId();
-                firstDoneTime.merge(cardId, h.getChangeDate(),
-                        (oldVal, newVal) -> newVal.isBefore(oldVal) ? newVal : oldVal);
-                doneCardIds.add(cardId);
-            }
-        }
-
-        double completedPoints = 0;
-        double completedPointsDaily = 0;
-        int completedTasks = 0;
-        int completedTasksDaily = 0;
-        double totalPoints = 0;
-
-        for (Card card : cards) {
-            if (card.getCreatedAt() != null && !card.getCreatedAt().toLocalDate().isAfter(date)) {
-                double points = card.getEstimateHours() != null ? card.getEstimateHours() : 1.0;
-                totalPoints += points;
-
-                if (doneCardIds.contains(card.getId())) {
-                    completedPoints += points;
-                    completedTasks++;
-
-                    LocalDateTime doneTime = firstDoneTime.get(card.getId());
-                    if (doneTime != null && doneTime.toLocalDate().equals(date)) {
-                        completedPointsDaily += points;
-                        completedTasksDaily++;
-                    }
-                }
-            }
-        }
-
-        double remainingPoints = totalPoints - completedPoints;
-        int remainingTasks = (int) cards.stream()
-                .filter(c -> c.getCreatedAt() != null && !c.getCreatedAt().toLocalDate().isAfter(date))
-                .count() - completedTasks;
-
-        DailySnapshot snapshot = DailySnapshot.builder()
-                .board(board)
-                .snapshotDate(date)
-                .remainingPoints(remainingPoints)
-                .completedPoints(completedPoints)
-                .completedPointsDaily(completedPointsDaily)
-                .remainingTasks(remainingTasks)
-                .completedTasks(completedTasks)
-                .build();
-
-        snapshotRepo.save(snapshot);
-    }
-
     private List<BurndownPoint> buildBurndownData(Board board, List<DailySnapshot> snapshots,
                                                   double totalPoints) {
         if (snapshots.isEmpty()) return Collections.emptyList();
@@ -264,7 +172,19 @@ public class BurndownService {
                 .orElse(0);
     }
 
-    private LocalDate calculateEstimatedEndDate(double remainingPoints, double averageVelocity) {
+    // Số ngày sớm (+) hoặc trễ (-) so với deadline, null nếu thiếu một trong hai
+    static Integer daysAheadOrBehind(LocalDate estimatedEndDate, LocalDate deadline) {
+        if (deadline == null || estimatedEndDate == null) return null;
+        return (int) ChronoUnit.DAYS.between(estimatedEndDate, deadline);
+    }
+
+    static String projectHealth(Integer daysAheadOrBehind) {
+        if (daysAheadOrBehind == null) return "ON_TRACK";
+        if (daysAheadOrBehind < 0) return "DELAYED";
+        return daysAheadOrBehind <= 3 ? "AT_RISK" : "ON_TRACK";
+    }
+
+    static LocalDate calculateEstimatedEndDate(double remainingPoints, double averageVelocity) {
         if (remainingPoints <= 0) return LocalDate.now();
         if (averageVelocity <= 0) return null;
 
@@ -273,48 +193,4 @@ public class BurndownService {
 
         return LocalDate.now().plusDays(daysNeeded);
     }
-
-    private double calculateTotalPoints(List<Card> cards) {
-        return cards.stream()
-                .mapToDouble(c -> c.getEstimateHours() != null ? c.getEstimateHours() : 1.0)
-                .sum();
-    }
-
-    private double calculateCompletedPoints(List<Card> cards) {
-        return cards.stream()
-                .filter(c -> c.getStatus() == Status.DONE)
-                .mapToDouble(c -> c.getEstimateHours() != null ? c.getEstimateHours() : 1.0)
-                .sum();
-    }
-
-    @Transactional
-    public void updateTodaySnapshot(Long boardId) {
-        Board board = boardRepo.findById(boardId).orElse(null);
-        if (board == null) return;
-
-        List<Card> cards = cardRepo.findByBoard(board);
-        List<CardHistory> histories = cardHistoryRepo.findByBoardOrderByChangeDateDescIdDesc(board);
-
-        snapshotRepo.findByBoardAndSnapshotDate(board, LocalDate.now())
-                .ifPresent(snapshotRepo::delete);
-
-        createSnapshotForDate(board, cards, histories, LocalDate.now());
-    }
-
-    @Scheduled(cron = "0 59 23 * * *")
-    @Transactional
-    public void createDailySnapshots() {
-        List<Board> boards = boardRepo.findAll();
-        LocalDate today = LocalDate.now();
-
-        for (Board board : boards) {
-            try {
-                List<Card> cards = cardRepo.findByBoard(board);
-                List<CardHistory> histories = cardHistoryRepo.findByBoardOrderByChangeDateDescIdDesc(board);
-                createSnapshotForDate(board, cards, histories, today);
-            } catch (Exception e) {
-                System.err.println("Error creating snapshot for board " + board.getId() + ": " + e.getMessage());
-            }
-        }
-    }
-}
\ No newline at end of file
+}
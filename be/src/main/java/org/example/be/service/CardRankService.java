@@ -0,0 +1,292 @@
+package org.example.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.be.entity.Board;
+import org.example.be.entity.Card;
+import org.example.be.entity.ChangeOp;
+import org.example.be.entity.Status;
+import org.example.be.repository.CardRepository;
+import org.example.be.repository.CardRepository.ColumnSlot;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cấp position (rank thưa) cho card khi tạo / di chuyển.
+ * Chỉ đọc hai card lân cận (theo keyset khi client gửi card neo) và ghi đúng card được di chuyển; khi khoảng trống
+ * sắp cạn thì hẹn rebalance cột ở background (sau commit). Chỉ khi khoảng trống
+ * đã cạn hẳn mới phải rebalance đồng bộ ngay trong transaction hiện tại.
+ */
+@Service
+@RequiredArgsConstructor
+public class CardRankService {
+
+    private final CardRepository cardRepo;
+    private final BoardChangeService boardChangeService;
+    private final ApplicationEventPublisher events;
+
+    // Cột đang chờ rebalance nền, tránh xếp hàng trùng
+    private final Set<ColumnKey> pendingRebalance = ConcurrentHashMap.newKeySet();
+
+    public record ColumnKey(Long boardId, Status status) {
+    }
+
+    public record ColumnRebalanceRequested(ColumnKey column) {
+    }
+
+    /**
+     * Rank để đặt card ở vị trí index trong cột status (index tính trên cột
+     * không gồm chính card đó). index null hoặc vượt cuối cột = thêm vào cuối.
+     * cardId null khi card chưa được lưu.
+     */
+    @Transactional
+    public int rankAt(Board board, Status status, Integer index, Long cardId) {
+        return rankNextTo(board, status, null, null, index, cardId);
+    }
+
+    /**
+     * Như rankAt nhưng vị trí cho bằng card neo: ngay trước beforeCardId hoặc ngay sau
+     * afterCardId. Card lân cận còn lại đọc theo keyset (position, id) nên chi phí không
+     * phụ thuộc vị trí trong cột. Card neo không còn trong cột (client cũ) thì dùng index.
+     */
+    @Transactional
+    public int rankNextTo(Board board, Status status, Long beforeCardId, Long afterCardId,
+                          Integer index, Long cardId) {
+        Integer rank = tryRank(board, status, beforeCardId, afterCardId, index, cardId);
+        if (rank == null) {
+            rebalance(board.getId(), status);
+            rank = tryRank(board, status, beforeCardId, afterCardId, index, cardId);
+        }
+        return rank;
+    }
+
+    private Integer tryRank(Board board, Status status, Long beforeCardId, Long afterCardId,
+                            Integer index, Long cardId) {
+        long excludeId = cardId != null ? cardId : -1L;
+
+        ColumnSlot before = anchor(board, status, beforeCardId, cardId);
+        if (before != null) {
+            return rankBefore(board, status, excludeId, before, false);
+        }
+        ColumnSlot after = anchor(board, status, afterCardId, cardId);
+        if (after != null) {
+            return rankAfter(board, status, excludeId, after);
+        }
+        if (index != null) {
+            // Client chỉ gửi index: một query OFFSET để tìm card đang ở index, lân cận còn lại theo keyset
+            int i = Math.max(0, index);
+            List<ColumnSlot> next = cardRepo.findColumnSlots(board, status, excludeId, PageRequest.of(i, 1));
+            if (!next.isEmpty()) {
+                return rankBefore(board, status, excludeId, next.get(0), i > 0);
+            }
+        }
+        return append(board, status, cardRepo.findMaxPosition(board, status, excludeId));
+    }
+
+    private ColumnSlot anchor(Board board, Status status, Long anchorId, Long cardId) {
+        if (anchorId == null || anchorId.equals(cardId)) {
+            return null;
+        }
+        return cardRepo.findColumnSlot(board, status, anchorId).orElse(null);
+    }
+
+    // Giữa card liền trước next và next; requirePrev: biết chắc next không đứng đầu cột
+    private Integer rankBefore(Board board, Status status, long excludeId, ColumnSlot next, boolean requirePrev) {
+        // Dữ liệu cũ có thể có position null -> coi như hết chỗ, cần đánh số lại
+        if (next.getPosition() == null) {
+            return null;
+        }
+        List<ColumnSlot> prevRow = cardRepo.findSlotsBefore(board, status, excludeId,
+                next.getPosition(), next.getId(), Limit.of(1));
+        if (prevRow.isEmpty() && requirePrev) {
+            return null;
+        }
+        Integer prev = prevRow.isEmpty() ? null : prevRow.get(0).getPosition();
+        return between(board, status, prev, next.getPosition());
+    }
+
+    private Integer rankAfter(Board board, Status status, long excludeId, ColumnSlot prev) {
+        if (prev.getPosition() == null) {
+            return null;
+        }
+        List<ColumnSlot> nextRow = cardRepo.findSlotsAfter(board, status, excludeId,
+                prev.getPosition(), prev.getId(), Limit.of(1));
+        if (nextRow.isEmpty()) {
+            return append(board, status, prev.getPosition());
+        }
+        Integer next = nextRow.get(0).getPosition();
+        return next == null ? null : between(board, status, prev.getPosition(), next);
+    }
+
+    private Integer between(Board board, Status status, Integer prev, int next) {
+        Integer rank = CardRanks.between(prev, next);
+        if (rank != null && CardRanks.crowdedBetween(prev, next)) {
+            requestRebalance(board.getId(), status);
+        }
+        return rank;
+    }
+
+    private Integer append(Board board, Status status, Integer last) {
+        Integer rank = CardRanks.after(last);
+        if (rank != null && CardRanks.crowdedAfter(rank)) {
+            requestRebalance(board.getId(), status);
+        }
+        return rank;
+    }
+
+    /**
+     * Thứ tự một cột cho batch: đọc (id, position) của cả cột bằng một query có thứ tự,
+     * sau đó cấp rank cho từng card trong bộ nhớ (không query, không auto-flush các INSERT
+     * đang chờ). managed: entity Card đã load trong transaction theo id (để đánh số lại
+     * không làm entity đó giữ position cũ).
+     */
+    public ColumnOrder loadColumn(Board board, Status status, Function<Long, Card> managed) {
+        ColumnOrder column = new ColumnOrder(board, status);
+        for (ColumnSlot slot : cardRepo.findColumnSlots(board, status, -1L, Pageable.unpaged())) {
+            column.entries.add(new ColumnOrder.Entry(slot.getId(), slot.getPosition(), managed.apply(slot.getId())));
+        }
+        return column;
+    }
+
+    public final class ColumnOrder {
+
+        private static final class Entry {
+            final Long id;
+            Integer position;
+            final Card card;
+
+            Entry(Long id, Integer position, Card card) {
+                this.id = id;
+                this.position = position;
+                this.card = card;
+            }
+
+            // Card mới tạo chỉ có id sau khi được lưu
+            Long id() {
+                return card != null ? card.getId() : id;
+            }
+        }
+
+        private final Board board;
+        private final Status status;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private ColumnOrder(Board board, Status status) {
+            this.board = board;
+            this.status = status;
+        }
+
+        public void remove(Card card) {
+            entries.removeIf(e -> e.card == card || (card.getId() != null && card.getId().equals(e.id())));
+        }
+
+        /**
+         * Rank cho card ngay trước beforeCardId / ngay sau afterCardId / tại index (cùng quy tắc
+         * với rankNextTo) và ghi card vào thứ tự. Hết khoảng trống thì đánh số lại cả cột.
+         */
+        public int place(Card card, Long beforeCardId, Long afterCardId, Integer index) {
+            remove(card);
+            int k = slot(card, beforeCardId, afterCardId, index);
+            Integer prev = k > 0 ? entries.get(k - 1).position : null;
+            Integer rank;
+            if (k > 0 && prev == null) {
+                rank = null;
+            } else if (k == entries.size()) {
+                rank = CardRanks.after(prev);
+                if (rank != null && CardRanks.crowdedAfter(rank)) requestRebalance(board.getId(), status);
+            } else {
+                Integer next = entries.get(k).position;
+                rank = next == null ? null : CardRanks.between(prev, next);
+                if (rank != null && CardRanks.crowdedBetween(prev, next)) requestRebalance(board.getId(), status);
+            }
+            Entry entry = new Entry(card.getId(), rank, card);
+            entries.add(k, entry);
+            if (rank == null) {
+                renumber();
+            }
+            return entry.position;
+        }
+
+        private int slot(Card card, Long beforeCardId, Long afterCardId, Integer index) {
+            int before = indexOf(beforeCardId, card);
+            if (before >= 0) return before;
+            int after = indexOf(afterCardId, card);
+            if (after >= 0) return after + 1;
+            if (index != null) return Math.min(Math.max(0, index), entries.size());
+            return entries.size();
+        }
+
+        private int indexOf(Long cardId, Card self) {
+            if (cardId == null || cardId.equals(self.getId())) return -1;
+            for (int i = 0; i < entries.size(); i++) {
+                if (cardId.equals(entries.get(i).id())) return i;
+            }
+            return -1;
+        }
+
+        // Như rebalance nhưng theo thứ tự trong bộ nhớ; entity đang managed được sửa trực tiếp
+        private void renumber() {
+            int step = CardRanks.step(entries.size());
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry e = entries.get(i);
+                e.position = (i + 1) * step;
+                if (e.card != null) {
+                    e.card.setPosition(e.position);
+                } else {
+                    cardRepo.updatePosition(e.id, e.position);
+                }
+                if (e.id() != null) ids.add(e.id());
+            }
+            if (!ids.isEmpty()) boardChangeService.record(board.getId(), ChangeOp.UPSERT, ids);
+        }
+    }
+
+    /**
+     * Đánh số lại cả cột theo thứ tự hiện tại (position, id) với bước CardRanks.GAP.
+     */
+    @Transactional
+    public void rebalance(Long boardId, Status status) {
+        List<Long> ids = cardRepo.findColumnIdsInOrder(boardId, status);
+        int step = CardRanks.step(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            cardRepo.updatePosition(ids.get(i), (i + 1) * step);
+        }
+        // position thay đổi -> client đồng bộ delta nhận lại cả cột
+        if (!ids.isEmpty()) boardChangeService.record(boardId, ChangeOp.UPSERT, ids);
+    }
+
+    private void requestRebalance(Long boardId, Status status) {
+        ColumnKey key = new ColumnKey(boardId, status);
+        if (pendingRebalance.add(key)) {
+            events.publishEvent(new ColumnRebalanceRequested(key));
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRebalanceRequested(ColumnRebalanceRequested event) {
+        ColumnKey key = event.column();
+        try {
+            rebalance(key.boardId(), key.status());
+        } catch (Exception e) {
+            System.err.println("Error rebalancing column " + key + ": " + e.getMessage());
+        } finally {
+            pendingRebalance.remove(key);
+        }
+    }
+}
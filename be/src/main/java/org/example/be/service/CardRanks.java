@@ -0,0 +1,63 @@
+package org.example.be.service;
+
+/**
+ * Toán học cho Card.position dạng rank thưa (gapped int).
+ * Card mới/di chuyển nhận giá trị nằm giữa hai card lân cận nên chỉ phải ghi
+ * đúng một dòng; cột chỉ cần đánh số lại khi hết khoảng trống.
+ */
+final class CardRanks {
+
+    // Khoảng cách chuẩn giữa hai card liên tiếp sau khi rebalance / khi append
+    static final int GAP = 1 << 16;
+
+    // Khoảng trống còn lại <= ngưỡng này thì hẹn rebalance nền trước khi cạn hẳn
+    static final int MIN_ROOM = 8;
+
+    private CardRanks() {
+    }
+
+    /**
+     * Rank nằm giữa prev và next (prev == null: chèn lên đầu cột).
+     * Trả về null nếu không còn số nguyên nào ở giữa.
+     */
+    static Integer between(Integer prev, int next) {
+        long lo = prev == null ? Integer.MIN_VALUE : prev;
+        if (next - lo < 2) {
+            return null;
+        }
+        return (int) (lo + (next - lo) / 2);
+    }
+
+    /**
+     * Rank sau card cuối cùng (last == null: cột rỗng).
+     * Trả về null nếu đã chạm trần Integer.
+     */
+    static Integer after(Integer last) {
+        if (last == null) {
+            return GAP;
+        }
+        long room = (long) Integer.MAX_VALUE - last;
+        if (room < 2) {
+            return null;
+        }
+        return (int) (last + Math.min(GAP, room / 2));
+    }
+
+    static boolean crowdedBetween(Integer prev, int next) {
+        long lo = prev == null ? Integer.MIN_VALUE : prev;
+        return next - lo <= MIN_ROOM;
+    }
+
+    static boolean crowdedAfter(int rank) {
+        return (long) Integer.MAX_VALUE - rank < GAP;
+    }
+
+    /**
+     * Bước đánh số lại cho cột có size card: GAP, trừ khi cột quá lớn
+     * khiến size * GAP vượt Integer (khi đó chia đều phần còn lại).
+     */
+    static int step(int size) {
+        long fit = ((long) Integer.MAX_VALUE - GAP) / (size + 1L);
+        return (int) Math.max(2, Math.min(GAP, fit));
+    }
+}
@@ -1,7 +1,7 @@
 package org.example.be.service;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.*;
 
 import lombok.RequiredArgsConstructor;
 import org.example.be.auth.dto.BoardDto;
@@ -12,8 +12,10 @@ import org.example.be.repository.CardAssigneeRepository;
 import org.example.be.repository.CardHistoryRepository;
 import org.example.be.repository.CardRepository;
 import org.example.be.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 @Service
 @RequiredArgsConstructor
@@ -25,62 +27,56 @@ public class CardService {
     private final UserRepository userRepo;
     private final CardAssigneeRepository cardAssigneeRepo;
     private final CardHistoryRepository cardHistoryRepo;
-
-    private void enforceWipLimit(Board board) {
-        Integer wipLimit = board.getWipLimit();
-        if (wipLimit == null || wipLimit <= 0) {
-            return;
-        }
-        int inProgress = cardRepo.findByBoardAndStatusOrderByPositionAsc(board, Status.IN_PROGRESS).size();
-        if (inProgress >= wipLimit) {
-            throw new RuntimeException("WIP limit reached for IN_PROGRESS");
-        }
+    private final CardRankService cardRankService;
+    private final BoardSummaryService boardSummaryService;
+    private final BoardVersionService boardVersionService;
+    private final BoardChangeService boardChangeService;
+    private final DailySnapshotService dailySnapshotService;
+    private final CycleTimeService cycleTimeService;
+    private final ApplicationEventPublisher events;
+
+    //Tăng version + ghi log thay đổi card, ghi delta vào BoardSummary (kiểm tra WIP limit) và snapshot hôm nay, rồi tự động cập nhật trạng thái board (đọc bộ đếm BoardSummary)
+    private void boardChanged(Board board, ChangeOp op, Collection<Long> cardIds, Deltas deltas) {
+        boardChangeService.record(board.getId(), op, cardIds);
+        boardSummaryService.apply(board, deltas.summary());
+        dailySnapshotService.apply(board, deltas.snapshot());
+        cycleTimeService.apply(board.getId(), deltas.cycleTime());
+        boardSummaryService.syncBoardStatus(board);
     }
 
-    //Kiểm tra và tự động cập nhật trạng thái board
-    private void checkAndUpdateBoardStatus(Board board) {
-        var cards = cardRepo.findByBoard(board);
-        if (cards.isEmpty()) {
-            return;
+    // Delta BoardSummary + snapshot hôm nay + histogram cycle time của một board, gom trong request / batch
+    // và ghi một lần ở boardChanged
+    private record Deltas(BoardSummaryService.Delta summary, DailySnapshotService.Delta snapshot,
+                          CycleTimeService.Delta cycleTime) {
+        Deltas() {
+            this(new BoardSummaryService.Delta(), new DailySnapshotService.Delta(), new CycleTimeService.Delta());
         }
+    }
 
-        int total = cards.size();
-        int doneCount = (int) cards.stream().filter(card -> card.getStatus() == Status.DONE).count();
+    // Cấp rank trong cột đích: request đơn lẻ hỏi CardRankService, batch dùng ColumnOrder trong bộ nhớ
+    @FunctionalInterface
+    private interface Placer {
+        int rank(Card card, Status status, Long beforeCardId, Long afterCardId, Integer index);
+    }
 
-        if (doneCount == total && board.getStatus() != BoardStatus.DONE) {
-            board.setStatus(BoardStatus.DONE);
-            boardRepo.save(board);
-        } else if (doneCount < total && board.getStatus() == BoardStatus.DONE) {
-            board.setStatus(BoardStatus.IN_PROGRESS);
-            boardRepo.save(board);
-        }
+    private Placer singlePlacer() {
+        return (card, status, before, after, index) ->
+                cardRankService.rankNextTo(card.getBoard(), status, before, after, index, card.getId());
     }
 
+    private static final int MAX_BATCH_COMMANDS = 500;
+
     @Transactional
     public Card create(BoardDto.CardCreateRequest req, User currentUser) {
         Board board = boardRepo.findById(req.boardId())
                 .orElseThrow(() -> new RuntimeException("Board not found"));
         permissionService.check(currentUser, board, Permission.CARD_EDIT);
 
-        Status status = Status.valueOf(req.status() == null ? "TODO" : req.status());
-        if (status == Status.IN_PROGRESS) {
-            enforceWipLimit(board);
-        }
+        Status status = parseStatus(req.status());
+        var deltas = new Deltas();
+        Card savedCard = applyCreate(board, req, status, singlePlacer(), deltas);
 
-        Card card = Card.builder()
-                .board(board)
-                .status(status)
-                .title(req.title())
-                .description(req.description())
-                .position(req.position())
-                .dueDate(req.dueDate())
-                .priority(req.priority() == null ? null : Priority.valueOf(req.priority()))
-                .estimateHours(req.estimateHours())
-                .actualHours(req.actualHours())
-                .build();
-        Card savedCard = cardRepo.save(card);
-
-        checkAndUpdateBoardStatus(board);
+        boardChanged(board, ChangeOp.UPSERT, List.of(savedCard.getId()), deltas);
 
         return savedCard;
     }
@@ -92,38 +88,10 @@ public class CardService {
         Board board = card.getBoard();
         permissionService.check(currentUser, board, Permission.CARD_EDIT);
 
-        Status previousStatus = card.getStatus();
-        if (req.status() != null) {
-            Status newStatus = Status.valueOf(req.status());
-            if (newStatus == Status.IN_PROGRESS && previousStatus != Status.IN_PROGRESS) {
-                enforceWipLimit(board);
-            }
-            card.setStatus(newStatus);
-        }
-
-        card.setTitle(req.title());
-        card.setDescription(req.description());
-        card.setPosition(req.position());
-        card.setDueDate(req.dueDate());
-        card.setPriority(req.priority() == null ? null : Priority.valueOf(req.priority()));
-        card.setEstimateHours(req.estimateHours());
-        card.setActualHours(req.actualHours());
-
-        Card savedCard = cardRepo.save(card);
+        var deltas = new Deltas();
+        Card savedCard = applyUpdate(card, req, currentUser, singlePlacer(), deltas);
 
-        if (req.status() != null && previousStatus != savedCard.getStatus()) {
-            cardHistoryRepo.save(
-                    CardHistory.builder()
-                            .card(savedCard)
-                            .fromStatus(previousStatus)
-                            .toStatus(savedCard.getStatus())
-                            .changeDate(LocalDateTime.now())
-                            .actor(currentUser)
-                            .build()
-            );
-        }
-
-        checkAndUpdateBoardStatus(board);
+        boardChanged(board, ChangeOp.UPSERT, List.of(savedCard.getId()), deltas);
 
 
         return savedCard;
@@ -135,9 +103,14 @@ public class CardService {
                 .orElseThrow(() -> new RuntimeException("Card not found"));
         Board board = card.getBoard();
         permissionService.check(currentUser, board, Permission.CARD_EDIT);
+        var deltas = new Deltas();
+        boardSummaryService.cardDeleted(deltas.summary(), card.getStatus(), card.getEstimateHours());
+        dailySnapshotService.cardDeleted(deltas.snapshot(), card);
         cardRepo.delete(card);
+        events.publishEvent(new BoardEventBroadcaster.BoardEvent(
+                board.getId(), BoardEventBroadcaster.Type.CARD_DELETED, id, null, null));
 
-        checkAndUpdateBoardStatus(board);
+        boardChanged(board, ChangeOp.DELETE, List.of(id), deltas);
     }
 
     @Transactional
@@ -151,6 +124,9 @@ public class CardService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         if (!cardAssigneeRepo.existsByCardAndUser(card, assignee)) {
             cardAssigneeRepo.save(CardAssignee.builder().card(card).user(assignee).build());
+            boardVersionService.bump(board.getId());
+            events.publishEvent(new BoardEventBroadcaster.BoardEvent(
+                    board.getId(), BoardEventBroadcaster.Type.CARD_ASSIGNED, card.getId(), assignee.getId(), null));
         }
     }
 
@@ -161,39 +137,229 @@ public class CardService {
         Board board = card.getBoard();
         permissionService.check(currentUser, board, Permission.CARD_EDIT);
 
+        var deltas = new Deltas();
+        applyMove(card, req, currentUser, singlePlacer(), deltas);
+
+        boardChanged(board, ChangeOp.UPSERT, List.of(card.getId()), deltas);
+
+        return card;
+    }
+
+    /**
+     * Thực hiện nhiều lệnh create / update / move trong một transaction.
+     * Board và card được load một lần, quyền được kiểm tra một lần cho mỗi board.
+     * Mỗi cột được đọc thứ tự một lần rồi cấp rank trong bộ nhớ (ColumnOrder), delta
+     * BoardSummary / snapshot được cộng dồn và ghi một lần mỗi board ở cuối, nên trong
+     * vòng lặp không có query nào auto-flush: các INSERT (id lấy từ sequence pooled)
+     * được Hibernate gom thành JDBC batch khi flush.
+     * Lệnh đầu tiên lỗi sẽ rollback cả batch; các lệnh sau đó được báo SKIPPED.
+     */
+    @Transactional
+    public CardDto.CardBatchResponse batch(CardDto.CardBatchRequest req, User currentUser) {
+        List<CardDto.CardBatchCommand> commands = req.commands() == null ? List.of() : req.commands();
+        if (commands.size() > MAX_BATCH_COMMANDS) {
+            throw new RuntimeException("Batch too large (max " + MAX_BATCH_COMMANDS + " commands)");
+        }
+
+        // Load trước mọi card được tham chiếu và mọi board bằng hai query
+        Set<Long> cardIds = new HashSet<>();
+        Set<Long> boardIds = new HashSet<>();
+        for (var cmd : commands) {
+            if (cmd.update() != null && cmd.update().id() != null) cardIds.add(cmd.update().id());
+            if (cmd.move() != null && cmd.move().cardId() != null) cardIds.add(cmd.move().cardId());
+            if (cmd.create() != null && cmd.create().boardId() != null) boardIds.add(cmd.create().boardId());
+        }
+        Map<Long, Card> cards = new HashMap<>();
+        for (Card c : cardRepo.findAllById(cardIds)) {
+            cards.put(c.getId(), c);
+            boardIds.add(c.getBoard().getId());
+        }
+        Map<Long, Board> boards = new HashMap<>();
+        for (Board b : boardRepo.findAllById(boardIds)) {
+            boards.put(b.getId(), b);
+        }
+
+        Set<Long> permitted = new HashSet<>();
+        Map<Long, Set<Long>> changedByBoard = new HashMap<>();
+        Map<Long, Deltas> deltasByBoard = new HashMap<>();
+        Map<CardRankService.ColumnKey, CardRankService.ColumnOrder> columns = new HashMap<>();
+        Placer placer = (card, status, before, after, index) -> {
+            Board board = card.getBoard();
+            var current = columns.get(new CardRankService.ColumnKey(board.getId(), card.getStatus()));
+            if (current != null) current.remove(card);
+            return columns.computeIfAbsent(new CardRankService.ColumnKey(board.getId(), status),
+                            key -> cardRankService.loadColumn(board, status, cards::get))
+                    .place(card, before, after, index);
+        };
+        List<CardDto.CardBatchResult> results = new ArrayList<>(commands.size());
+        boolean failed = false;
+
+        for (int i = 0; i < commands.size(); i++) {
+            var cmd = commands.get(i);
+            String op = cmd.op() == null ? null : cmd.op().toUpperCase(Locale.ROOT);
+            if (failed) {
+                results.add(new CardDto.CardBatchResult(i, op, "SKIPPED", null, null));
+                continue;
+            }
+            try {
+                Card card = switch (op == null ? "" : op) {
+                    case "CREATE" -> {
+                        var create = Objects.requireNonNull(cmd.create(), "create payload required");
+                        Board board = boards.get(create.boardId());
+                        if (board == null) throw new RuntimeException("Board not found");
+                        checkOncePerBoard(currentUser, board, permitted);
+                        Status status = parseStatus(create.status());
+                        yield applyCreate(board, create, status, placer, deltas(deltasByBoard, board));
+                    }
+                    case "UPDATE" -> {
+                        var update = Objects.requireNonNull(cmd.update(), "update payload required");
+                        Card target = cards.get(update.id());
+                        if (target == null) throw new RuntimeException("Card not found");
+                        checkOncePerBoard(currentUser, target.getBoard(), permitted);
+                        yield applyUpdate(target, update, currentUser, placer, deltas(deltasByBoard, target.getBoard()));
+                    }
+                    case "MOVE" -> {
+                        var move = Objects.requireNonNull(cmd.move(), "move payload required");
+                        Card target = cards.get(move.cardId());
+                        if (target == null) throw new RuntimeException("Card not found");
+                        checkOncePerBoard(currentUser, target.getBoard(), permitted);
+                        yield applyMove(target, move, currentUser, placer, deltas(deltasByBoard, target.getBoard()));
+                    }
+                    default -> throw new RuntimeException("Unknown op: " + cmd.op());
+                };
+                changedByBoard.computeIfAbsent(card.getBoard().getId(), b -> new LinkedHashSet<>()).add(card.getId());
+                results.add(new CardDto.CardBatchResult(i, op, "OK", card.getId(), null));
+            } catch (RuntimeException e) {
+                failed = true;
+                results.add(new CardDto.CardBatchResult(i, op, "FAILED", null, e.getMessage()));
+            }
+        }
+
+        if (failed) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new CardDto.CardBatchResponse(false, results);
+        }
+
+        for (Long boardId : permitted) {
+            boardChanged(boards.get(boardId), ChangeOp.UPSERT, changedByBoard.getOrDefault(boardId, Set.of()),
+                    deltasByBoard.getOrDefault(boardId, new Deltas()));
+        }
+        return new CardDto.CardBatchResponse(true, results);
+    }
+
+    // Delta được gom theo board, áp dụng một lần ở cuối batch
+    private static Deltas deltas(Map<Long, Deltas> deltasByBoard, Board board) {
+        return deltasByBoard.computeIfAbsent(board.getId(), b -> new Deltas());
+    }
+
+    private void checkOncePerBoard(User currentUser, Board board, Set<Long> permitted) {
+        if (permitted.add(board.getId())) {
+            permissionService.check(currentUser, board, Permission.CARD_EDIT);
+        }
+    }
+
+    private static Status parseStatus(String status) {
+        return Status.valueOf(status == null ? "TODO" : status);
+    }
+
+    private Card applyCreate(Board board, BoardDto.CardCreateRequest req, Status status,
+                             Placer placer, Deltas deltas) {
+        Card card = Card.builder()
+                .board(board)
+                .status(status)
+                .title(req.title())
+                .description(req.description())
+                .dueDate(req.dueDate())
+                .priority(req.priority() == null ? null : Priority.valueOf(req.priority()))
+                .estimateHours(req.estimateHours())
+                .actualHours(req.actualHours())
+                .build();
+        card.setPosition(placer.rank(card, status, null, null, req.position()));
+        Card saved = cardRepo.save(card);
+        // Bộ đếm (và WIP limit khi vào IN_PROGRESS) được ghi ở boardChanged
+        boardSummaryService.cardCreated(deltas.summary(), status, req.estimateHours());
+        dailySnapshotService.cardCreated(deltas.snapshot(), saved);
+        publish(BoardEventBroadcaster.Type.CARD_CREATED, saved);
+        return saved;
+    }
+
+    private Card applyUpdate(Card card, CardDto.CardUpdateRequest req, User currentUser,
+                             Placer placer, Deltas deltas) {
         Status previousStatus = card.getStatus();
-        Status targetStatus = Status.valueOf(req.targetStatus());
+        Status nextStatus = req.status() != null ? Status.valueOf(req.status()) : previousStatus;
+        boardSummaryService.cardChanged(deltas.summary(), previousStatus, card.getEstimateHours(), nextStatus, req.estimateHours());
+        dailySnapshotService.cardChanged(deltas.snapshot(), card, previousStatus, card.getEstimateHours(), nextStatus, req.estimateHours());
+
+        // position là index trong cột như create / move; đổi cột mà không gửi position -> cuối cột mới
+        if (nextStatus != previousStatus || req.position() != null) {
+            card.setPosition(placer.rank(card, nextStatus, null, null, req.position()));
+            card.setStatus(nextStatus);
+        }
+
+        card.setTitle(req.title());
+        card.setDescription(req.description());
+        card.setDueDate(req.dueDate());
+        card.setPriority(req.priority() == null ? null : Priority.valueOf(req.priority()));
+        card.setEstimateHours(req.estimateHours());
+        card.setActualHours(req.actualHours());
+
+        Card savedCard = cardRepo.save(card);
 
-        if (targetStatus == Status.IN_PROGRESS && previousStatus != Status.IN_PROGRESS) {
-            enforceWipLimit(board);
+        if (previousStatus != savedCard.getStatus()) {
+            recordTransition(savedCard, previousStatus, savedCard.getStatus(), currentUser, deltas);
         }
+        publish(BoardEventBroadcaster.Type.CARD_UPDATED, savedCard);
+        return savedCard;
+    }
 
+    private Card applyMove(Card card, BoardDto.MoveCardRequest req, User currentUser,
+                           Placer placer, Deltas deltas) {
+        Status previousStatus = card.getStatus();
+        Status targetStatus = Status.valueOf(req.targetStatus());
+
+        boardSummaryService.cardChanged(deltas.summary(), previousStatus, card.getEstimateHours(),
+                targetStatus, card.getEstimateHours());
+        dailySnapshotService.cardChanged(deltas.snapshot(), card, previousStatus, card.getEstimateHours(),
+                targetStatus, card.getEstimateHours());
+
+        // Card neo (before/after) hoặc targetPosition là index trong cột đích; chỉ card này được ghi lại
+        int rank = placer.rank(card, targetStatus, req.beforeCardId(), req.afterCardId(), req.targetPosition());
         card.setStatus(targetStatus);
-        card.setPosition(req.targetPosition());
+        card.setPosition(rank);
         cardRepo.save(card);
 
-        var cards = cardRepo.findByBoardAndStatusOrderByPositionAsc(board, targetStatus);
-        cards.sort(Comparator.comparing(Card::getPosition, Comparator.nullsLast(Integer::compareTo)));
-        int position = 0;
-        for (Card c : cards) {
-            c.setPosition(position++);
-        }
-        cardRepo.saveAll(cards);
-
         if (previousStatus != targetStatus) {
-            cardHistoryRepo.save(
-                    CardHistory.builder()
-                            .card(card)
-                            .fromStatus(previousStatus)
-                            .toStatus(targetStatus)
-                            .changeDate(LocalDateTime.now())
-                            .actor(currentUser)
-                            .build()
-            );
+            recordTransition(card, previousStatus, targetStatus, currentUser, deltas);
         }
+        publish(BoardEventBroadcaster.Type.CARD_MOVED, card);
+        return card;
+    }
 
-        checkAndUpdateBoardStatus(board);
+    // Gửi tới client đang mở board sau khi transaction commit (rollback thì không gửi)
+    private void publish(BoardEventBroadcaster.Type type, Card card) {
+        events.publishEvent(new BoardEventBroadcaster.BoardEvent(
+                card.getBoard().getId(), type, card.getId(), null, CardDto.CardView.from(card)));
+    }
 
-        return card;
+    private void recordTransition(Card card, Status from, Status to, User actor, Deltas deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        card.setStatusEnteredAt(now);
+        if (to == Status.IN_PROGRESS && card.getFirstStartedAt() == null) {
+            card.setFirstStartedAt(now);
+        }
+        if (to == Status.DONE) {
+            // Trước khi ghi history: lần vào DONE đầu tiên được cộng vào histogram lead/cycle time
+            cycleTimeService.cardEnteredDone(deltas.cycleTime(), card, now);
+            if (card.getFirstDoneAt() == null) card.setFirstDoneAt(now);
+        }
+        cardHistoryRepo.save(
+                CardHistory.builder()
+                        .card(card)
+                        .fromStatus(from)
+                        .toStatus(to)
+                        .changeDate(now)
+                        .actor(actor)
+                        .build()
+        );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package org.example.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.be.auth.dto.BurndownDto.CfdPoint;
+import org.example.be.entity.Board;
+import org.example.be.entity.Status;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.CardHistoryRepository;
+import org.example.be.repository.CardRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Cumulative Flow Diagram: số card mỗi status vào cuối từng ngày trong [from, to].
+ * Không dựng trạng thái từng card: status của card vào cuối ngày D = status hiện tại trừ
+ * đi các lần chuyển sau D, nên card cộng status hiện tại từ ngày tạo, mỗi lần chuyển
+ * from -> to trừ (to - from) trên các ngày [ngày tạo card, ngày chuyển). Tất cả là cộng
+ * vào mảng hiệu theo ngày, không phụ thuộc thứ tự, nên card và history chỉ cần đọc
+ * một lượt dạng stream; bộ nhớ O(số ngày) dù history dài bao nhiêu.
+ * Card đã xóa không còn history nên không xuất hiện ở ngày nào.
+ */
+@Service
+@RequiredArgsConstructor
+public class CumulativeFlowService {
+
+    // Khoảng ngày tối đa một request (~10 năm)
+    static final int MAX_DAYS = 3660;
+
+    private final BoardRepository boardRepo;
+    private final CardRepository cardRepo;
+    private final CardHistoryRepository cardHistoryRepo;
+
+    /**
+     * from mặc định là ngày tạo board, to mặc định là hôm nay.
+     */
+    @Transactional(readOnly = true)
+    public List<CfdPoint> cfd(Long boardId, LocalDate from, LocalDate to) {
+        Board board = boardRepo.findById(boardId)
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+        if (to == null) to = LocalDate.now();
+        if (from == null) from = board.getCreatedAt().toLocalDate();
+        if (from.isAfter(to)) throw new RuntimeException("Invalid date range");
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new RuntimeException("Date range too long (max " + MAX_DAYS + " days)");
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        // Ô i = thay đổi có hiệu lực từ ngày from + i (ô 0 gom cả các ngày trước from)
+        int[][] diff = new int[Status.values().length][days];
+        LocalDateTime toEnd = to.plusDays(1).atStartOfDay();
+
+        try (Stream<CardRepository.CreatedView> cards = cardRepo.streamCreatedBefore(boardId, toEnd)) {
+            LocalDate start = from;
+            cards.forEach(c -> diff[c.getStatus().ordinal()][slot(start, c.getCreatedAt().toLocalDate())]++);
+        }
+
+        try (Stream<CardHistoryRepository.Transition> transitions =
+                     cardHistoryRepo.streamTransitions(boardId, from.atStartOfDay(), toEnd)) {
+            LocalDate start = from, end = to;
+            transitions.forEach(t -> {
+                LocalDate created = t.getCreatedAt().toLocalDate();
+                LocalDate changed = t.getChangeDate().toLocalDate();
+                // Chuyển trong ngày tạo card (hoặc dữ liệu lệch): status cuối ngày đã đúng
+                if (!changed.isAfter(created)) return;
+                int fromStatus = t.getFromStatus().ordinal(), toStatus = t.getToStatus().ordinal();
+                int createdAt = slot(start, created);
+                diff[toStatus][createdAt]--;
+                diff[fromStatus][createdAt]++;
+                if (!changed.isAfter(end)) {
+                    int changedAt = slot(start, changed);
+                    diff[toStatus][changedAt]++;
+                    diff[fromStatus][changedAt]--;
+                }
+            });
+        }
+
+        List<CfdPoint> result = new ArrayList<>(days);
+        int todo = 0, inProgress = 0, done = 0;
+        for (int i = 0; i < days; i++) {
+            todo += diff[Status.TODO.ordinal()][i];
+            inProgress += diff[Status.IN_PROGRESS.ordinal()][i];
+            done += diff[Status.DONE.ordinal()][i];
+            result.add(new CfdPoint(from.plusDays(i), todo, inProgress, done));
+        }
+        return result;
+    }
+
+    private static int slot(LocalDate from, LocalDate day) {
+        return day.isBefore(from) ? 0 : (int) ChronoUnit.DAYS.between(from, day);
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.be.service;
+
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.Card;
+import org.example.be.entity.CycleTimeHistogram;
+import org.example.be.entity.Status;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.CardRepository;
+import org.example.be.repository.CycleTimeHistogramRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Histogram lead time / cycle time theo board (CycleTimeHistogram), cập nhật trong cùng
+ * transaction khi card vào DONE lần đầu; /cycle-time chỉ đọc một dòng (64 bucket mỗi loại).
+ * Dòng được tạo cùng board ({@link #initialize}); board cũ được dựng lúc khởi động
+ * (CycleTimeHistogramBackfill). Cycle time tính từ card.firstStartedAt.
+ * Card bị xóa vẫn được giữ trong histogram (số liệu lịch sử của board).
+ * /aging so tuổi của card đang làm với phân vị cycle time này.
+ */
+@Service
+public class CycleTimeService {
+
+    private final CycleTimeHistogramRepository histogramRepo;
+    private final BoardTimelineService boardTimelineService;
+    private final BoardRepository boardRepo;
+    private final CardRepository cardRepo;
+    private final TransactionTemplate newTx;
+
+    public CycleTimeService(CycleTimeHistogramRepository histogramRepo,
+                            BoardTimelineService boardTimelineService,
+                            BoardRepository boardRepo,
+                            CardRepository cardRepo,
+                            PlatformTransactionManager txManager) {
+        this.histogramRepo = histogramRepo;
+        this.boardTimelineService = boardTimelineService;
+        this.boardRepo = boardRepo;
+        this.cardRepo = cardRepo;
+        this.newTx = new TransactionTemplate(txManager);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Card chuyển vào DONE lúc doneAt; gọi trước khi ghi CardHistory của lần chuyển này.
+     * Chỉ lần vào DONE đầu tiên được tính (giống forecast và snapshot). Chỉ cộng vào delta
+     * của request / batch, {@link #apply} ghi một lần mỗi board.
+     */
+    public void cardEnteredDone(Delta delta, Card card, LocalDateTime doneAt) {
+        // firstDoneAt được CardService đặt ngay sau lời gọi này: khác null = đã từng DONE
+        if (card.getCreatedAt() == null || card.getFirstDoneAt() != null) {
+            return;
+        }
+        delta.lead[bucket(card.getCreatedAt(), doneAt)]++;
+        // Có cả card tạo thẳng trong IN_PROGRESS (không có history vào IN_PROGRESS)
+        if (card.getFirstStartedAt() != null) {
+            delta.cycle[bucket(card.getFirstStartedAt(), doneAt)]++;
+        }
+        delta.samples++;
+    }
+
+    // Cộng delta vào dòng histogram của board (khóa dòng tới khi commit)
+    public void apply(Long boardId, Delta delta) {
+        if (delta.samples == 0) return;
+        CycleTimeHistogram histogram = histogramRepo.findForUpdate(boardId)
+                .or(() -> {
+                    // Board chưa được backfill: dựng dòng trong transaction riêng rồi khóa lại
+                    ensureExists(boardId);
+                    return histogramRepo.findForUpdate(boardId);
+                })
+                .orElseThrow(() -> new RuntimeException("Board not found"));
+        histogram.setLeadTimeCounts(add(histogram.getLeadTimeCounts(), delta.lead));
+        histogram.setCycleTimeCounts(add(histogram.getCycleTimeCounts(), delta.cycle));
+    }
+
+    // Chỉ đọc: board chưa có dòng (chưa backfill) thì tính từ timeline mà không ghi
+    public CardDto.CycleTimeStats stats(Long boardId) {
+        CycleTimeHistogram histogram = histogramRepo.findById(boardId).orElseGet(() -> {
+            if (!boardRepo.existsById(boardId)) throw new RuntimeException("Board not found");
+            return build(boardId);
+        });
+        return new CardDto.CycleTimeStats(
+                view(LogHistogram.decode(histogram.getLeadTimeCounts())),
+                view(LogHistogram.decode(histogram.getCycleTimeCounts())));
+    }
+
+    /**
+     * Card trong status (mặc định IN_PROGRESS), lâu nhất trước: một query theo index trên
+     * card (statusEnteredAt / firstStartedAt được duy trì sẵn) + dòng histogram của board.
+     * Tuổi tính theo ngày lịch nên không đổi trong ngày.
+     */
+    public CardDto.AgingReport aging(Long boardId, Status status) {
+        CardDto.DurationHistogram cycle = stats(boardId).cycleTime();
+        LocalDate today = LocalDate.now();
+        List<CardDto.AgingCard> cards = new ArrayList<>();
+        for (CardRepository.AgingView c : cardRepo.findAging(boardId, status)) {
+            LocalDateTime entered = c.getStatusEnteredAt();
+            LocalDateTime started = c.getFirstStartedAt();
+            Integer wipAge = started != null ? daysSince(started, today) : null;
+            cards.add(new CardDto.AgingCard(c.getId(), c.getTitle(), c.getEstimateHours(), entered, started,
+                    entered != null ? daysSince(entered, today) : 0, wipAge, band(wipAge, cycle)));
+        }
+        return new CardDto.AgingReport(status, cycle.p50Days(), cycle.p85Days(), cycle.p95Days(), cards);
+    }
+
+    private static int daysSince(LocalDateTime time, LocalDate today) {
+        return (int) Math.max(0, ChronoUnit.DAYS.between(time.toLocalDate(), today));
+    }
+
+    static String band(Integer ageDays, CardDto.DurationHistogram cycle) {
+        if (ageDays == null || cycle.p50Days() == null) return null;
+        if (ageDays <= cycle.p50Days()) return "WITHIN_P50";
+        if (ageDays <= cycle.p85Days()) return "P50_P85";
+        if (ageDays <= cycle.p95Days()) return "P85_P95";
+        return "ABOVE_P95";
+    }
+
+    private static byte[] add(byte[] encoded, int[] delta) {
+        int[] counts = LogHistogram.decode(encoded);
+        for (int i = 0; i < counts.length; i++) counts[i] += delta[i];
+        return LogHistogram.encode(counts);
+    }
+
+    private static CardDto.DurationHistogram view(int[] counts) {
+        long samples = 0;
+        for (int c : counts) samples += c;
+        return new CardDto.DurationHistogram(samples,
+                LogHistogram.percentileDays(counts, 0.50),
+                LogHistogram.percentileDays(counts, 0.85),
+                LogHistogram.percentileDays(counts, 0.95),
+                LogHistogram.upperDays(), counts);
+    }
+
+    // Board mới tạo: histogram rỗng
+    public void initialize(Long boardId) {
+        histogramRepo.save(CycleTimeHistogram.builder()
+                .boardId(boardId)
+                .leadTimeCounts(LogHistogram.encode(new int[LogHistogram.BUCKETS]))
+                .cycleTimeCounts(LogHistogram.encode(new int[LogHistogram.BUCKETS]))
+                .build());
+    }
+
+    /**
+     * Dựng dòng histogram cho các board cũ chưa có (gọi khi khởi động), mỗi board một
+     * transaction riêng, duyệt keyset theo id. Trả về số board đã dựng.
+     */
+    public int backfillMissing(int pageSize) {
+        int created = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = histogramRepo.findBoardIdsWithoutHistogram(afterId, PageRequest.of(0, pageSize));
+            if (ids.isEmpty()) return created;
+            for (Long boardId : ids) {
+                if (ensureExists(boardId)) created++;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * Board có history trước khi có histogram: dựng một lần từ BoardTimeline (lần đầu vào
+     * IN_PROGRESS / DONE của từng card) trong transaction riêng.
+     */
+    private boolean ensureExists(Long boardId) {
+        try {
+            Boolean created = newTx.execute(status -> {
+                if (histogramRepo.existsById(boardId)) {
+                    return false;
+                }
+                histogramRepo.saveAndFlush(build(boardId));
+                return true;
+            });
+            return Boolean.TRUE.equals(created);
+        } catch (DataIntegrityViolationException e) {
+            // request song song đã tạo dòng histogram
+            return false;
+        }
+    }
+
+    private CycleTimeHistogram build(Long boardId) {
+        int[] lead = new int[LogHistogram.BUCKETS];
+        int[] cycle = new int[LogHistogram.BUCKETS];
+        BoardTimeline timeline = boardTimelineService.load(boardId);
+        for (int i = 0; i < timeline.size; i++) {
+            long done = timeline.firstDoneAt[i];
+            if (done == BoardTimeline.NONE) continue;
+            long created = timeline.createdAt[i], started = timeline.firstStartedAt[i];
+            if (created != BoardTimeline.NONE) {
+                lead[bucket(done - created)]++;
+            }
+            if (started != BoardTimeline.NONE && started <= done) {
+                cycle[bucket(done - started)]++;
+            }
+        }
+        return CycleTimeHistogram.builder()
+                .boardId(boardId)
+                .leadTimeCounts(LogHistogram.encode(lead))
+                .cycleTimeCounts(LogHistogram.encode(cycle))
+                .build();
+    }
+
+    private static int bucket(LocalDateTime from, LocalDateTime to) {
+        return LogHistogram.bucketOf(Duration.between(from, to).toMillis() / 3_600_000d);
+    }
+
+    private static int bucket(long seconds) {
+        return LogHistogram.bucketOf(seconds / 3_600d);
+    }
+
+    // Số card vào DONE lần đầu theo bucket, gom trong request / batch
+    public static final class Delta {
+        final int[] lead = new int[LogHistogram.BUCKETS];
+        final int[] cycle = new int[LogHistogram.BUCKETS];
+        int samples;
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.be.entity.Board;
+import org.example.be.entity.Card;
+import org.example.be.entity.DailySnapshot;
+import org.example.be.entity.Status;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.DailySnapshotRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ghi DailySnapshot. Dòng của hôm nay được duy trì bằng delta trong cùng transaction
+ * với thay đổi card (giống BoardSummary): CardService gom phần thay đổi của từng card
+ * vào {@link Delta} rồi {@link #apply} cộng một lần bằng UPDATE khi kết thúc thao tác,
+ * nên GET burndown chỉ còn đọc snapshot theo khoảng ngày.
+ * Quy tắc giống SnapshotSweep: card tính là xong từ lần vào DONE đầu tiên, kéo ra khỏi
+ * DONE không làm card "chưa xong" lại, nên chỉ lần vào DONE đầu tiên sinh delta.
+ * Thao tác đầu tiên trong ngày (chưa có dòng) dựng các ngày còn thiếu tới hôm nay
+ * từ trạng thái hiện tại. apply chạy sau BoardChangeService.record (đã khóa dòng board
+ * khi tăng version) nên các transaction card của cùng board không cùng tạo dòng.
+ */
+@Service
+@RequiredArgsConstructor
+public class DailySnapshotService {
+
+    private final BoardRepository boardRepo;
+    private final DailySnapshotRepository snapshotRepo;
+    private final BoardTimelineService boardTimelineService;
+
+    // Card vừa được lưu (chưa có history nên luôn là "chưa xong")
+    public void cardCreated(Delta delta, Card card) {
+        delta.add(1, card.getEstimateHours(), null, LocalDate.now());
+    }
+
+    /**
+     * Card đổi status và/hoặc estimate; gọi trước khi ghi CardHistory của lần chuyển này.
+     */
+    public void cardChanged(Delta delta, Card card, Status from, Double fromEstimate, Status to, Double toEstimate) {
+        boolean enteringDone = to == Status.DONE && from != Status.DONE;
+        if (card.getCreatedAt() == null
+                || (!enteringDone && BoardSummaryService.points(fromEstimate) == BoardSummaryService.points(toEstimate))) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        // Đọc từ entity: không query (và không auto-flush) giữa vòng lặp batch
+        LocalDateTime firstDone = card.getFirstDoneAt();
+        delta.add(-1, fromEstimate, firstDone, today);
+        delta.add(1, toEstimate, firstDone == null && enteringDone ? LocalDateTime.now() : firstDone, today);
+    }
+
+    // Gọi trước khi xóa card (và history của nó)
+    public void cardDeleted(Delta delta, Card card) {
+        if (card.getCreatedAt() == null) return;
+        delta.add(-1, card.getEstimateHours(), card.getFirstDoneAt(), LocalDate.now());
+    }
+
+    /**
+     * Cộng delta vào snapshot hôm nay. Chưa có dòng hôm nay thì dựng các ngày còn thiếu
+     * từ trạng thái hiện tại (đã gồm thay đổi vừa làm) và bỏ delta.
+     */
+    public void apply(Board board, Delta delta) {
+        if (delta.isEmpty()) return;
+        LocalDate today = LocalDate.now();
+        int updated = snapshotRepo.applyDelta(board.getId(), today,
+                delta.remainingPoints, delta.completedPoints, delta.completedPointsDaily,
+                delta.remainingTasks, delta.completedTasks);
+        if (updated == 0) {
+            backfill(board, today);
+        }
+    }
+
+    /**
+     * Snapshot của một board cho một ngày (job hằng đêm gọi trong transaction riêng
+     * của từng board), kèm các ngày còn thiếu trước đó. Bỏ qua nếu board đã bị xóa
+     * hoặc đã có snapshot ngày đó.
+     */
+    @Transactional
+    public boolean createSnapshot(Long boardId, LocalDate date) {
+        // Khóa dòng board trước (như transaction card) rồi mới đọc snapshot hiện có. Không tăng
+        // version: snapshot dựng từ timeline không đổi dữ liệu burndown mà client đang giữ theo ETag
+        Board board = boardRepo.findForUpdate(boardId).orElse(null);
+        if (board == null || snapshotRepo.findByBoardAndSnapshotDate(board, date).isPresent()) {
+            return false;
+        }
+        return backfill(board, date) > 0;
+    }
+
+    /**
+     * Dựng lại snapshot hôm nay từ toàn bộ card + history (sửa dòng bị lệch).
+     */
+    @Transactional
+    public void rebuildToday(Long boardId) {
+        Board board = boardRepo.findForUpdate(boardId).orElse(null);
+        if (board == null) return;
+
+        LocalDate today = LocalDate.now();
+        snapshotRepo.findByBoardAndSnapshotDate(board, today).ifPresent(snapshot -> {
+            snapshotRepo.delete(snapshot);
+            snapshotRepo.flush();
+        });
+        backfill(board, today);
+        // Dòng bị lệch đã được sửa: burndown đang cache theo version phải tính lại
+        boardRepo.bumpVersion(boardId);
+    }
+
+    // Các ngày từ sau snapshot cuối (hoặc từ ngày tạo board) tới date, một lượt SnapshotSweep + saveAll
+    private int backfill(Board board, LocalDate date) {
+        LocalDate from = snapshotRepo.findTopByBoardOrderBySnapshotDateDesc(board)
+                .map(s -> s.getSnapshotDate().plusDays(1))
+                .orElse(board.getCreatedAt().toLocalDate());
+        if (from.isAfter(date)) return 0;
+
+        BoardTimeline timeline = boardTimelineService.load(board.getId());
+        List<DailySnapshot> missing = SnapshotSweep.build(board, timeline, from, date);
+        snapshotRepo.saveAll(missing);
+        return missing.size();
+    }
+
+    /**
+     * Phần thay đổi của snapshot hôm nay trong một thao tác (cộng dồn qua nhiều card).
+     */
+    public static final class Delta {
+        double remainingPoints, completedPoints, completedPointsDaily;
+        int remainingTasks, completedTasks;
+
+        // Cộng (sign = 1) hoặc trừ (sign = -1) phần của một card theo đúng quy tắc SnapshotSweep
+        private void add(int sign, Double estimateHours, LocalDateTime firstDone, LocalDate today) {
+            double points = sign * BoardSummaryService.points(estimateHours);
+            if (firstDone == null) {
+                remainingPoints += points;
+                remainingTasks += sign;
+                return;
+            }
+            completedPoints += points;
+            completedTasks += sign;
+            if (firstDone.toLocalDate().equals(today)) {
+                completedPointsDaily += points;
+            }
+        }
+
+        boolean isEmpty() {
+            return remainingPoints == 0 && completedPoints == 0 && completedPointsDaily == 0
+                    && remainingTasks == 0 && completedTasks == 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.be.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Histogram thời lượng với bucket theo thang log: bucket 0 = dưới 1 giờ, bucket i (i >= 1)
+ * = [2^((i-1)/4), 2^(i/4)) giờ, tức mỗi bucket rộng hơn bucket trước ~19%; bucket cuối gom
+ * mọi giá trị từ ~5 năm trở lên. Phân vị trả về cận trên của bucket (sai số tương đối <= 19%).
+ */
+final class LogHistogram {
+
+    static final int BUCKETS = 64;
+    private static final int STEPS_PER_DOUBLING = 4;
+
+    private LogHistogram() {
+    }
+
+    static int bucketOf(double hours) {
+        if (!(hours >= 1)) return 0;
+        int bucket = (int) Math.floor(STEPS_PER_DOUBLING * Math.log(hours) / Math.log(2)) + 1;
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static double upperHours(int bucket) {
+        return Math.pow(2, (double) bucket / STEPS_PER_DOUBLING);
+    }
+
+    // Cận trên (ngày) của bucket chứa phần tử thứ ceil(p * n), null nếu histogram rỗng
+    static Double percentileDays(int[] counts, double p) {
+        long total = 0;
+        for (int c : counts) total += c;
+        if (total == 0) return null;
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return upperHours(i) / 24;
+        }
+        return upperHours(counts.length - 1) / 24;
+    }
+
+    static double[] upperDays() {
+        double[] days = new double[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) days[i] = upperHours(i) / 24;
+        return days;
+    }
+
+    static int[] decode(byte[] bytes) {
+        int[] counts = new int[BUCKETS];
+        if (bytes != null) ByteBuffer.wrap(bytes).asIntBuffer().get(counts, 0, Math.min(BUCKETS, bytes.length / 4));
+        return counts;
+    }
+
+    static byte[] encode(int[] counts) {
+        ByteBuffer buffer = ByteBuffer.allocate(BUCKETS * 4);
+        buffer.asIntBuffer().put(counts, 0, BUCKETS);
+        return buffer.array();
+    }
+}
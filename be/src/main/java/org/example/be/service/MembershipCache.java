@@ -0,0 +1,67 @@
+package org.example.be.service;
+
+import org.example.be.config.ExpiringCache;
+import org.example.be.entity.Permission;
+import org.example.be.entity.Role;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache có giới hạn (boardId, userId) -> role + tập quyền đã tính sẵn.
+ * role null = không phải member (cũng được cache để check "not a member" không query).
+ * Entry hết hạn sau ttlMs (chặn trên độ cũ khi chạy nhiều instance); giới hạn và
+ * eviction do ExpiringCache đảm nhận.
+ * Mỗi lần invalidate tăng generation: giá trị đọc từ DB trước lần invalidate đó
+ * không được put vào cache (tránh ghi đè bằng role cũ).
+ * maxEntries <= 0 nghĩa là tắt cache.
+ */
+final class MembershipCache {
+
+    record Key(Long boardId, Long userId) {
+    }
+
+    record Access(Role role, Set<Permission> permissions, long expiresAtMs) {
+    }
+
+    private final long ttlMs;
+    private final ExpiringCache<Key, Access> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    MembershipCache(int maxEntries, long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entries = new ExpiringCache<>(maxEntries, Access::expiresAtMs);
+    }
+
+    Access get(Key key, long nowMs) {
+        return entries.get(key, nowMs);
+    }
+
+    // Đọc trước khi query DB, truyền lại cho put
+    long generation() {
+        return generation.get();
+    }
+
+    Access put(Key key, Role role, Set<Permission> permissions, long loadedGeneration, long nowMs) {
+        Access access = new Access(role, permissions, nowMs + ttlMs);
+        // Có invalidate xen giữa lúc query và lúc put -> bỏ giá trị vừa put
+        if (entries.put(key, access, nowMs) && generation.get() != loadedGeneration) {
+            entries.remove(key, access);
+        }
+        return access;
+    }
+
+    void invalidate(Key key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    void invalidateBoard(Long boardId) {
+        generation.incrementAndGet();
+        entries.removeKeys(k -> k.boardId().equals(boardId));
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.be.entity.JobCheckpoint;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.JobCheckpointRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot hằng đêm cho mọi board: duyệt board id theo trang (keyset), mỗi trang
+ * chạy song song trên virtual thread với số board đồng thời bị chặn bởi
+ * {@code concurrency} (<= pool connection), mỗi board một transaction ngắn nên
+ * board lỗi/chậm không kéo theo board khác. Sau mỗi trang lưu checkpoint
+ * (JobCheckpoint); job bị dừng giữa chừng chạy tiếp từ trang kế tiếp, với đúng
+ * ngày snapshot của lần chạy đó, ở lần khởi động sau.
+ */
+@Service
+public class NightlySnapshotJob {
+
+    static final String JOB_NAME = "nightly-snapshot";
+
+    private final BoardRepository boardRepo;
+    private final JobCheckpointRepository checkpointRepo;
+    private final DailySnapshotService dailySnapshotService;
+    private final TransactionTemplate boardTx;
+    private final int pageSize;
+    private final int concurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong processedInRun = new AtomicLong();
+    private final Counter failures;
+    private final Timer duration;
+
+    public NightlySnapshotJob(BoardRepository boardRepo,
+                              JobCheckpointRepository checkpointRepo,
+                              DailySnapshotService dailySnapshotService,
+                              PlatformTransactionManager txManager,
+                              MeterRegistry registry,
+                              @Value("${snapshots.nightly.pageSize:500}") int pageSize,
+                              @Value("${snapshots.nightly.concurrency:8}") int concurrency) {
+        this.boardRepo = boardRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.dailySnapshotService = dailySnapshotService;
+        this.boardTx = new TransactionTemplate(txManager);
+        this.boardTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+
+        Gauge.builder("snapshots.nightly.processed", processedInRun, AtomicLong::get)
+                .description("Số board đã xử lý trong lần chạy hiện tại / gần nhất")
+                .register(registry);
+        Gauge.builder("snapshots.nightly.running", running, r -> r.get() ? 1 : 0)
+                .description("1 khi job đang chạy")
+                .register(registry);
+        this.failures = Counter.builder("snapshots.nightly.failures")
+                .description("Số board tạo snapshot lỗi")
+                .register(registry);
+        this.duration = Timer.builder("snapshots.nightly.duration")
+                .description("Thời gian một lần chạy job snapshot")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${snapshots.nightly.cron:0 59 23 * * *}")
+    public void runNightly() {
+        run(LocalDate.now());
+    }
+
+    // Lần chạy trước bị dừng (deploy, crash) thì chạy tiếp ngay khi app sẵn sàng
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        checkpointRepo.findById(JOB_NAME)
+                .filter(c -> c.getFinishedAt() == null)
+                .ifPresent(c -> run(c.getRunDate()));
+    }
+
+    /**
+     * Chạy (hoặc chạy tiếp) job cho ngày snapshot date. Trả về checkpoint cuối,
+     * null nếu đang có lần chạy khác.
+     */
+    public JobCheckpoint run(LocalDate date) {
+        if (!running.compareAndSet(false, true)) return null;
+        long started = System.nanoTime();
+        try {
+            JobCheckpoint checkpoint = startOrResume(date);
+            processedInRun.set(checkpoint.getProcessed());
+
+            Semaphore permits = new Semaphore(concurrency);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                while (true) {
+                    List<Long> ids = boardRepo.findIdsAfter(checkpoint.getLastBoardId(), PageRequest.of(0, pageSize));
+                    if (ids.isEmpty()) break;
+
+                    List<Future<Boolean>> page = new ArrayList<>(ids.size());
+                    for (Long boardId : ids) {
+                        page.add(executor.submit(() -> snapshotBoard(boardId, checkpoint.getRunDate(), permits)));
+                    }
+                    long failed = 0;
+                    for (Future<Boolean> f : page) {
+                        if (!join(f)) failed++;
+                    }
+
+                    // Cả trang đã xong (kể cả board lỗi, đã ghi log) -> dời checkpoint
+                    checkpoint.setLastBoardId(ids.get(ids.size() - 1));
+                    checkpoint.setProcessed(checkpoint.getProcessed() + ids.size());
+                    checkpoint.setFailed(checkpoint.getFailed() + failed);
+                    checkpointRepo.save(checkpoint);
+                    processedInRun.set(checkpoint.getProcessed());
+                }
+            }
+            checkpoint.setFinishedAt(LocalDateTime.now());
+            return checkpointRepo.save(checkpoint);
+        } finally {
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+    }
+
+    private JobCheckpoint startOrResume(LocalDate date) {
+        JobCheckpoint existing = checkpointRepo.findById(JOB_NAME).orElse(null);
+        if (existing != null && existing.getFinishedAt() == null && existing.getRunDate().equals(date)) {
+            return existing;
+        }
+        return checkpointRepo.save(JobCheckpoint.builder()
+                .name(JOB_NAME).runDate(date).lastBoardId(0L)
+                .processed(0L).failed(0L).startedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private boolean snapshotBoard(Long boardId, LocalDate date, Semaphore permits) throws InterruptedException {
+        permits.acquire();
+        try {
+            boardTx.executeWithoutResult(s -> dailySnapshotService.createSnapshot(boardId, date));
+            return true;
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.err.println("Error creating snapshot for board " + boardId + ": " + e.getMessage());
+            return false;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static boolean join(Future<Boolean> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Snapshot job interrupted", e);
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+}
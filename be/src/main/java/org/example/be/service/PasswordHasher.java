@@ -0,0 +1,127 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Chạy BCrypt trên pool riêng (số thread = số core, queue có giới hạn) thay vì
+ * trên thread request của Tomcat. Khi queue đầy thì từ chối ngay bằng
+ * {@link BusyException} (-> 503 + Retry-After) để login storm không chiếm hết
+ * request pool của các endpoint board/card.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          MeterRegistry registry,
+                          @Value("${auth.hashing.threads:0}") int threads,
+                          @Value("${auth.hashing.queueCapacity:64}") int queueCapacity,
+                          @Value("${auth.hashing.timeoutMs:5000}") long timeoutMs,
+                          @Value("${auth.hashing.retryAfterSeconds:2}") int retryAfterSeconds) {
+        this.encoder = encoder;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Số yêu cầu hash đang chờ trong queue")
+                .register(registry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Số thread đang hash")
+                .register(registry);
+        this.encodeTimer = Timer.builder("auth.hashing.latency").tag("op", "encode").register(registry);
+        this.matchesTimer = Timer.builder("auth.hashing.latency").tag("op", "matches").register(registry);
+        this.rejectedCounter = Counter.builder("auth.hashing.rejected")
+                .description("Số yêu cầu bị từ chối vì queue đầy hoặc quá thời gian chờ")
+                .register(registry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> encoder.encode(rawPassword)));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Không chờ trên thread gọi: controller trả CompletableFuture nên Spring MVC xử lý
+     * request bất đồng bộ và trả thread Tomcat ngay. Quá timeoutMs (tính cả lúc chờ
+     * trong queue) thì hủy task và future lỗi với BusyException.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    result.complete(task.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new BusyException(retryAfterSeconds));
+        }
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).exceptionallyCompose(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                running.cancel(true);
+                rejectedCounter.increment();
+                return CompletableFuture.failedFuture(new BusyException(retryAfterSeconds));
+            }
+            return CompletableFuture.failedFuture(cause);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Pool hash đang quá tải, client nên thử lại sau retryAfterSeconds
+    public static class BusyException extends RuntimeException {
+        private final int retryAfterSeconds;
+
+        public BusyException(int retryAfterSeconds) {
+            super("Hệ thống đang bận xử lý đăng nhập, vui lòng thử lại sau.");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
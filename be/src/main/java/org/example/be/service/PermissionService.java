@@ -1,33 +1,81 @@
 package org.example.be.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.example.be.entity.Board;
 import org.example.be.entity.Permission;
 import org.example.be.entity.Role;
 import org.example.be.entity.User;
 import org.example.be.repository.BoardMemberRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Kiểm tra quyền theo role của user trong board. Role và tập quyền được cache theo
+ * (boardId, userId) nên các thao tác card liên tiếp không query board_member;
+ * BoardService/BoardPurgeService gọi {@link #evict}/{@link #evictBoard} khi membership đổi.
+ */
 @Service
-@RequiredArgsConstructor
 public class PermissionService {
     private final BoardMemberRepository boardMemberRepository;
+    private final MembershipCache cache;
+    private final Counter hits;
+    private final Counter misses;
 
     private static final Map<Role, Set<Permission>> ROLE_PERMISSIONS = Map.of(
-            Role.ADMIN, EnumSet.allOf(Permission.class),
-            Role.MEMBER, EnumSet.of(Permission.CARD_EDIT, Permission.CARD_VIEW, Permission.COLUMN_EDIT, Permission.BOARD_MANAGE),
-            Role.VIEWER, EnumSet.of(Permission.CARD_VIEW)
+            Role.ADMIN, Collections.unmodifiableSet(EnumSet.allOf(Permission.class)),
+            Role.MEMBER, Collections.unmodifiableSet(EnumSet.of(Permission.CARD_EDIT, Permission.CARD_VIEW, Permission.COLUMN_EDIT, Permission.BOARD_MANAGE)),
+            Role.VIEWER, Collections.unmodifiableSet(EnumSet.of(Permission.CARD_VIEW))
     );
 
+    public PermissionService(BoardMemberRepository boardMemberRepository,
+                             MeterRegistry registry,
+                             @Value("${permissions.cache.maxEntries:50000}") int maxEntries,
+                             @Value("${permissions.cache.ttlMs:300000}") long ttlMs) {
+        this.boardMemberRepository = boardMemberRepository;
+        this.cache = new MembershipCache(maxEntries, ttlMs);
+
+        this.hits = Counter.builder("permissions.cache.requests").tag("result", "hit")
+                .description("Lần kiểm tra quyền lấy role từ cache")
+                .register(registry);
+        this.misses = Counter.builder("permissions.cache.requests").tag("result", "miss")
+                .description("Lần kiểm tra quyền phải query board_member")
+                .register(registry);
+        Gauge.builder("permissions.cache.size", cache, MembershipCache::size)
+                .description("Số cặp (board, user) đang được cache")
+                .register(registry);
+    }
+
+    private MembershipCache.Access access(User user, Board board) {
+        var key = new MembershipCache.Key(board.getId(), user.getId());
+        long now = System.currentTimeMillis();
+        MembershipCache.Access cached = cache.get(key, now);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long generation = cache.generation();
+        Role role = boardMemberRepository.findRoleByBoardIdAndUserId(board.getId(), user.getId()).orElse(null);
+        Set<Permission> permissions = role == null ? Set.of() : ROLE_PERMISSIONS.getOrDefault(role, Set.of());
+        return cache.put(key, role, permissions, generation, now);
+    }
+
+    // Role của user trong board, null nếu không phải member
+    public Role roleOf(User user, Board board) {
+        return access(user, board).role();
+    }
+
     public boolean hasPermission(User user, Board board, Permission permission) {
-        var memberOpt = boardMemberRepository.findByBoardAndUser(board, user);
-        if (memberOpt.isEmpty()) return false;
-        Role role = memberOpt.get().getRole();
-        return ROLE_PERMISSIONS.getOrDefault(role, Set.of()).contains(permission);
+        return access(user, board).permissions().contains(permission);
     }
 
     public void check(User user, Board board, Permission permission) {
@@ -37,17 +85,41 @@ public class PermissionService {
 
     // ADMIN-only (xóa member, đổi role, xóa board…)
     public void checkManageMember(User user, Board board) {
-        var memberOpt = boardMemberRepository.findByBoardAndUser(board, user);
-        if (memberOpt.isEmpty() || memberOpt.get().getRole() != Role.ADMIN)
+        if (roleOf(user, board) != Role.ADMIN)
             throw new RuntimeException("Forbidden: only ADMIN allowed");
     }
 
-    // ADMIN hoặc MEMBER được mời thêm thành viên
-    public void checkAddMember(User user, Board board) {
-        var memberOpt = boardMemberRepository.findByBoardAndUser(board, user);
-        if (memberOpt.isEmpty()) throw new RuntimeException("Forbidden: not a member");
-        Role role = memberOpt.get().getRole();
+    // ADMIN hoặc MEMBER được mời thêm thành viên; trả về role của người mời
+    public Role checkAddMember(User user, Board board) {
+        Role role = roleOf(user, board);
+        if (role == null) throw new RuntimeException("Forbidden: not a member");
         if (role != Role.ADMIN && role != Role.MEMBER)
             throw new RuntimeException("Forbidden: only ADMIN/MEMBER can invite");
+        return role;
+    }
+
+    /**
+     * Gọi trong transaction đổi membership: xóa ngay và xóa lại sau khi transaction
+     * kết thúc, để request khác không giữ role đọc được trước lúc commit.
+     */
+    public void evict(Long boardId, Long userId) {
+        var key = new MembershipCache.Key(boardId, userId);
+        cache.invalidate(key);
+        afterCompletion(() -> cache.invalidate(key));
+    }
+
+    public void evictBoard(Long boardId) {
+        cache.invalidateBoard(boardId);
+        afterCompletion(() -> cache.invalidateBoard(boardId));
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package org.example.be.service;
+
+import org.example.be.entity.Board;
+import org.example.be.entity.DailySnapshot;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dựng DailySnapshot cho cả khoảng ngày [from, to] trong một lượt:
+ * mỗi card sinh tối đa 3 sự kiện (được tạo, lần đầu DONE, DONE trong ngày) rơi vào
+ * ô của ngày tương ứng, rồi quét tiến từng ngày cộng dồn. Chi phí
+ * O(cards + days) trên BoardTimeline (lần đầu DONE đã tính sẵn trong query).
+ * Quy tắc giống snapshot cũ: card tính điểm từ ngày tạo, tính là xong từ lần
+ * chuyển DONE đầu tiên (kể cả khi sau đó bị kéo ra khỏi DONE), points = estimateHours hoặc 1.
+ */
+final class SnapshotSweep {
+
+    private SnapshotSweep() {
+    }
+
+    static List<DailySnapshot> build(Board board, BoardTimeline timeline, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) return List.of();
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        long fromDay = from.toEpochDay(), toDay = to.toEpochDay();
+
+        // Ô i = thay đổi bắt đầu có hiệu lực từ ngày from + i (ô 0 gom cả các ngày trước from)
+        double[] addedPoints = new double[days];
+        int[] addedTasks = new int[days];
+        double[] donePoints = new double[days];
+        int[] doneTasks = new int[days];
+        double[] dailyPoints = new double[days];
+
+        for (int i = 0; i < timeline.size; i++) {
+            if (timeline.createdAt[i] == BoardTimeline.NONE) continue;
+            long created = BoardTimeline.day(timeline.createdAt[i]);
+            if (created > toDay) continue;
+            double points = timeline.points(i);
+
+            int createdAt = slot(fromDay, created);
+            addedPoints[createdAt] += points;
+            addedTasks[createdAt]++;
+
+            if (timeline.firstDoneAt[i] == BoardTimeline.NONE) continue;
+            long doneDay = BoardTimeline.day(timeline.firstDoneAt[i]);
+            long countedFrom = Math.max(doneDay, created);
+            if (countedFrom > toDay) continue;
+            int doneAt = slot(fromDay, countedFrom);
+            donePoints[doneAt] += points;
+            doneTasks[doneAt]++;
+            if (doneDay >= fromDay && created <= doneDay) {
+                dailyPoints[doneAt] += points;
+            }
+        }
+
+        List<DailySnapshot> snapshots = new ArrayList<>(days);
+        double totalPoints = 0, completedPoints = 0;
+        int totalTasks = 0, completedTasks = 0;
+        for (int i = 0; i < days; i++) {
+            totalPoints += addedPoints[i];
+            totalTasks += addedTasks[i];
+            completedPoints += donePoints[i];
+            completedTasks += doneTasks[i];
+            snapshots.add(DailySnapshot.builder()
+                    .board(board)
+                    .snapshotDate(from.plusDays(i))
+                    .remainingPoints(totalPoints - completedPoints)
+                    .completedPoints(completedPoints)
+                    .completedPointsDaily(dailyPoints[i])
+                    .remainingTasks(totalTasks - completedTasks)
+                    .completedTasks(completedTasks)
+                    .build());
+        }
+        return snapshots;
+    }
+
+    private static int slot(long fromDay, long day) {
+        return day < fromDay ? 0 : (int) (day - fromDay);
+    }
+}
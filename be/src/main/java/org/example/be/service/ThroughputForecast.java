@@ -0,0 +1,68 @@
+package org.example.be.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Dự báo Monte Carlo theo throughput: mỗi lần thử rút ngẫu nhiên (có hoàn lại) throughput
+ * của một ngày trong quá khứ cho từng ngày tương lai cho tới khi hết khối lượng còn lại,
+ * số ngày cần của mọi lần thử cho ra phân vị P50/P85/P95.
+ * Chạy trên mảng nguyên thủy, chia lần thử thành các khối song song (common ForkJoinPool),
+ * mỗi khối một SplittableRandom tách từ seed nên cùng seed cho cùng kết quả.
+ */
+final class ThroughputForecast {
+
+    // Quá số ngày này coi như không dự báo được (throughput quá thấp)
+    static final int MAX_DAYS = 3650;
+
+    private static final int TRIALS_PER_CHUNK = 1024;
+
+    private ThroughputForecast() {
+    }
+
+    /**
+     * Số ngày (tính từ hôm nay) tới khi xong ở P50, P85, P95; phần tử null nếu vượt MAX_DAYS.
+     * Trả về null nếu không có mẫu throughput dương nào.
+     */
+    static Integer[] percentileDays(double[] dailyThroughput, double remaining, int trials, long seed) {
+        if (remaining <= 0) return new Integer[]{0, 0, 0};
+        if (trials <= 0 || Arrays.stream(dailyThroughput).noneMatch(t -> t > 0)) return null;
+
+        int[] days = simulate(dailyThroughput, remaining, trials, seed);
+        Arrays.sort(days);
+        return new Integer[]{percentile(days, 0.50), percentile(days, 0.85), percentile(days, 0.95)};
+    }
+
+    static int[] simulate(double[] samples, double remaining, int trials, long seed) {
+        int[] days = new int[trials];
+        int chunks = (trials + TRIALS_PER_CHUNK - 1) / TRIALS_PER_CHUNK;
+        // Tách RNG tuần tự trước khi chạy song song để kết quả không phụ thuộc thứ tự thread
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            rngs[c] = root.split();
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom rng = rngs[c];
+            int end = Math.min(trials, (c + 1) * TRIALS_PER_CHUNK);
+            for (int t = c * TRIALS_PER_CHUNK; t < end; t++) {
+                double left = remaining;
+                int day = 0;
+                while (left > 0 && day <= MAX_DAYS) {
+                    left -= samples[rng.nextInt(samples.length)];
+                    day++;
+                }
+                days[t] = day;
+            }
+        });
+        return days;
+    }
+
+    private static Integer percentile(int[] sortedDays, double p) {
+        int index = (int) Math.ceil(p * sortedDays.length) - 1;
+        int day = sortedDays[Math.max(0, index)];
+        return day > MAX_DAYS ? null : day;
+    }
+}
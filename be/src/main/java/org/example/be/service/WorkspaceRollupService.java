@@ -0,0 +1,115 @@
+package org.example.be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.be.auth.dto.WorkspaceDtos.BoardRollup;
+import org.example.be.auth.dto.WorkspaceDtos.WorkspaceRollup;
+import org.example.be.entity.BoardSummary;
+import org.example.be.entity.User;
+import org.example.be.repository.BoardRepository;
+import org.example.be.repository.BoardRepository.RollupView;
+import org.example.be.repository.DailySnapshotRepository;
+import org.example.be.repository.DailySnapshotRepository.VelocityView;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tổng hợp burndown của mọi board trong workspace. Chỉ hai query cho cả workspace:
+ * board + BoardSummary, và snapshot gom theo board (SUM/MIN), thay cho việc gọi
+ * BurndownService từng board. Sau đó chỉ còn tính trong bộ nhớ (velocity, ngày xong,
+ * health theo đúng quy tắc của BurndownService) tuần tự trên thread của request.
+ */
+@Service
+@RequiredArgsConstructor
+public class WorkspaceRollupService {
+
+    private static final List<String> HEALTH_ORDER = List.of("ON_TRACK", "AT_RISK", "DELAYED");
+
+    private final WorkspaceService workspaceService;
+    private final BoardRepository boardRepo;
+    private final DailySnapshotRepository snapshotRepo;
+    private final BoardSummaryService boardSummaryService;
+
+    public WorkspaceRollup rollup(Long workspaceId, User current) {
+        workspaceService.get(workspaceId, current);
+
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<RollupView> boards = boardRepo.findRollupByWorkspaceId(workspaceId);
+        Map<Long, VelocityView> velocities = snapshotRepo.sumVelocityByWorkspaceId(workspaceId, weekStart, today)
+                .stream().collect(Collectors.toMap(VelocityView::getBoardId, Function.identity()));
+
+        List<BoardRollup> parts = new ArrayList<>(boards.size());
+        for (RollupView board : boards) {
+            parts.add(boardRollup(board, velocities.get(board.getId()), weekStart));
+        }
+        return merge(workspaceId, parts);
+    }
+
+    private BoardRollup boardRollup(RollupView board, VelocityView velocity, LocalDate weekStart) {
+        double totalPoints, completedPoints;
+        if (board.getTotalPoints() != null) {
+            totalPoints = board.getTotalPoints();
+            completedPoints = board.getDonePoints();
+        } else {
+            // Board cũ chưa có dòng summary: tạo (hiếm, một lần)
+            BoardSummary summary = boardSummaryService.get(board.getId());
+            totalPoints = summary.getTodoPoints() + summary.getInProgressPoints() + summary.getDonePoints();
+            completedPoints = summary.getDonePoints();
+        }
+        double remainingPoints = totalPoints - completedPoints;
+        double averageVelocity = averageVelocity(velocity, weekStart);
+        LocalDate estimatedEndDate = BurndownService.calculateEstimatedEndDate(remainingPoints, averageVelocity);
+        Integer daysAheadOrBehind = BurndownService.daysAheadOrBehind(estimatedEndDate, board.getEndDate());
+        return new BoardRollup(board.getId(), board.getName(), totalPoints, completedPoints, remainingPoints,
+                averageVelocity, estimatedEndDate, board.getEndDate(), daysAheadOrBehind,
+                BurndownService.projectHealth(daysAheadOrBehind));
+    }
+
+    /**
+     * Như BurndownService: trung bình points theo tuần (thứ Hai) của các tuần đã qua,
+     * chưa có tuần nào qua thì lấy tuần hiện tại. Snapshot liên tục theo ngày (backfill
+     * lấp chỗ trống) nên số tuần đã qua = số tuần từ tuần của snapshot đầu tiên tới weekStart.
+     */
+    static double averageVelocity(VelocityView velocity, LocalDate weekStart) {
+        if (velocity == null) return 0;
+        LocalDate firstWeek = velocity.getFirstDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        long completedWeeks = ChronoUnit.WEEKS.between(firstWeek, weekStart);
+        return completedWeeks > 0 ? velocity.getCompletedBefore() / completedWeeks : velocity.getCompletedTotal();
+    }
+
+    private static WorkspaceRollup merge(Long workspaceId, List<BoardRollup> parts) {
+        double totalPoints = 0, completedPoints = 0, remainingPoints = 0, averageVelocity = 0;
+        LocalDate projectedEndDate = null;
+        boolean unknownEnd = false;
+        int worst = 0;
+        Map<String, Integer> healthCounts = new LinkedHashMap<>();
+        HEALTH_ORDER.forEach(h -> healthCounts.put(h, 0));
+
+        for (BoardRollup part : parts) {
+            totalPoints += part.totalPoints();
+            completedPoints += part.completedPoints();
+            remainingPoints += part.remainingPoints();
+            averageVelocity += part.averageVelocity();
+            if (part.estimatedEndDate() == null) {
+                unknownEnd = true;
+            } else if (projectedEndDate == null || part.estimatedEndDate().isAfter(projectedEndDate)) {
+                projectedEndDate = part.estimatedEndDate();
+            }
+            healthCounts.merge(part.projectHealth(), 1, Integer::sum);
+            worst = Math.max(worst, HEALTH_ORDER.indexOf(part.projectHealth()));
+        }
+
+        return new WorkspaceRollup(workspaceId, totalPoints, completedPoints, remainingPoints, averageVelocity,
+                unknownEnd ? null : projectedEndDate, HEALTH_ORDER.get(worst), healthCounts, parts);
+    }
+}
@@ -6,6 +6,7 @@ import org.example.be.entity.User;
 import org.example.be.entity.Workspace;
 import org.example.be.repository.WorkspaceRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,6 +15,7 @@ import java.util.List;
 public class WorkspaceService {
 
     private final WorkspaceRepository workspaceRepository;
+    private final BoardPurgeService boardPurgeService;
 
     public Workspace create(WorkspaceDtos.WorkspaceCreateRequest req, User current) {
         Workspace ws = Workspace.builder()
@@ -48,8 +50,14 @@ public class WorkspaceService {
         return workspaceRepository.save(ws);
     }
 
-    public void delete(Long id, User current) {
-        Workspace ws = get(id, current);
-        workspaceRepository.delete(ws);
+    // Xóa cả các board trong workspace (purge nền nếu nhiều card)
+    @Transactional
+    public BoardPurgeService.PurgeProgress delete(Long id, User current) {
+        get(id, current);
+        return boardPurgeService.purgeWorkspace(id, current.getId());
+    }
+
+    public BoardPurgeService.PurgeProgress purgeStatus(Long id, User current) {
+        return boardPurgeService.status("workspace", id, current.getId());
     }
 }
\ No newline at end of file
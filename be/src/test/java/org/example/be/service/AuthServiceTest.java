@@ -0,0 +1,84 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.AuthDtos;
+import org.example.be.config.JwtService;
+import org.example.be.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "org.example.be.service.AuthServiceTest$InsertThreadRecorder",
+        "jwt.secret=ReplaceThisWithAStrongSecretKeyForTests",
+        "jwt.expirationMs=60000"})
+@Import({AuthService.class, PasswordHasher.class, JwtService.class, SimpleMeterRegistry.class,
+        AuthServiceTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceTest {
+
+    // Ghi lại thread chạy câu INSERT vào bảng users
+    public static class InsertThreadRecorder implements StatementInspector {
+        static volatile String insertThread;
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase().startsWith("insert into users")) insertThread = Thread.currentThread().getName();
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        // Encoder rẻ thay BCrypt; ngủ một chút để hash xong sau khi register đã gắn continuation
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence raw) {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "hash:" + raw;
+                }
+
+                @Override
+                public boolean matches(CharSequence raw, String encoded) {
+                    return encode(raw).equals(encoded);
+                }
+            };
+        }
+    }
+
+    @Autowired AuthService authService;
+    @Autowired UserRepository userRepo;
+
+    @Test
+    void registerSavesUserOffTheHashingPool() throws Exception {
+        AuthDtos.AuthResponse res = authService.register(new AuthDtos.RegisterRequest("alice", "pw"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertNotNull(res.token());
+        assertEquals("hash:pw", userRepo.findByUsername("alice").orElseThrow().getPasswordHash());
+        assertNotNull(InsertThreadRecorder.insertThread);
+        assertFalse(InsertThreadRecorder.insertThread.startsWith("password-hash-"),
+                "insert ran on " + InsertThreadRecorder.insertThread);
+
+        assertNotNull(authService.login(new AuthDtos.LoginRequest("alice", "pw")).get(5, TimeUnit.SECONDS).token());
+    }
+}
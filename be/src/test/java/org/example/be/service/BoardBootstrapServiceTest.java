@@ -0,0 +1,108 @@
+package org.example.be.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({BoardBootstrapService.class, BoardQueryService.class, BoardTimelineService.class, BurndownService.class, BoardResponseCache.class,
+        PermissionService.class, BoardSummaryService.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardBootstrapServiceTest {
+
+    @Autowired BoardBootstrapService bootstrapService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired CardHistoryRepository cardHistoryRepo;
+    @Autowired ObjectMapper json;
+
+    User member;
+    User outsider;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        member = userRepo.save(User.builder().username("boot-" + System.nanoTime()).passwordHash("x").build());
+        outsider = userRepo.save(User.builder().username("out-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(member).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(member).role(Role.VIEWER).build());
+        for (int i = 0; i < 5; i++) {
+            Card card = cardRepo.save(Card.builder().board(board).title("c" + i)
+                    .status(i < 2 ? Status.DONE : Status.TODO).position(i).estimateHours(1.0).build());
+            if (card.getStatus() == Status.DONE) {
+                cardHistoryRepo.save(CardHistory.builder().card(card).actor(member)
+                        .fromStatus(Status.TODO).toStatus(Status.DONE).changeDate(LocalDateTime.now()).build());
+            }
+        }
+    }
+
+    @Test
+    void returnsAllSectionsByDefault() throws Exception {
+        var res = bootstrapService.bootstrap(board.getId(), null, member);
+
+        assertEquals(board.getId(), res.board().id());
+        assertEquals(board.getWorkspace().getId(), res.board().workspaceId());
+        assertEquals(5, res.cards().size());
+        assertEquals(1, res.members().size());
+        assertEquals(2, res.history().items().size());
+        assertEquals(2, res.firstDone().size());
+        assertEquals(2, json.readTree(res.forecast()).get("doneCards").asInt());
+        assertNotNull(res.burndown());
+    }
+
+    @Test
+    void cachedJsonIsEmbeddedAsObjects() throws Exception {
+        bootstrapService.bootstrap(board.getId(), null, member);
+        // Lần hai lấy từ cache: vẫn là object JSON, không bị quote thành chuỗi
+        var body = json.readTree(json.writeValueAsString(bootstrapService.bootstrap(board.getId(), null, member)));
+
+        assertTrue(body.get("forecast").isObject());
+        assertEquals(2, body.get("forecast").get("doneCards").asInt());
+        assertTrue(body.get("burndown").isObject());
+    }
+
+    @Test
+    void responseDoesNotExposeWorkspaceOwner() throws Exception {
+        String body = json.writeValueAsString(bootstrapService.bootstrap(board.getId(), null, member));
+
+        assertFalse(body.contains("\"owner\""), body);
+        assertFalse(body.contains("passwordHash"), body);
+    }
+
+    @Test
+    void returnsOnlyRequestedSections() {
+        var res = bootstrapService.bootstrap(board.getId(), List.of("cards"), member);
+
+        assertEquals(5, res.cards().size());
+        assertNull(res.members());
+        assertNull(res.history());
+        assertNull(res.forecast());
+        assertNull(res.burndown());
+    }
+
+    @Test
+    void rejectsNonMembersAndUnknownSections() {
+        assertThrows(RuntimeException.class, () -> bootstrapService.bootstrap(board.getId(), null, outsider));
+        assertThrows(RuntimeException.class, () -> bootstrapService.bootstrap(board.getId(), List.of("secrets"), member));
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// retentionDays âm: compact() dọn hết log hiện có
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "board.changes.retentionDays=-1"})
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardChangeServiceTest {
+
+    @Autowired CardService cardService;
+    @Autowired BoardChangeService changeService;
+    @Autowired BoardVersionService versionService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+
+    User user;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("chg-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+    }
+
+    private Card create(String title) {
+        return cardService.create(new BoardDto.CardCreateRequest(board.getId(), title, null, null,
+                null, null, "TODO", 1.0, null), user);
+    }
+
+    @Test
+    void returnsOnlyCardsChangedSinceVersion() {
+        Card a = create("a");
+        Card b = create("b");
+        create("c");
+        long seen = versionService.current(board.getId());
+
+        cardService.move(new BoardDto.MoveCardRequest(a.getId(), "IN_PROGRESS", 0), user);
+        cardService.move(new BoardDto.MoveCardRequest(a.getId(), "DONE", 0), user);
+        cardService.delete(b.getId(), user);
+
+        CardDto.CardChanges changes = changeService.changesSince(board.getId(), seen);
+        assertFalse(changes.resyncRequired());
+        assertEquals(versionService.current(board.getId()), changes.version());
+        assertEquals(1, changes.upserted().size());
+        assertEquals(a.getId(), changes.upserted().get(0).id());
+        assertEquals(Status.DONE, changes.upserted().get(0).status());
+        assertEquals(List.of(b.getId()), changes.deleted());
+
+        CardDto.CardChanges none = changeService.changesSince(board.getId(), changes.version());
+        assertFalse(none.resyncRequired());
+        assertTrue(none.upserted().isEmpty() && none.deleted().isEmpty());
+    }
+
+    @Test
+    void compactedOrUnknownVersionRequiresResync() {
+        Card a = create("a");
+        long seen = versionService.current(board.getId());
+        cardService.move(new BoardDto.MoveCardRequest(a.getId(), "DONE", 0), user);
+
+        changeService.compact();
+
+        assertTrue(changeService.changesSince(board.getId(), seen).resyncRequired());
+        assertTrue(changeService.changesSince(board.getId(), Long.MAX_VALUE).resyncRequired());
+        long current = versionService.current(board.getId());
+        assertFalse(changeService.changesSince(board.getId(), current).resyncRequired());
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.be.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.service.BoardEventBroadcaster.BoardEvent;
+import org.example.be.service.BoardEventBroadcaster.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardEventBroadcasterTest {
+
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final CountDownLatch release = new CountDownLatch(1);
+    BoardEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new BoardEventBroadcaster(new ObjectMapper(), registry, 4, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        broadcaster.shutdown();
+    }
+
+    // Emitter chưa gắn response: ghi nhận frame thay vì ghi ra socket
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            frames.add(items.stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+        }
+
+        boolean received(Type type) {
+            return frames.stream().anyMatch(f -> f.contains("event:" + type.name()));
+        }
+    }
+
+    // Client đã đóng kết nối
+    static class DeadEmitter extends SseEmitter {
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+    }
+
+    // Client không đọc: lần ghi đầu tiên treo tới khi test kết thúc
+    class StalledEmitter extends SseEmitter {
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(10);
+        }
+    }
+
+    private static BoardEvent event(Long boardId, Type type) {
+        return new BoardEvent(boardId, type, 7L, null, null);
+    }
+
+    @Test
+    void deliversEventToSubscriber() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        RecordingEmitter otherBoard = new RecordingEmitter();
+        broadcaster.subscribe(1L, emitter);
+        broadcaster.subscribe(2L, otherBoard);
+        assertEquals(2, broadcaster.subscriberCount());
+
+        broadcaster.onBoardEvent(event(1L, Type.CARD_CREATED));
+
+        await(() -> emitter.received(Type.CARD_CREATED));
+        assertTrue(emitter.frames.stream().anyMatch(f -> f.contains("\"cardId\":7")));
+        assertFalse(otherBoard.received(Type.CARD_CREATED));
+    }
+
+    @Test
+    void prunesDeadEmitter() throws Exception {
+        RecordingEmitter alive = new RecordingEmitter();
+        broadcaster.subscribe(1L, alive);
+        // Heartbeat đầu tiên gửi lỗi -> bị gỡ
+        broadcaster.subscribe(1L, new DeadEmitter());
+        await(() -> broadcaster.subscriberCount() == 1);
+
+        broadcaster.onBoardEvent(event(1L, Type.CARD_MOVED));
+        await(() -> alive.received(Type.CARD_MOVED));
+        assertEquals(1, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void evictsSlowClientWhenBufferIsFull() throws Exception {
+        broadcaster.subscribe(1L, new StalledEmitter());
+
+        for (int i = 0; i < 10; i++) {
+            broadcaster.onBoardEvent(event(1L, Type.CARD_UPDATED));
+        }
+
+        assertEquals(0, broadcaster.subscriberCount());
+        assertEquals(1.0, registry.get("board.events.evicted").counter().count());
+    }
+}
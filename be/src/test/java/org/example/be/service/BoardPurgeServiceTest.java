@@ -0,0 +1,155 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({BoardPurgeService.class, PermissionService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardPurgeServiceTest {
+
+    @Autowired BoardPurgeService purgeService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired BoardSummaryRepository boardSummaryRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired CardAssigneeRepository cardAssigneeRepo;
+    @Autowired CardHistoryRepository cardHistoryRepo;
+    @Autowired DailySnapshotRepository snapshotRepo;
+    @Autowired BoardPurgeRepository purgeRepo;
+    @Autowired TransactionTemplate tx;
+
+    User user;
+    Workspace ws;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("purge-" + System.nanoTime()).passwordHash("x").build());
+        ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+    }
+
+    // Board có đủ card, assignee, history, snapshot, summary và member
+    private Board boardWithCards(int cardCount) {
+        Board board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+        boardSummaryRepo.save(BoardSummary.builder().boardId(board.getId())
+                .todoCount(cardCount).inProgressCount(0).doneCount(0)
+                .todoPoints((double) cardCount).inProgressPoints(0.0).donePoints(0.0).build());
+        snapshotRepo.save(DailySnapshot.builder().board(board).snapshotDate(LocalDate.now())
+                .remainingPoints(1.0).completedPoints(0.0).completedPointsDaily(0.0)
+                .remainingTasks(cardCount).completedTasks(0).build());
+
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < cardCount; i++) {
+            cards.add(Card.builder().board(board).title("c" + i).status(Status.TODO).position(i).build());
+        }
+        cards = cardRepo.saveAll(cards);
+        cardAssigneeRepo.save(CardAssignee.builder().card(cards.get(0)).user(user).build());
+        cardHistoryRepo.save(CardHistory.builder().card(cards.get(0)).actor(user)
+                .fromStatus(Status.TODO).toStatus(Status.IN_PROGRESS).changeDate(LocalDateTime.now()).build());
+        return board;
+    }
+
+    private void assertBoardGone(Long boardId) {
+        assertFalse(boardRepo.existsById(boardId));
+        assertEquals(0, cardRepo.countByBoardId(boardId));
+        assertTrue(boardSummaryRepo.findById(boardId).isEmpty());
+    }
+
+    @Test
+    void smallBoardIsPurgedInline() {
+        Board board = boardWithCards(5);
+
+        var progress = tx.execute(s -> purgeService.purgeBoard(board.getId(), user.getId()));
+
+        assertEquals(PurgeState.DONE, progress.state());
+        assertEquals(5, progress.cardsDeleted());
+        assertBoardGone(board.getId());
+        assertEquals(0, cardAssigneeRepo.count());
+        assertEquals(0, cardHistoryRepo.count());
+        assertEquals(0, snapshotRepo.count());
+    }
+
+    @Test
+    void largeWorkspaceIsPurgedInChunks() {
+        Board big = boardWithCards(BoardPurgeService.CHUNK_SIZE + 1);
+        Board small = boardWithCards(3);
+
+        // Không bật @EnableAsync trong test: job chạy ngay sau commit, trên thread hiện tại
+        var started = tx.execute(s -> purgeService.purgeWorkspace(ws.getId(), user.getId()));
+        assertEquals(PurgeState.RUNNING, started.state());
+
+        var done = purgeService.status("workspace", ws.getId(), user.getId());
+        assertEquals(PurgeState.DONE, done.state());
+        assertEquals(2, done.boardsDone());
+        assertEquals(BoardPurgeService.CHUNK_SIZE + 4, done.cardsDeleted());
+        assertBoardGone(big.getId());
+        assertBoardGone(small.getId());
+        assertFalse(workspaceRepo.existsById(ws.getId()));
+    }
+
+    @Test
+    void finishedJobIsEvictedAfterTtl() {
+        Board board = boardWithCards(2);
+        tx.execute(s -> purgeService.purgeBoard(board.getId(), user.getId()));
+
+        tx.executeWithoutResult(s -> purgeService.evictFinished(Instant.now()));
+        assertEquals(PurgeState.DONE,
+                purgeService.status("board", board.getId(), user.getId()).state());
+
+        tx.executeWithoutResult(s -> purgeService.evictFinished(Instant.now().plus(BoardPurgeService.DONE_TTL).plusSeconds(1)));
+        assertThrows(RuntimeException.class, () -> purgeService.status("board", board.getId(), user.getId()));
+    }
+
+    @Test
+    void interruptedPurgeIsResumedOnStartup() {
+        Board board = boardWithCards(3);
+        // Như sau restart: member đã bị gỡ, job còn RUNNING trong DB nhưng không còn thread nào chạy
+        boardMemberRepo.deleteAll(boardMemberRepo.findAll().stream()
+                .filter(m -> m.getBoard().getId().equals(board.getId())).toList());
+        purgeRepo.save(BoardPurge.builder().jobKey("board:" + board.getId()).target("board").targetId(board.getId())
+                .requestedBy(user.getId()).state(PurgeState.RUNNING).boardsTotal(1).boardsDone(0)
+                .cardsTotal(3L).cardsDeleted(0L).startedAt(Instant.now()).build());
+
+        purgeService.resumeUnfinished();
+
+        assertBoardGone(board.getId());
+        var done = purgeService.status("board", board.getId(), user.getId());
+        assertEquals(PurgeState.DONE, done.state());
+        assertEquals(3, done.cardsDeleted());
+    }
+
+    @Test
+    void failedPurgeStaysResumable() {
+        Board board = boardWithCards(1);
+        purgeRepo.save(BoardPurge.builder().jobKey("board:" + board.getId()).target("board").targetId(board.getId())
+                .requestedBy(user.getId()).state(PurgeState.FAILED).boardsTotal(1).boardsDone(0)
+                .cardsTotal(1L).cardsDeleted(0L).startedAt(Instant.now().minusSeconds(86_400))
+                .finishedAt(Instant.now().minusSeconds(86_400)).error("boom").build());
+        tx.executeWithoutResult(s -> purgeService.evictFinished(Instant.now()));
+
+        assertTrue(purgeService.canResume("board", board.getId(), user.getId()));
+        var progress = tx.execute(s -> purgeService.purgeBoard(board.getId(), user.getId()));
+        assertEquals(PurgeState.DONE, progress.state());
+        assertBoardGone(board.getId());
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.be.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * So sánh payload JSON và số câu SQL của /cards, /members, /history
+ * giữa cách cũ (serialize entity) và projection DTO.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({BoardQueryService.class, BoardTimelineService.class, BoardSummaryService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardQueryServiceProjectionTest {
+
+    static final int CARDS = 50;
+    static final int MEMBERS = 5;
+    static final int HISTORY = 100;
+
+    @Autowired BoardQueryService queryService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired CardHistoryRepository cardHistoryRepo;
+    @Autowired EntityManagerFactory emf;
+
+    final ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            users.add(userRepo.save(User.builder().username("proj-" + System.nanoTime()).passwordHash("$2a$10$hash").build()));
+        }
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(users.get(0)).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        for (User u : users) {
+            boardMemberRepo.save(BoardMember.builder().board(board).user(u).role(Role.MEMBER).build());
+        }
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cards.add(Card.builder().board(board).title("Card " + i).status(Status.TODO).position(i).estimateHours(2.0).build());
+        }
+        cards = cardRepo.saveAll(cards);
+        List<CardHistory> history = new ArrayList<>();
+        for (int i = 0; i < HISTORY; i++) {
+            history.add(CardHistory.builder().card(cards.get(i % CARDS)).actor(users.get(i % MEMBERS))
+                    .fromStatus(Status.TODO).toStatus(Status.IN_PROGRESS)
+                    .changeDate(LocalDateTime.now().minusMinutes(i)).build());
+        }
+        cardHistoryRepo.saveAll(history);
+    }
+
+    record Measured(long statements, int bytes, String body) {}
+
+    private Measured measure(Supplier<Object> call) throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        Object result = call.get();
+        long statements = stats.getPrepareStatementCount();
+        String body = json.writeValueAsString(result);
+        return new Measured(statements, body.getBytes().length, body);
+    }
+
+    private void compare(String endpoint, Supplier<Object> legacy, Supplier<Object> projected) throws Exception {
+        Measured before = measure(legacy);
+        Measured after = measure(projected);
+        assertTrue(after.bytes() < before.bytes(),
+                endpoint + ": " + before.bytes() + " -> " + after.bytes() + " bytes");
+        assertTrue(after.statements() <= before.statements(),
+                endpoint + ": " + before.statements() + " -> " + after.statements() + " queries");
+        assertTrue(after.statements() <= 2, endpoint + " ran " + after.statements() + " queries");
+        assertFalse(after.body().contains("passwordHash"));
+    }
+
+    @Test
+    void projectionsAreSmallerAndUseConstantQueries() throws Exception {
+        compare("/cards",
+                () -> cardRepo.findByBoard(boardRepo.findById(board.getId()).orElseThrow()),
+                () -> queryService.getCards(board.getId()));
+        compare("/members",
+                () -> boardMemberRepo.findByBoard(boardRepo.findById(board.getId()).orElseThrow()),
+                () -> queryService.getMembers(board.getId()));
+        compare("/history",
+                () -> cardHistoryRepo.findByBoardOrderByChangeDateDescIdDesc(boardRepo.findById(board.getId()).orElseThrow()),
+                () -> queryService.getHistory(board.getId(), null, HISTORY).items());
+    }
+
+    @Test
+    void historyPagesWalkNewestFirstWithoutGapsOrDuplicates() {
+        List<CardDto.HistoryView> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var page = queryService.getHistory(board.getId(), cursor, 30);
+            all.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(4, pages);
+        assertEquals(HISTORY, all.size());
+        assertEquals(HISTORY, all.stream().map(CardDto.HistoryView::id).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse(all.get(i).changeDate().isAfter(all.get(i - 1).changeDate()));
+        }
+        assertNotNull(all.get(0).card().title());
+        assertNotNull(all.get(0).actor().username());
+        assertEquals(MEMBERS, queryService.getMembers(board.getId()).size());
+    }
+}
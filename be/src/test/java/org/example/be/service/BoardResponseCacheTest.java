@@ -0,0 +1,78 @@
+package org.example.be.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.be.auth.dto.BoardForecastDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({BoardResponseCache.class, BurndownService.class, BoardQueryService.class, BoardTimelineService.class, BoardSummaryService.class,
+        BoardVersionService.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardResponseCacheTest {
+
+    @Autowired BoardResponseCache cache;
+    @Autowired BoardVersionService versionService;
+    @Autowired ObjectMapper json;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate tx;
+
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepo.save(User.builder().username("rc-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        for (int i = 0; i < 10; i++) {
+            cardRepo.save(Card.builder().board(board).title("c" + i).status(Status.TODO).position(i).build());
+        }
+    }
+
+    @Test
+    void hotBoardIsServedWithoutQueriesUntilVersionChanges() throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        long version = versionService.current(board.getId());
+
+        byte[] first = cache.forecast(board.getId(), version);
+        cache.burndown(board.getId(), version);
+
+        stats.clear();
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, cache.forecast(board.getId(), version));
+            cache.burndown(board.getId(), version);
+        }
+        assertEquals(0, stats.getPrepareStatementCount());
+        assertEquals(10, json.readValue(first, BoardForecastDto.class).totalCards());
+
+        // Thêm card + tăng version (như CardService) -> lần đọc sau tính lại
+        cardRepo.save(Card.builder().board(board).title("new").status(Status.TODO).position(99).build());
+        tx.executeWithoutResult(s -> versionService.bump(board.getId()));
+        long next = versionService.current(board.getId());
+        byte[] recomputed = cache.forecast(board.getId(), next);
+        assertEquals(11, json.readValue(recomputed, BoardForecastDto.class).totalCards());
+    }
+}
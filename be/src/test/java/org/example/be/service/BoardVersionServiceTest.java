@@ -0,0 +1,66 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BoardVersionServiceTest {
+
+    @Autowired CardService cardService;
+    @Autowired BoardVersionService versionService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+
+    User user;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("ver-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+    }
+
+    @Test
+    void cardMutationsBumpVersionAndBoardSaveDoesNotOverwriteIt() {
+        assertEquals(0, versionService.current(board.getId()));
+
+        Card card = cardService.create(new BoardDto.CardCreateRequest(board.getId(), "a", null, null,
+                null, null, "TODO", 1.0, null), user);
+        long afterCreate = versionService.current(board.getId());
+        assertTrue(afterCreate > 0);
+
+        cardService.move(new BoardDto.MoveCardRequest(card.getId(), "DONE", 0), user);
+        long afterMove = versionService.current(board.getId());
+        assertTrue(afterMove > afterCreate);
+
+        // save(board) với version cũ trong entity không được kéo version lùi lại
+        Board stale = boardRepo.findById(board.getId()).orElseThrow();
+        stale.setName("renamed");
+        boardRepo.save(stale);
+        assertEquals(afterMove, versionService.current(board.getId()));
+        assertEquals("v" + afterMove, versionService.etag(board.getId()));
+    }
+
+    @Test
+    void unknownBoardHasNoVersion() {
+        assertThrows(RuntimeException.class, () -> versionService.etag(-1L));
+    }
+}
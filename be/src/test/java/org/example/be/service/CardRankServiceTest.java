@@ -0,0 +1,88 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardRankServiceTest {
+
+    @Autowired CardService cardService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+
+    User user;
+    Board board;
+    Card a, b, c;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("rank-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+        a = create("a");
+        b = create("b");
+        c = create("c");
+    }
+
+    private Card create(String title) {
+        return cardService.create(new BoardDto.CardCreateRequest(board.getId(), title, null, null,
+                null, null, "TODO", 1.0, null), user);
+    }
+
+    private List<Long> column() {
+        return cardRepo.findColumnIdsInOrder(board.getId(), Status.TODO);
+    }
+
+    @Test
+    void movesNextToAnchorCard() {
+        cardService.move(new BoardDto.MoveCardRequest(c.getId(), "TODO", null, a.getId(), null), user);
+        assertEquals(List.of(c.getId(), a.getId(), b.getId()), column());
+
+        cardService.move(new BoardDto.MoveCardRequest(c.getId(), "TODO", null, null, a.getId()), user);
+        assertEquals(List.of(a.getId(), c.getId(), b.getId()), column());
+
+        cardService.move(new BoardDto.MoveCardRequest(a.getId(), "TODO", null, null, b.getId()), user);
+        assertEquals(List.of(c.getId(), b.getId(), a.getId()), column());
+
+        // Card neo không nằm trong cột đích: dùng index
+        cardService.move(new BoardDto.MoveCardRequest(b.getId(), "TODO", 0, 999_999L, null), user);
+        assertEquals(List.of(b.getId(), c.getId(), a.getId()), column());
+    }
+
+    @Test
+    void updateTreatsPositionAsIndex() {
+        cardService.update(new CardDto.CardUpdateRequest(c.getId(), "c", null, 0, null, null,
+                "TODO", 1.0, null), user);
+        assertEquals(List.of(c.getId(), a.getId(), b.getId()), column());
+
+        cardService.update(new CardDto.CardUpdateRequest(c.getId(), "c", null, 1, null, null,
+                "TODO", 1.0, null), user);
+        assertEquals(List.of(a.getId(), c.getId(), b.getId()), column());
+
+        // Không gửi position: giữ nguyên chỗ
+        cardService.update(new CardDto.CardUpdateRequest(c.getId(), "c2", null, null, null, null,
+                "TODO", 1.0, null), user);
+        assertEquals(List.of(a.getId(), c.getId(), b.getId()), column());
+    }
+}
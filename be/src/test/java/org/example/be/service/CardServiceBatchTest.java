@@ -0,0 +1,175 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardServiceBatchTest {
+
+    @Autowired CardService cardService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired EntityManagerFactory emf;
+
+    User user;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("batch-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).wipLimit(2).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+    }
+
+    private static CardDto.CardBatchCommand create(Long boardId, String title) {
+        return create(boardId, title, null, "TODO");
+    }
+
+    private static CardDto.CardBatchCommand create(Long boardId, String title, Integer position, String status) {
+        return new CardDto.CardBatchCommand("CREATE",
+                new BoardDto.CardCreateRequest(boardId, title, null, position, null, null, status, 2.0, null),
+                null, null);
+    }
+
+    // Số statement JDBC được prepare cho một batch chỉ gồm create vào cuối cột
+    private long statementsForCreates(int count) {
+        List<CardDto.CardBatchCommand> commands = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            commands.add(create(board.getId(), "card " + i, null, "TODO"));
+        }
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertTrue(cardService.batch(new CardDto.CardBatchRequest(commands), user).applied());
+        return stats.getPrepareStatementCount();
+    }
+
+    @Test
+    void createsAndMovesInOneBatch() {
+        List<CardDto.CardBatchCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commands.add(create(board.getId(), "Card " + i));
+        }
+        var created = cardService.batch(new CardDto.CardBatchRequest(commands), user);
+        assertTrue(created.applied());
+
+        var cards = cardRepo.findByBoardAndStatusOrderByPositionAsc(board, Status.TODO);
+        assertEquals(10, cards.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("Card " + i, cards.get(i).getTitle());
+        }
+
+        Long first = created.results().get(0).cardId();
+        var moved = cardService.batch(new CardDto.CardBatchRequest(List.of(
+                new CardDto.CardBatchCommand("MOVE", null, null,
+                        new BoardDto.MoveCardRequest(first, "DONE", 0)))), user);
+        assertTrue(moved.applied());
+        assertEquals(Status.DONE, cardRepo.findById(first).orElseThrow().getStatus());
+    }
+
+    @Test
+    void failingCommandRollsBackWholeBatch() {
+        List<CardDto.CardBatchCommand> commands = new ArrayList<>();
+        commands.add(create(board.getId(), "ok"));
+        commands.add(create(-1L, "missing board"));
+        commands.add(create(board.getId(), "never applied"));
+
+        var res = cardService.batch(new CardDto.CardBatchRequest(commands), user);
+
+        assertFalse(res.applied());
+        assertEquals(List.of("OK", "FAILED", "SKIPPED"),
+                res.results().stream().map(CardDto.CardBatchResult::status).toList());
+        assertTrue(cardRepo.findByBoard(board).isEmpty());
+    }
+
+    @Test
+    void statementsDoNotGrowWithCreatedCards() {
+        long few = statementsForCreates(5);
+        long many = statementsForCreates(40);
+
+        // Chỉ chênh nhiều nhất một lần lấy sequence (card_seq, board_change_seq cấp theo khối 50)
+        assertTrue(many <= few + 2, few + " vs " + many);
+        assertEquals(45, cardRepo.findByBoard(board).size());
+    }
+
+    // Số statement của một batch chuyển count card sang DONE (mỗi card có dòng cycle time / snapshot)
+    private long statementsForMovesToDone(int count) {
+        List<CardDto.CardBatchCommand> creates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            creates.add(create(board.getId(), "done " + i, null, "TODO"));
+        }
+        cardService.batch(new CardDto.CardBatchRequest(creates), user);
+        List<CardDto.CardBatchCommand> moves = new ArrayList<>();
+        for (Card card : cardRepo.findByBoardAndStatusOrderByPositionAsc(board, Status.TODO)) {
+            moves.add(new CardDto.CardBatchCommand("MOVE", null, null,
+                    new BoardDto.MoveCardRequest(card.getId(), "DONE", null)));
+        }
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertTrue(cardService.batch(new CardDto.CardBatchRequest(moves), user).applied());
+        return stats.getPrepareStatementCount();
+    }
+
+    @Test
+    void movesToDoneDoNotQueryPerCard() {
+        long few = statementsForMovesToDone(5);
+        long many = statementsForMovesToDone(30);
+
+        // Chỉ chênh nhiều nhất một lần lấy sequence (card_history_seq, board_change_seq cấp theo khối 50)
+        assertTrue(many <= few + 2, few + " vs " + many);
+        assertEquals(35, cardRepo.findByBoardAndStatusOrderByPositionAsc(board, Status.DONE).size());
+    }
+
+    @Test
+    void createsAtIndexFollowBatchOrder() {
+        List<CardDto.CardBatchCommand> commands = List.of(
+                create(board.getId(), "x", 0, "TODO"),
+                create(board.getId(), "y", 0, "TODO"),
+                create(board.getId(), "z", 1, "TODO"));
+        assertTrue(cardService.batch(new CardDto.CardBatchRequest(commands), user).applied());
+
+        List<String> titles = cardRepo.findByBoardAndStatusOrderByPositionAsc(board, Status.TODO).stream()
+                .map(Card::getTitle).toList();
+        assertEquals(List.of("y", "z", "x"), titles);
+    }
+
+    @Test
+    void wipLimitIsCheckedOnTheBatchTotal() {
+        List<CardDto.CardBatchCommand> commands = List.of(
+                create(board.getId(), "a", null, "IN_PROGRESS"),
+                create(board.getId(), "b", null, "IN_PROGRESS"),
+                create(board.getId(), "c", null, "IN_PROGRESS"));
+
+        assertThrows(RuntimeException.class, () -> cardService.batch(new CardDto.CardBatchRequest(commands), user));
+        assertTrue(cardRepo.findByBoard(board).isEmpty());
+
+        assertTrue(cardService.batch(new CardDto.CardBatchRequest(commands.subList(0, 2)), user).applied());
+        assertEquals(2, cardRepo.findByBoard(board).size());
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test: nhiều thread cùng kéo card vào IN_PROGRESS của một board,
+ * WIP limit vẫn phải được giữ đúng.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CardServiceWipLimitTest {
+
+    private static final int WIP_LIMIT = 3;
+    private static final int THREADS = 16;
+    private static final int CARDS = 40;
+
+    @Autowired CardService cardService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired BoardSummaryRepository boardSummaryRepo;
+
+    @Test
+    void concurrentMovesNeverExceedWipLimit() throws Exception {
+        User user = userRepo.save(User.builder().username("wip-user").passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        Board board = boardRepo.save(Board.builder().name("board").workspace(ws).wipLimit(WIP_LIMIT).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+
+        List<Long> cardIds = new ArrayList<>();
+        for (int i = 0; i < CARDS; i++) {
+            cardIds.add(cardService.create(new BoardDto.CardCreateRequest(
+                    board.getId(), "Card " + i, null, null, null, null, "TODO", 1.0, null), user).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long cardId : cardIds) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    cardService.move(new BoardDto.MoveCardRequest(cardId, "IN_PROGRESS", 0), user);
+                    admitted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(WIP_LIMIT, admitted.get());
+        assertEquals(CARDS - WIP_LIMIT, rejected.get());
+        assertEquals(WIP_LIMIT, cardRepo.countByBoardIdAndStatus(board.getId(), Status.IN_PROGRESS));
+
+        BoardSummary summary = boardSummaryRepo.findById(board.getId()).orElseThrow();
+        assertEquals(WIP_LIMIT, summary.getInProgressCount());
+        assertEquals(CARDS - WIP_LIMIT, summary.getTodoCount());
+        assertEquals(CARDS, summary.totalPoints());
+    }
+}
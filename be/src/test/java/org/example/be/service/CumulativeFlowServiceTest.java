@@ -0,0 +1,99 @@
+package org.example.be.service;
+
+import org.example.be.auth.dto.BurndownDto.CfdPoint;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(CumulativeFlowService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CumulativeFlowServiceTest {
+
+    @Autowired CumulativeFlowService cumulativeFlowService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired CardHistoryRepository cardHistoryRepo;
+
+    User user;
+    Board board;
+    LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDate.now().minusDays(10).atTime(10, 0);
+        user = userRepo.save(User.builder().username("cfd-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).createdAt(base).build());
+    }
+
+    private Card card(String title, Status status, LocalDateTime createdAt) {
+        return cardRepo.save(Card.builder().board(board).title(title).status(status).position(0)
+                .createdAt(createdAt).build());
+    }
+
+    private void transition(Card card, Status from, Status to, LocalDateTime at) {
+        cardHistoryRepo.save(CardHistory.builder().card(card).actor(user)
+                .fromStatus(from).toStatus(to).changeDate(at).build());
+    }
+
+    private static void assertDay(CfdPoint point, int todo, int inProgress, int done) {
+        assertEquals(List.of(todo, inProgress, done),
+                List.of(point.todo(), point.inProgress(), point.done()), point.date().toString());
+    }
+
+    @Test
+    void countsEachStatusAtEndOfEveryDay() {
+        Card a = card("a", Status.DONE, base);
+        transition(a, Status.TODO, Status.IN_PROGRESS, base.plusDays(2));
+        transition(a, Status.IN_PROGRESS, Status.DONE, base.plusDays(5));
+        // Chuyển ngay trong ngày tạo: cuối ngày đã là IN_PROGRESS
+        Card b = card("b", Status.IN_PROGRESS, base.plusDays(3));
+        transition(b, Status.TODO, Status.IN_PROGRESS, base.plusDays(3).plusHours(1));
+        card("c", Status.TODO, base.plusDays(1));
+        // Tạo sau khoảng ngày: không tính
+        Card d = card("d", Status.DONE, base.plusDays(8));
+        transition(d, Status.TODO, Status.DONE, base.plusDays(9));
+
+        List<CfdPoint> cfd = cumulativeFlowService.cfd(board.getId(),
+                base.toLocalDate().plusDays(1), base.toLocalDate().plusDays(6));
+
+        assertEquals(6, cfd.size());
+        assertEquals(base.toLocalDate().plusDays(1), cfd.get(0).date());
+        assertDay(cfd.get(0), 2, 0, 0);
+        assertDay(cfd.get(1), 1, 1, 0);
+        assertDay(cfd.get(2), 1, 2, 0);
+        assertDay(cfd.get(3), 1, 2, 0);
+        assertDay(cfd.get(4), 1, 1, 1);
+        assertDay(cfd.get(5), 1, 1, 1);
+
+        // Mặc định: từ ngày tạo board tới hôm nay, ngày cuối = status hiện tại
+        List<CfdPoint> all = cumulativeFlowService.cfd(board.getId(), null, null);
+        assertEquals(11, all.size());
+        assertDay(all.get(0), 1, 0, 0);
+        assertDay(all.get(10), 1, 1, 2);
+    }
+
+    @Test
+    void rejectsInvalidRange() {
+        LocalDate today = LocalDate.now();
+        assertThrows(RuntimeException.class,
+                () -> cumulativeFlowService.cfd(board.getId(), today, today.minusDays(1)));
+        assertThrows(RuntimeException.class,
+                () -> cumulativeFlowService.cfd(board.getId(), today.minusDays(CumulativeFlowService.MAX_DAYS), today));
+    }
+}
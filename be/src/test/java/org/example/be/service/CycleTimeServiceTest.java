@@ -0,0 +1,155 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CycleTimeServiceTest {
+
+    @Autowired CardService cardService;
+    @Autowired CycleTimeService cycleTimeService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired CardHistoryRepository cardHistoryRepo;
+    @Autowired CycleTimeHistogramRepository histogramRepo;
+
+    User user;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("cycle-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+    }
+
+    private void move(Long cardId, String status) {
+        cardService.move(new BoardDto.MoveCardRequest(cardId, status, 0), user);
+    }
+
+    @Test
+    void existingHistoryIsBucketedOnceAndPercentilesIgnoreOutliers() {
+        // 19 card xong sau 2 ngày (bắt đầu làm sau 1 ngày), 1 card xong sau 200 ngày
+        LocalDateTime base = LocalDateTime.now().minusDays(300);
+        List<CardHistory> history = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            long days = i == 0 ? 200 : 2;
+            Card card = cardRepo.save(Card.builder().board(board).title("c" + i).status(Status.DONE)
+                    .position(i).createdAt(base).build());
+            history.add(CardHistory.builder().card(card).actor(user).fromStatus(Status.TODO)
+                    .toStatus(Status.IN_PROGRESS).changeDate(base.plusDays(1)).build());
+            history.add(CardHistory.builder().card(card).actor(user).fromStatus(Status.IN_PROGRESS)
+                    .toStatus(Status.DONE).changeDate(base.plusDays(days)).build());
+        }
+        cardHistoryRepo.saveAll(history);
+
+        CardDto.CycleTimeStats stats = cycleTimeService.stats(board.getId());
+        // GET không ghi: board chưa backfill được tính thẳng từ timeline
+        assertFalse(histogramRepo.existsById(board.getId()));
+
+        assertTrue(cycleTimeService.backfillMissing(10) >= 1);
+        assertTrue(histogramRepo.existsById(board.getId()));
+        assertEquals(stats.cycleTime().samples(), cycleTimeService.stats(board.getId()).cycleTime().samples());
+
+        assertEquals(20, stats.leadTime().samples());
+        assertEquals(20, stats.cycleTime().samples());
+        // Cận trên bucket chứa 2 ngày (sai số <= 19%), outlier 200 ngày chỉ nằm ở đuôi
+        assertTrue(stats.leadTime().p50Days() >= 2 && stats.leadTime().p50Days() < 2.4);
+        assertEquals(stats.leadTime().p50Days(), stats.leadTime().p85Days());
+        assertTrue(stats.cycleTime().p95Days() < 1.2);
+        assertEquals(LogHistogram.BUCKETS, stats.leadTime().counts().length);
+    }
+
+    @Test
+    void onlyFirstTransitionToDoneIsRecorded() {
+        Card card = cardService.create(new BoardDto.CardCreateRequest(board.getId(), "a", null, null,
+                null, null, "TODO", 1.0, null), user);
+        Card direct = cardService.create(new BoardDto.CardCreateRequest(board.getId(), "b", null, null,
+                null, null, "TODO", 1.0, null), user);
+        assertEquals(0, cycleTimeService.stats(board.getId()).leadTime().samples());
+
+        move(card.getId(), "IN_PROGRESS");
+        move(card.getId(), "DONE");
+        move(card.getId(), "TODO");
+        move(card.getId(), "DONE");
+        // Không qua IN_PROGRESS: chỉ có lead time
+        move(direct.getId(), "DONE");
+
+        CardDto.CycleTimeStats stats = cycleTimeService.stats(board.getId());
+        assertEquals(2, stats.leadTime().samples());
+        assertEquals(1, stats.cycleTime().samples());
+        assertEquals(LogHistogram.upperHours(0) / 24, stats.leadTime().p95Days());
+    }
+
+    @Test
+    void cardCreatedInProgressCountsTowardsCycleTime() {
+        cycleTimeService.initialize(board.getId());
+        Card card = cardService.create(new BoardDto.CardCreateRequest(board.getId(), "a", null, null,
+                null, null, "IN_PROGRESS", 1.0, null), user);
+
+        move(card.getId(), "DONE");
+
+        CardDto.CycleTimeStats stats = cycleTimeService.stats(board.getId());
+        assertEquals(1, stats.leadTime().samples());
+        assertEquals(1, stats.cycleTime().samples());
+    }
+
+    @Test
+    void agingSortsInProgressCardsAndBandsAgainstCycleTime() {
+        // 10 card có cycle time 1 ngày làm mốc phân vị
+        LocalDateTime base = LocalDateTime.now().minusDays(60);
+        for (int i = 0; i < 10; i++) {
+            Card done = cardRepo.save(Card.builder().board(board).title("d" + i).status(Status.DONE)
+                    .position(i).createdAt(base).build());
+            cardHistoryRepo.save(CardHistory.builder().card(done).actor(user).fromStatus(Status.TODO)
+                    .toStatus(Status.IN_PROGRESS).changeDate(base.plusDays(1)).build());
+            cardHistoryRepo.save(CardHistory.builder().card(done).actor(user).fromStatus(Status.IN_PROGRESS)
+                    .toStatus(Status.DONE).changeDate(base.plusDays(2)).build());
+        }
+        Card old = cardRepo.save(Card.builder().board(board).title("old").status(Status.IN_PROGRESS).position(0)
+                .createdAt(LocalDateTime.now().minusDays(10)).build());
+        Card fresh = cardService.create(new BoardDto.CardCreateRequest(board.getId(), "fresh", null, null,
+                null, null, "TODO", 1.0, null), user);
+        move(fresh.getId(), "IN_PROGRESS");
+        move(fresh.getId(), "TODO");
+        move(fresh.getId(), "IN_PROGRESS");
+
+        Card reloaded = cardRepo.findById(fresh.getId()).orElseThrow();
+        assertNotNull(reloaded.getFirstStartedAt());
+        assertFalse(reloaded.getStatusEnteredAt().isBefore(reloaded.getFirstStartedAt()));
+
+        CardDto.AgingReport report = cycleTimeService.aging(board.getId(), Status.IN_PROGRESS);
+
+        assertEquals(List.of(old.getId(), fresh.getId()),
+                report.cards().stream().map(CardDto.AgingCard::id).toList());
+        CardDto.AgingCard oldest = report.cards().get(0);
+        assertEquals(10, oldest.daysInStatus());
+        assertEquals(10, oldest.wipAgeDays());
+        assertEquals("ABOVE_P95", oldest.band());
+        assertEquals(0, report.cards().get(1).wipAgeDays());
+        assertEquals("WITHIN_P50", report.cards().get(1).band());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.auth.dto.CardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({CardService.class, PermissionService.class, CardRankService.class, BoardSummaryService.class, BoardVersionService.class, BoardChangeService.class,
+        DailySnapshotService.class, CycleTimeService.class, BoardTimelineService.class, BurndownService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DailySnapshotServiceTest {
+
+    @Autowired CardService cardService;
+    @Autowired BurndownService burndownService;
+    @Autowired BoardTimelineService boardTimelineService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired DailySnapshotRepository snapshotRepo;
+    @Autowired CardHistoryRepository cardHistoryRepo;
+
+    User user;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(User.builder().username("snap-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(user).role(Role.ADMIN).build());
+    }
+
+    private Card create(String title, Double estimate) {
+        return cardService.create(new BoardDto.CardCreateRequest(board.getId(), title, null, null,
+                null, null, "TODO", estimate, null), user);
+    }
+
+    private void move(Card card, String status) {
+        cardService.move(new BoardDto.MoveCardRequest(card.getId(), status, 0), user);
+    }
+
+    private DailySnapshot today() {
+        return snapshotRepo.findByBoardAndSnapshotDate(board, LocalDate.now()).orElseThrow();
+    }
+
+    @Test
+    void cardEventsKeepTodaysSnapshotEqualToFullRecompute() {
+        Card a = create("a", 2.0);
+        Card b = create("b", null);
+        Card c = create("c", 5.0);
+        Card d = create("d", 3.0);
+        assertEquals(11.0, today().getRemainingPoints());
+
+        move(a, "IN_PROGRESS");
+        move(a, "DONE");
+        // Kéo ra khỏi rồi vào lại DONE: vẫn chỉ tính một lần
+        move(a, "TODO");
+        move(a, "DONE");
+        // Card giữ lần vào DONE đầu tiên, khớp với history
+        Card reloaded = cardRepo.findById(a.getId()).orElseThrow();
+        assertEquals(new CardDto.FirstDone(a.getId(), reloaded.getFirstDoneAt()),
+                cardHistoryRepo.findFirstDoneByBoardId(board.getId()).get(0));
+        assertFalse(reloaded.getFirstDoneAt().isAfter(reloaded.getStatusEnteredAt()));
+        move(c, "DONE");
+        cardService.update(new CardDto.CardUpdateRequest(c.getId(), "c", null, null, null, null,
+                "DONE", 8.0, null), user);
+        cardService.update(new CardDto.CardUpdateRequest(b.getId(), "b", null, null, null, null,
+                "TODO", 4.0, null), user);
+        cardService.delete(d.getId(), user);
+        cardService.batch(new CardDto.CardBatchRequest(List.of(
+                new CardDto.CardBatchCommand("CREATE", new BoardDto.CardCreateRequest(board.getId(), "e", null, null,
+                        null, null, "TODO", 1.5, null), null, null),
+                new CardDto.CardBatchCommand("MOVE", null, null, new BoardDto.MoveCardRequest(b.getId(), "DONE", 0))
+        )), user);
+
+        DailySnapshot incremental = today();
+        DailySnapshot recomputed = SnapshotSweep.build(board, boardTimelineService.load(board.getId()),
+                LocalDate.now(), LocalDate.now()).get(0);
+
+        assertEquals(recomputed.getRemainingPoints(), incremental.getRemainingPoints(), 1e-9);
+        assertEquals(recomputed.getCompletedPoints(), incremental.getCompletedPoints(), 1e-9);
+        assertEquals(recomputed.getCompletedPointsDaily(), incremental.getCompletedPointsDaily(), 1e-9);
+        assertEquals(recomputed.getRemainingTasks(), incremental.getRemainingTasks());
+        assertEquals(recomputed.getCompletedTasks(), incremental.getCompletedTasks());
+        assertEquals(14.0, incremental.getCompletedPoints(), 1e-9);
+        assertEquals(1.5, incremental.getRemainingPoints(), 1e-9);
+    }
+
+    @Test
+    void burndownReadDoesNotWriteSnapshots() {
+        cardRepo.save(Card.builder().board(board).title("x").status(Status.TODO).position(0).estimateHours(2.0).build());
+
+        var burndown = burndownService.getBurndownData(board.getId());
+
+        assertTrue(snapshotRepo.findByBoardOrderBySnapshotDateAsc(board).isEmpty());
+        assertEquals(2.0, burndown.totalPoints());
+        assertTrue(burndown.burndownData().isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "snapshots.nightly.pageSize=10",
+        "snapshots.nightly.concurrency=4"})
+@Import({NightlySnapshotJob.class, DailySnapshotService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NightlySnapshotJobTest {
+
+    static final int BOARDS = 25;
+
+    @Autowired NightlySnapshotJob job;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired CardRepository cardRepo;
+    @Autowired DailySnapshotRepository snapshotRepo;
+    @Autowired JobCheckpointRepository checkpointRepo;
+
+    final LocalDate day = LocalDate.now();
+    List<Board> boards;
+
+    @BeforeEach
+    void setUp() {
+        checkpointRepo.deleteAll();
+        snapshotRepo.deleteAll();
+        User user = userRepo.save(User.builder().username("nightly-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+        boards = new ArrayList<>();
+        for (int i = 0; i < BOARDS; i++) {
+            Board board = boardRepo.save(Board.builder().name("b" + i).workspace(ws).build());
+            cardRepo.save(Card.builder().board(board).title("c").status(Status.TODO).position(0).estimateHours(3.0).build());
+            boards.add(board);
+        }
+    }
+
+    private long snapshotsOf(List<Board> boards) {
+        return boards.stream().filter(b -> snapshotRepo.findByBoardAndSnapshotDate(b, day).isPresent()).count();
+    }
+
+    @Test
+    void fullRunSnapshotsEveryBoardAndFinishesCheckpoint() {
+        List<Long> versions = boards.stream().map(b -> boardRepo.findVersionById(b.getId()).orElseThrow()).toList();
+
+        JobCheckpoint done = job.run(day);
+
+        assertNotNull(done.getFinishedAt());
+        assertEquals(day, done.getRunDate());
+        assertEquals(0, done.getFailed());
+        assertEquals(BOARDS, snapshotsOf(boards));
+        DailySnapshot snapshot = snapshotRepo.findByBoardAndSnapshotDate(boards.get(0), day).orElseThrow();
+        assertEquals(3.0, snapshot.getRemainingPoints());
+        // Job chỉ khóa dòng board, không làm ETag / cache của board mất hiệu lực
+        assertEquals(versions, boards.stream().map(b -> boardRepo.findVersionById(b.getId()).orElseThrow()).toList());
+
+        // Chạy lại cùng ngày không tạo trùng
+        job.run(day);
+        assertEquals(BOARDS, snapshotsOf(boards));
+    }
+
+    @Test
+    void unfinishedRunResumesAfterCheckpoint() {
+        // Lần chạy trước dừng sau board thứ 10
+        Board lastDone = boards.get(9);
+        checkpointRepo.save(JobCheckpoint.builder().name(NightlySnapshotJob.JOB_NAME).runDate(day)
+                .lastBoardId(lastDone.getId()).processed(10L).failed(0L)
+                .startedAt(LocalDateTime.now().minusHours(1)).build());
+
+        JobCheckpoint done = job.run(day);
+
+        assertNotNull(done.getFinishedAt());
+        assertEquals(0, snapshotsOf(boards.subList(0, 10)));
+        assertEquals(BOARDS - 10, snapshotsOf(boards.subList(10, BOARDS)));
+        assertTrue(done.getProcessed() >= BOARDS);
+    }
+}
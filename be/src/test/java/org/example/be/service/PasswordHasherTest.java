@@ -0,0 +1,77 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    final CountDownLatch release = new CountDownLatch(1);
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    PasswordHasher hasher;
+
+    // Encoder chặn tới khi test mở latch
+    final PasswordEncoder blocking = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence raw) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + raw;
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            return encode(raw).equals(encoded);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hasher.shutdown();
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    @Test
+    void timesOutWithoutBlockingCaller() {
+        hasher = new PasswordHasher(blocking, registry, 1, 4, 100, 2);
+
+        long start = System.nanoTime();
+        CompletableFuture<String> future = hasher.encode("pw");
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "caller must not wait");
+        assertFalse(future.isDone());
+
+        assertInstanceOf(PasswordHasher.BusyException.class, failure(future));
+        assertEquals(1.0, registry.get("auth.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() {
+        hasher = new PasswordHasher(blocking, registry, 1, 1, 5000, 2);
+        CompletableFuture<String> running = hasher.encode("a");
+        CompletableFuture<String> queued = hasher.encode("b");
+
+        CompletableFuture<String> rejected = hasher.encode("c");
+        assertTrue(rejected.isCompletedExceptionally());
+        assertInstanceOf(PasswordHasher.BusyException.class, failure(rejected));
+
+        release.countDown();
+        assertEquals("hash:a", running.join());
+        assertEquals("hash:b", queued.join());
+    }
+}
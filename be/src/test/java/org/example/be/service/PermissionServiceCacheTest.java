@@ -0,0 +1,110 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.be.auth.dto.BoardDto;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({BoardService.class, PermissionService.class, BoardPurgeService.class, BoardSummaryService.class,
+        BoardVersionService.class, CycleTimeService.class, BoardTimelineService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PermissionServiceCacheTest {
+
+    static final int THREADS = 8;
+    static final int CHECKS_PER_THREAD = 500;
+
+    @Autowired PermissionService permissionService;
+    @Autowired BoardService boardService;
+    @Autowired MeterRegistry registry;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardMemberRepository boardMemberRepo;
+    @Autowired EntityManagerFactory emf;
+
+    User admin;
+    User member;
+    Board board;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepo.save(User.builder().username("perm-a-" + System.nanoTime()).passwordHash("x").build());
+        member = userRepo.save(User.builder().username("perm-m-" + System.nanoTime()).passwordHash("x").build());
+        Workspace ws = workspaceRepo.save(Workspace.builder().name("ws").owner(admin).build());
+        board = boardRepo.save(Board.builder().name("board").workspace(ws).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(admin).role(Role.ADMIN).build());
+        boardMemberRepo.save(BoardMember.builder().board(board).user(member).role(Role.VIEWER).build());
+    }
+
+    private double count(String result) {
+        return registry.get("permissions.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void repeatedChecksHitCacheInsteadOfDatabase() throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        double hitsBefore = count("hit");
+        double missesBefore = count("miss");
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < CHECKS_PER_THREAD; i++) {
+                        assertTrue(permissionService.hasPermission(member, board, Permission.CARD_VIEW));
+                        assertFalse(permissionService.hasPermission(member, board, Permission.CARD_EDIT));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        }
+
+        long queries = stats.getQueryExecutionCount();
+        double hits = count("hit") - hitsBefore;
+        double misses = count("miss") - missesBefore;
+        // Chỉ các lần miss đầu tiên (tối đa một lần mỗi thread) mới chạm DB
+        assertTrue(queries <= THREADS, "ran " + queries + " queries");
+        assertTrue(misses >= 1 && misses <= THREADS, misses + " misses");
+        assertEquals(THREADS * CHECKS_PER_THREAD * 2, hits + misses);
+    }
+
+    @Test
+    void membershipChangesInvalidateCachedRole() {
+        User outsider = userRepo.save(User.builder().username("perm-o-" + System.nanoTime()).passwordHash("x").build());
+        assertFalse(permissionService.hasPermission(outsider, board, Permission.CARD_VIEW));
+        assertFalse(permissionService.hasPermission(member, board, Permission.CARD_EDIT));
+
+        boardService.invite(new BoardDto.InviteRequest(outsider.getId(), board.getId(), "VIEWER"), admin);
+        assertTrue(permissionService.hasPermission(outsider, board, Permission.CARD_VIEW));
+
+        boardService.changeRole(new BoardDto.ChangeRoleRequest(member.getId(), board.getId(), "MEMBER"), admin);
+        assertTrue(permissionService.hasPermission(member, board, Permission.CARD_EDIT));
+
+        boardService.removeMember(new BoardDto.RemoveMemberRequest(member.getId(), board.getId()), admin);
+        assertFalse(permissionService.hasPermission(member, board, Permission.CARD_VIEW));
+        assertNull(permissionService.roleOf(member, board));
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.be.service;
+
+import org.example.be.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotSweepTest {
+
+    final LocalDate day0 = LocalDate.of(2025, 3, 1);
+    final Board board = Board.builder().id(1L).name("b").createdAt(day0.atStartOfDay()).build();
+
+    // firstDoneDay = ngày lần đầu vào DONE (null nếu chưa từng), status là status hiện tại
+    record Row(long id, int createdDay, Double estimate, Status status, Integer firstDoneDay) {}
+
+    private BoardTimeline timeline(Row... rows) {
+        BoardTimeline timeline = new BoardTimeline();
+        for (Row row : rows) {
+            LocalDateTime firstDone = row.firstDoneDay() != null ? day0.plusDays(row.firstDoneDay()).atTime(15, 0) : null;
+            timeline.add(row.id(), BoardTimeline.epochSecond(day0.plusDays(row.createdDay()).atTime(9, 0)),
+                    row.estimate() != null ? row.estimate() : Double.NaN, Double.NaN, row.status(),
+                    BoardTimeline.NONE, BoardTimeline.epochSecond(firstDone));
+        }
+        return timeline;
+    }
+
+    @Test
+    void sweepsRunningTotalsDayByDay() {
+        var a = new Row(1, 0, 2.0, Status.DONE, 2);             // DONE ngày 2
+        var b = new Row(2, 1, null, Status.IN_PROGRESS, 1);     // 1 point, DONE ngày 1 rồi bị kéo lại -> vẫn tính là xong
+        var c = new Row(3, 3, 3.0, Status.TODO, null);          // chưa xong
+
+        List<DailySnapshot> rows = SnapshotSweep.build(board, timeline(a, b, c), day0, day0.plusDays(4));
+
+        assertEquals(5, rows.size());
+        double[] remaining = {2, 2, 0, 3, 3};
+        double[] completed = {0, 1, 3, 3, 3};
+        double[] daily = {0, 1, 2, 0, 0};
+        int[] remainingTasks = {1, 1, 0, 1, 1};
+        int[] completedTasks = {0, 1, 2, 2, 2};
+        for (int i = 0; i < rows.size(); i++) {
+            DailySnapshot row = rows.get(i);
+            assertEquals(day0.plusDays(i), row.getSnapshotDate());
+            assertEquals(remaining[i], row.getRemainingPoints(), 1e-9, "remaining day " + i);
+            assertEquals(completed[i], row.getCompletedPoints(), 1e-9, "completed day " + i);
+            assertEquals(daily[i], row.getCompletedPointsDaily(), 1e-9, "daily day " + i);
+            assertEquals(remainingTasks[i], row.getRemainingTasks(), "remaining tasks day " + i);
+            assertEquals(completedTasks[i], row.getCompletedTasks(), "completed tasks day " + i);
+        }
+    }
+
+    @Test
+    void rangeStartingLaterCarriesEarlierTotals() {
+        var a = new Row(1, 0, 2.0, Status.DONE, 1);
+        var b = new Row(2, 1, 4.0, Status.TODO, null);
+
+        List<DailySnapshot> full = SnapshotSweep.build(board, timeline(a, b), day0, day0.plusDays(3));
+        List<DailySnapshot> tail = SnapshotSweep.build(board, timeline(a, b), day0.plusDays(2), day0.plusDays(3));
+
+        assertEquals(2, tail.size());
+        for (int i = 0; i < tail.size(); i++) {
+            assertEquals(full.get(i + 2).getRemainingPoints(), tail.get(i).getRemainingPoints());
+            assertEquals(full.get(i + 2).getCompletedTasks(), tail.get(i).getCompletedTasks());
+            assertEquals(0.0, tail.get(i).getCompletedPointsDaily());
+        }
+        assertTrue(SnapshotSweep.build(board, timeline(a), day0.plusDays(1), day0).isEmpty());
+    }
+}
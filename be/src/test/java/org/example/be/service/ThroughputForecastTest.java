@@ -0,0 +1,33 @@
+package org.example.be.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThroughputForecastTest {
+
+    @Test
+    void constantThroughputFinishesOnTheSameDayInEveryTrial() {
+        Integer[] days = ThroughputForecast.percentileDays(new double[]{5, 5, 5}, 50, 10_000, 1L);
+        assertArrayEquals(new Integer[]{10, 10, 10}, days);
+
+        assertNull(ThroughputForecast.percentileDays(new double[]{0, 0}, 50, 10_000, 1L));
+        assertArrayEquals(new Integer[]{0, 0, 0}, ThroughputForecast.percentileDays(new double[]{0}, 0, 10_000, 1L));
+    }
+
+    @Test
+    void percentilesAreOrderedAndReproducibleForASeed() {
+        SplittableRandom rnd = new SplittableRandom(3);
+        double[] samples = new double[90];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = rnd.nextInt(4) == 0 ? 0 : rnd.nextInt(10);
+        }
+
+        Integer[] days = ThroughputForecast.percentileDays(samples, 300, 20_000, 42L);
+
+        assertTrue(days[0] <= days[1] && days[1] <= days[2]);
+        assertArrayEquals(days, ThroughputForecast.percentileDays(samples, 300, 20_000, 42L));
+    }
+}
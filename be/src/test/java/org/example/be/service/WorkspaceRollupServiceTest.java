@@ -0,0 +1,95 @@
+package org.example.be.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.be.auth.dto.WorkspaceDtos.BoardRollup;
+import org.example.be.auth.dto.WorkspaceDtos.WorkspaceRollup;
+import org.example.be.entity.*;
+import org.example.be.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({WorkspaceRollupService.class, WorkspaceService.class, BoardPurgeService.class, PermissionService.class,
+        BoardSummaryService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WorkspaceRollupServiceTest {
+
+    @Autowired WorkspaceRollupService rollupService;
+    @Autowired UserRepository userRepo;
+    @Autowired WorkspaceRepository workspaceRepo;
+    @Autowired BoardRepository boardRepo;
+    @Autowired BoardSummaryRepository boardSummaryRepo;
+    @Autowired DailySnapshotRepository snapshotRepo;
+
+    User user;
+    Workspace ws;
+    LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+        user = userRepo.save(User.builder().username("rollup-" + System.nanoTime()).passwordHash("x").build());
+        ws = workspaceRepo.save(Workspace.builder().name("ws").owner(user).build());
+    }
+
+    private void snapshot(Board board, LocalDate date, double completedPointsDaily) {
+        snapshotRepo.save(DailySnapshot.builder().board(board).snapshotDate(date)
+                .remainingPoints(0.0).completedPoints(0.0).completedPointsDaily(completedPointsDaily)
+                .remainingTasks(0).completedTasks(0).build());
+    }
+
+    @Test
+    void mergesBoardsWithBurndownRules() {
+        Board delayed = boardRepo.save(Board.builder().name("delayed").workspace(ws).endDate(today.plusDays(10)).build());
+        boardSummaryRepo.save(BoardSummary.builder().boardId(delayed.getId())
+                .todoCount(3).inProgressCount(0).doneCount(2)
+                .todoPoints(6.0).inProgressPoints(0.0).donePoints(4.0).build());
+        LocalDate weekStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        // Hai tuần đã qua: 2 + 4 points -> velocity 3; tuần hiện tại không tính
+        snapshot(delayed, weekStart.minusDays(14), 2);
+        snapshot(delayed, weekStart.minusDays(7), 4);
+        snapshot(delayed, today, 10);
+        // Board chưa có summary / snapshot: summary được tạo rỗng, xong ngay hôm nay
+        Board empty = boardRepo.save(Board.builder().name("empty").workspace(ws).build());
+
+        WorkspaceRollup rollup = rollupService.rollup(ws.getId(), user);
+
+        assertEquals(2, rollup.boards().size());
+        BoardRollup first = rollup.boards().get(0);
+        assertEquals(delayed.getId(), first.boardId());
+        assertEquals(6.0, first.remainingPoints());
+        assertEquals(3.0, first.averageVelocity());
+        assertEquals(today.plusDays(14), first.estimatedEndDate());
+        assertEquals(-4, first.daysAheadOrBehind());
+        assertEquals("DELAYED", first.projectHealth());
+        assertEquals(empty.getId(), rollup.boards().get(1).boardId());
+        assertEquals("ON_TRACK", rollup.boards().get(1).projectHealth());
+        assertTrue(boardSummaryRepo.existsById(empty.getId()));
+
+        assertEquals(10.0, rollup.totalPoints());
+        assertEquals(4.0, rollup.completedPoints());
+        assertEquals(6.0, rollup.remainingPoints());
+        assertEquals(3.0, rollup.averageVelocity());
+        assertEquals(today.plusDays(14), rollup.projectedEndDate());
+        assertEquals("DELAYED", rollup.projectHealth());
+        assertEquals(Map.of("ON_TRACK", 1, "AT_RISK", 0, "DELAYED", 1), rollup.healthCounts());
+    }
+
+    @Test
+    void rejectsOtherUsersWorkspace() {
+        User other = userRepo.save(User.builder().username("rollup-other-" + System.nanoTime()).passwordHash("x").build());
+        assertThrows(RuntimeException.class, () -> rollupService.rollup(ws.getId(), other));
+    }
+}
@@ -10,23 +10,29 @@ import {
     Bar,
     ReferenceLine
 } from "recharts";
-import {Card as CardType, CardHistory} from "../../types";
+import {Card as CardType, CycleTimeStats, FirstDone} from "../../types";
 import {palette} from "../../theme/colors";
 import {labels} from "../../utils/labels";
 
 interface Props {
     cards: CardType[];
-    histories: CardHistory[];
+    firstDone: FirstDone[];
     avgCycle: number;
+    stats?: CycleTimeStats | null;
 }
 
-const CycleTimePanel: React.FC<Props> = ({cards, histories, avgCycle}) => {
+// Phân vị là cận trên của bucket nên làm tròn lên
+const formatDays = (days: number | null) =>
+    days == null ? "—" : days < 1 ? `${Math.ceil(days * 24)} giờ` : `${Math.ceil(days)} ngày`;
+
+const CycleTimePanel: React.FC<Props> = ({cards, firstDone, avgCycle, stats}) => {
+    const doneAt = new Map(firstDone.map((f) => [f.cardId, f.changeDate]));
     const data = cards
         .filter((c) => c.status === "DONE")
         .map((c) => {
-            const h = histories.filter((x) => x.card.id === c.id && x.toStatus === "DONE").sort((a, b) => new Date(a.changeDate).getTime() - new Date(b.changeDate).getTime())[0];
-            if (!h || !c.createdAt) return null;
-            const days = (new Date(h.changeDate).getTime() - new Date(c.createdAt).getTime()) / 86400000;
+            const done = doneAt.get(c.id);
+            if (!done || !c.createdAt) return null;
+            const days = (new Date(done).getTime() - new Date(c.createdAt).getTime()) / 86400000;
             return {name: c.title.slice(0, 15), days: Number(days.toFixed(1))};
         })
         .filter(Boolean) as { name: string; days: number }[];
@@ -47,6 +53,13 @@ const CycleTimePanel: React.FC<Props> = ({cards, histories, avgCycle}) => {
             <Typography variant="body2" color="text.secondary" mb={2}>
                 Mỗi cột là một công việc đã hoàn thành. Cột cao hơn nghĩa là mất nhiều ngày hơn.
             </Typography>
+            {stats?.leadTime.samples ? (
+                <Typography variant="body2" color="text.secondary" mb={2}>
+                    50% việc xong trong {formatDays(stats.leadTime.p50Days)}, 85% trong {formatDays(stats.leadTime.p85Days)},
+                    {" "}95% trong {formatDays(stats.leadTime.p95Days)}
+                    {stats.cycleTime.samples ? ` (từ lúc bắt đầu làm: 85% trong ${formatDays(stats.cycleTime.p85Days)})` : ""}
+                </Typography>
+            ) : null}
             <Box flexGrow={1} minHeight={0}>
                 {data.length ? (
                     <ResponsiveContainer width="100%" height="100%">
@@ -5,7 +5,7 @@ import SpeedIcon from "@mui/icons-material/Speed";
 import EventIcon from "@mui/icons-material/Event";
 import CheckCircleIcon from "@mui/icons-material/CheckCircle";
 import WarningIcon from "@mui/icons-material/Warning";
-import { Board, BurndownPoint, WeeklyVelocity } from "../../types";
+import { Board, BurndownPoint, CycleTimeStats, FirstDone, WeeklyVelocity } from "../../types";
 import { getProjectDeadlineStatus, getTaskProgressStatus } from "../../utils/statusHelpers";
 import StatCard from "./StatCard";
 import BurndownChartPanel from "./BurndownChartPanel";
@@ -19,7 +19,7 @@ import { copy } from "./ForecastCopy";
 interface Props {
     board: Board | null;
     cards: any[];
-    histories: any[];
+    firstDone: FirstDone[];
     metrics: { avgCycle: number; doneCount: number; total: number };
     burndownData: BurndownPoint[];
     velocityMonths: { label: string; weeks: WeeklyVelocity[]; sortKey: number }[];
@@ -27,6 +27,7 @@ interface Props {
     burndownLoading: boolean;
     burndownError: string | null;
     forecast: any;
+    cycleTime?: CycleTimeStats | null;
     estimatedEndDate?: string | null;
     projectHealth?: string | null;
     remainingPoints?: number;
@@ -34,8 +35,8 @@ interface Props {
 }
 
 const ForecastTab: React.FC<Props> = ({
-                                          board, cards, histories, metrics, burndownData, velocityMonths, averageVelocity,
-                                          burndownLoading, burndownError, forecast, estimatedEndDate, projectHealth,
+                                          board, cards, firstDone, metrics, burndownData, velocityMonths, averageVelocity,
+                                          burndownLoading, burndownError, forecast, cycleTime, estimatedEndDate, projectHealth,
                                           remainingPoints, daysAheadOrBehind,
                                       }) => {
     const [velocityMonthIndex, setVelocityMonthIndex] = useState(0);
@@ -62,6 +63,9 @@ const ForecastTab: React.FC<Props> = ({
         })
         : "Chưa đủ dữ liệu";
 
+    const shortDate = (d?: string | null) =>
+        d ? new Date(d).toLocaleDateString("vi-VN", { day: "numeric", month: "numeric", year: "numeric" }) : "—";
+
     const healthLabel =
         projectHealth === "DELAYED"
             ? "Cần chú ý gấp!"
@@ -98,6 +102,12 @@ const ForecastTab: React.FC<Props> = ({
                         <Typography variant="h6" color={palette.primary.main} fontWeight={700}>
                             {healthLabel}: {finishDateStr}
                         </Typography>
+                        {forecast?.p85EndDate && (
+                            <Typography variant="body2" color="text.secondary" mt={0.5}>
+                                Mô phỏng theo tốc độ thực tế: 50% khả năng xong trước {shortDate(forecast.p50EndDate)},
+                                {" "}85% trước {shortDate(forecast.p85EndDate)}, 95% trước {shortDate(forecast.p95EndDate)}
+                            </Typography>
+                        )}
                     </Box>
                 </Stack>
             </Card>
@@ -212,7 +222,7 @@ const ForecastTab: React.FC<Props> = ({
 
                     <Grid item xs={12} md={6}>
                         <Box position="relative" height={450}>
-                            <CycleTimePanel cards={cards} histories={histories} avgCycle={metrics.avgCycle} />
+                            <CycleTimePanel cards={cards} firstDone={firstDone} avgCycle={metrics.avgCycle} stats={cycleTime} />
                             <Box position="absolute" top={16} right={16}>
                                 <HelpTooltip placement="left" title={copy.cycleHelp} />
                             </Box>
@@ -3,8 +3,19 @@ import { Box, Stack, Typography } from "@mui/material";
 import { CardHistory } from "../../types";
 import { formatToUtc7 } from "../../utils/date";
 
-const HistoryList: React.FC<{ histories: CardHistory[] }> = ({ histories }) => (
-    <Stack spacing={1} maxHeight={320} overflow="auto">
+interface Props {
+    histories: CardHistory[];
+    hasMore?: boolean;
+    onLoadMore?: () => void;
+}
+
+// Cuộn gần cuối danh sách thì tải trang history tiếp theo
+const HistoryList: React.FC<Props> = ({ histories, hasMore, onLoadMore }) => (
+    <Stack spacing={1} maxHeight={320} overflow="auto"
+           onScroll={(e) => {
+               const el = e.currentTarget;
+               if (hasMore && el.scrollTop + el.clientHeight >= el.scrollHeight - 40) onLoadMore?.();
+           }}>
         {histories.map((h) => (
             <Box key={h.id} border={1} borderColor="grey.200" borderRadius={1} p={1.5}>
                 <Typography variant="body2">
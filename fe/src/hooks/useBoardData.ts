@@ -1,7 +1,8 @@
-import { useState, useEffect, useCallback, useMemo } from "react";
+import { useState, useEffect, useCallback, useMemo, useRef } from "react";
 import api from "../api";
+import { subscribeBoardEvents } from "../utils/boardEvents";
 import {
-    Board, BoardMember, Card as CardType, CardHistory,
+    Board, BoardBootstrap, BoardEvent, CardChanges, BoardMember, Card as CardType, CardHistory, HistoryPage, FirstDone, CycleTimeStats,
     BurndownPoint, BurndownResponse, WeeklyVelocity, Status
 } from "../types";
 
@@ -14,6 +15,10 @@ interface Forecast {
     remainingTimeDays: number;
     remainingEffortHours: number;
     estimatedEndDate: string | null;
+    // Monte Carlo theo throughput: 50% / 85% / 95% số lần thử xong trước ngày này
+    p50EndDate: string | null;
+    p85EndDate: string | null;
+    p95EndDate: string | null;
 }
 
 interface BoardMetrics {
@@ -27,7 +32,10 @@ export function useBoardData(boardId: string | undefined) {
     const [cards, setCards] = useState<CardType[]>([]);
     const [members, setMembers] = useState<BoardMember[]>([]);
     const [histories, setHistories] = useState<CardHistory[]>([]);
+    const [historyCursor, setHistoryCursor] = useState<string | null>(null);
+    const [firstDone, setFirstDone] = useState<FirstDone[]>([]);
     const [forecast, setForecast] = useState<Forecast | null>(null);
+    const [cycleTime, setCycleTime] = useState<CycleTimeStats | null>(null);
 
     // Burndown data
     const [burndownData, setBurndownData] = useState<BurndownPoint[]>([]);
@@ -40,11 +48,14 @@ export function useBoardData(boardId: string | undefined) {
     const [projectHealth, setProjectHealth] = useState<string | null>(null);
     const [remainingPoints, setRemainingPoints] = useState<number>(0);
 
+    // Version của board ứng với danh sách card đang có, dùng cho /changes?since=
+    const cardsVersion = useRef<number | null>(null);
+
     const loadBoard = useCallback(async () => {
         if (!boardId) return;
         try {
             const res = await api.get(`/boards/${boardId}`);
-            setBoard(res.data);
+            if (res.data) setBoard(res.data);
         } catch (e) {
             console.error("Error loading board:", e);
         }
@@ -53,8 +64,10 @@ export function useBoardData(boardId: string | undefined) {
     const loadCards = useCallback(async () => {
         if (!boardId) return;
         try {
+            const version = (await api.get<Board>(`/boards/${boardId}`)).data?.version;
             const res = await api.get(`/boards/${boardId}/cards`);
             setCards(res.data);
+            cardsVersion.current = version ?? null;
         } catch (e) {
             console.error("Error loading cards:", e);
         }
@@ -70,16 +83,33 @@ export function useBoardData(boardId: string | undefined) {
         }
     }, [boardId]);
 
+    // Trang đầu của history + mốc DONE đầu tiên của từng card (cho cycle time)
     const loadHistories = useCallback(async () => {
         if (! boardId) return;
         try {
-            const res = await api.get(`/boards/${boardId}/history`);
-            setHistories(res. data ??  []);
+            const [page, done] = await Promise.all([
+                api.get<HistoryPage>(`/boards/${boardId}/history`),
+                api.get<FirstDone[]>(`/boards/${boardId}/history/first-done`),
+            ]);
+            setHistories(page.data?.items ?? []);
+            setHistoryCursor(page.data?.nextCursor ?? null);
+            setFirstDone(done.data ?? []);
         } catch (e) {
             console.error("Error loading histories:", e);
         }
     }, [boardId]);
 
+    const loadMoreHistories = useCallback(async () => {
+        if (!boardId || !historyCursor) return;
+        try {
+            const res = await api.get<HistoryPage>(`/boards/${boardId}/history`, { params: { before: historyCursor } });
+            setHistories((prev) => [...prev, ...(res.data?.items ?? [])]);
+            setHistoryCursor(res.data?.nextCursor ?? null);
+        } catch (e) {
+            console.error("Error loading histories:", e);
+        }
+    }, [boardId, historyCursor]);
+
     const loadForecast = useCallback(async () => {
         if (!boardId) return;
         try {
@@ -90,46 +120,162 @@ export function useBoardData(boardId: string | undefined) {
         }
     }, [boardId]);
 
+    // Phân vị lead/cycle time (histogram phía server, ETag theo version board)
+    const loadCycleTime = useCallback(async () => {
+        if (!boardId) return;
+        try {
+            const res = await api.get<CycleTimeStats>(`/boards/${boardId}/cycle-time`);
+            if (res.data) setCycleTime(res.data);
+        } catch (e) {
+            console.error("Error loading cycle time:", e);
+        }
+    }, [boardId]);
+
+    const applyBurndown = useCallback((data: BurndownResponse) => {
+        setBurndownData(data.burndownData || []);
+        setVelocityData(data.velocityData || []);
+        setAverageVelocity(data.averageVelocity || 0);
+        setEstimatedEndDate(data.estimatedEndDate || null);
+        setProjectDeadline(data.projectDeadline || null);
+        setProjectHealth(data.projectHealth || null);
+        setRemainingPoints(data.remainingPoints ?? 0);
+    }, []);
+
     const loadBurndownVelocity = useCallback(async () => {
         if (! boardId) return;
         setBurndownLoading(true);
         setBurndownError(null);
         try {
             const res = await api.get<BurndownResponse>(`/boards/${boardId}/burndown`);
-            setBurndownData(res.data. burndownData || []);
-            setVelocityData(res.data. velocityData || []);
-            setAverageVelocity(res.data.averageVelocity || 0);
-            setEstimatedEndDate(res.data. estimatedEndDate || null);
-            setProjectDeadline(res.data.projectDeadline || null);
-            setProjectHealth(res.data.projectHealth || null);
-            setRemainingPoints(res.data.remainingPoints ??  0);
+            applyBurndown(res.data);
         } catch (e:  any) {
             setBurndownError(e?. response?.data || e.message || "Không tải được burndown/velocity");
         } finally {
             setBurndownLoading(false);
         }
-    }, [boardId]);
+    }, [boardId, applyBurndown]);
 
     const refreshSnapshot = useCallback(() => {
         if (! boardId) return;
         api.post(`/boards/${boardId}/snapshot/refresh`).catch(() => {});
     }, [boardId]);
 
+    // Mở board: một request /bootstrap thay cho 6 request riêng lẻ
     const loadAll = useCallback(async () => {
-        await Promise.all([
-            loadBoard(),
-            loadCards(),
-            loadMembers(),
-            loadHistories(),
-            loadForecast(),
-            loadBurndownVelocity(),
-        ]);
-    }, [loadBoard, loadCards, loadMembers, loadHistories, loadForecast, loadBurndownVelocity]);
+        if (!boardId) return;
+        setBurndownLoading(true);
+        setBurndownError(null);
+        try {
+            const { data } = await api.get<BoardBootstrap>(`/boards/${boardId}/bootstrap`);
+            setBoard(data.board);
+            setCards(data.cards ?? []);
+            // board được đọc trước các section nên card có thể mới hơn version này (áp lại delta vô hại)
+            cardsVersion.current = data.board?.version ?? null;
+            setMembers(data.members ?? []);
+            setHistories(data.history?.items ?? []);
+            setHistoryCursor(data.history?.nextCursor ?? null);
+            setFirstDone(data.firstDone ?? []);
+            setForecast(data.forecast ?? null);
+            if (data.burndown) applyBurndown(data.burndown);
+        } catch (e: any) {
+            console.error("Error loading board:", e);
+            setBurndownError(e?.response?.data || e.message || "Không tải được burndown/velocity");
+        } finally {
+            setBurndownLoading(false);
+        }
+    }, [boardId, applyBurndown]);
 
     useEffect(() => {
         loadAll();
     }, [loadAll]);
 
+    useEffect(() => {
+        loadCycleTime();
+    }, [loadCycleTime]);
+
+    // Chỉ lấy các card đổi từ lần tải trước; log đã bị dọn thì tải lại cả board
+    const syncCards = useCallback(async () => {
+        if (!boardId) return;
+        const since = cardsVersion.current;
+        if (since == null) return loadAll();
+        try {
+            const { data } = await api.get<CardChanges>(`/boards/${boardId}/changes`, { params: { since } });
+            if (data.resyncRequired) return loadAll();
+            const deleted = new Set(data.deleted);
+            const upserted = new Map(data.upserted.map((c) => [c.id, c]));
+            setCards((prev) => {
+                const next = prev
+                    .filter((c) => !deleted.has(c.id))
+                    .map((c) => upserted.get(c.id) ?? c);
+                const known = new Set(next.map((c) => c.id));
+                upserted.forEach((c, id) => { if (!known.has(id)) next.push(c); });
+                return next;
+            });
+            cardsVersion.current = data.version;
+        } catch (e) {
+            console.error("Error syncing cards:", e);
+        }
+    }, [boardId, loadAll]);
+
+    // Thay đổi của người khác qua SSE: card được vá trực tiếp vào state,
+    // history/member/board thì tải lại (gom các event sát nhau thành một lần)
+    const reloadTimer = useRef<ReturnType<typeof setTimeout> | null>(null);
+    const pendingReloads = useRef<Set<() => Promise<void>>>(new Set());
+
+    const scheduleReload = useCallback((...loaders: (() => Promise<void>)[]) => {
+        loaders.forEach((l) => pendingReloads.current.add(l));
+        if (reloadTimer.current) return;
+        reloadTimer.current = setTimeout(() => {
+            reloadTimer.current = null;
+            const loaders = Array.from(pendingReloads.current);
+            pendingReloads.current.clear();
+            loaders.forEach((l) => l());
+        }, 500);
+    }, []);
+
+    const applyEvent = useCallback((event: BoardEvent) => {
+        switch (event.type) {
+            case "CARD_CREATED":
+            case "CARD_UPDATED":
+            case "CARD_MOVED": {
+                const card = event.card;
+                if (!card) return;
+                setCards((prev) => prev.some((c) => c.id === card.id)
+                    ? prev.map((c) => (c.id === card.id ? card : c))
+                    : [...prev, card]);
+                if (event.type !== "CARD_CREATED") scheduleReload(loadHistories, loadCycleTime);
+                break;
+            }
+            case "CARD_DELETED":
+                setCards((prev) => prev.filter((c) => c.id !== event.cardId));
+                scheduleReload(loadHistories);
+                break;
+            case "MEMBER_ADDED":
+            case "MEMBER_ROLE_CHANGED":
+            case "MEMBER_REMOVED":
+                scheduleReload(loadMembers);
+                break;
+            case "BOARD_UPDATED":
+                scheduleReload(loadBoard);
+                break;
+        }
+    }, [loadBoard, loadMembers, loadHistories, loadCycleTime, scheduleReload]);
+
+    useEffect(() => {
+        if (!boardId) return;
+        // Reconnect có thể đã lỡ event: chỉ lấy lại card đổi trong lúc mất kết nối
+        const unsubscribe = subscribeBoardEvents(boardId, applyEvent, () => {
+            syncCards();
+            scheduleReload(loadMembers, loadHistories, loadBoard);
+        });
+        return () => {
+            unsubscribe();
+            if (reloadTimer.current) clearTimeout(reloadTimer.current);
+            reloadTimer.current = null;
+            pendingReloads.current.clear();
+        };
+    }, [boardId, applyEvent, syncCards, scheduleReload, loadMembers, loadHistories, loadBoard]);
+
     // Cards grouped by status
     const cardsByStatus = useMemo(() => {
         const map:  Record<Status, CardType[]> = { TODO: [], IN_PROGRESS: [], DONE: [] };
@@ -140,21 +286,15 @@ export function useBoardData(boardId: string | undefined) {
 
     // Metrics calculation
     const metrics:  BoardMetrics = useMemo(() => {
-        const firstDone = new Map<number, Date>();
-        histories.forEach((h) => {
-            if (h.toStatus === "DONE") {
-                const d = new Date(h.changeDate);
-                const exist = firstDone. get(h.card.id);
-                if (! exist || d < exist) firstDone.set(h.card.id, d);
-            }
-        });
+        const firstDoneByCard = new Map<number, Date>();
+        firstDone.forEach((f) => firstDoneByCard.set(f.cardId, new Date(f.changeDate)));
 
         const cycleTimes:  number[] = [];
         let done = 0;
         cards.forEach((c) => {
             if (c.status === "DONE") {
                 done++;
-                const d = firstDone.get(c.id);
+                const d = firstDoneByCard.get(c.id);
                 if (d && c.createdAt) {
                     const start = new Date(c.createdAt);
                     const days = Math.max(0, (d.getTime() - start.getTime()) / 86400000);
@@ -168,7 +308,7 @@ export function useBoardData(boardId: string | undefined) {
             : 0;
 
         return { avgCycle, doneCount: done, total: cards.length };
-    }, [cards, histories]);
+    }, [cards, firstDone]);
 
     // Velocity months grouping
     const velocityMonths = useMemo(() => {
@@ -190,7 +330,11 @@ export function useBoardData(boardId: string | undefined) {
         cards, setCards,
         members,
         histories,
+        hasMoreHistories: historyCursor !== null,
+        loadMoreHistories,
+        firstDone,
         forecast,
+        cycleTime,
         cardsByStatus,
         metrics,
 
@@ -210,7 +354,12 @@ export function useBoardData(boardId: string | undefined) {
         loadAll,
         loadBoard,
         loadCards,
+        syncCards,
         loadMembers,
+        loadHistories,
+        loadForecast,
+        loadCycleTime,
+        loadBurndownVelocity,
         refreshSnapshot,
     };
 }
\ No newline at end of file
@@ -26,9 +26,9 @@ const BoardPage: React.FC = () => {
     const { notify } = useNotification();
 
     const {
-        board, setBoard, cards, members, histories, forecast, cardsByStatus, metrics,
+        board, setBoard, cards, members, histories, hasMoreHistories, loadMoreHistories, firstDone, forecast, cycleTime, cardsByStatus, metrics,
         burndownData, velocityMonths, averageVelocity, burndownLoading, burndownError,
-        estimatedEndDate, projectHealth, remainingPoints, loadAll, loadMembers, refreshSnapshot,
+        estimatedEndDate, projectHealth, remainingPoints, loadAll, loadMembers,
     } = useBoardData(boardId);
 
     const [activeCard, setActiveCard] = useState<CardType | null>(null);
@@ -59,6 +59,9 @@ const BoardPage: React.FC = () => {
 
         let targetStatus = source.status;
         let targetIndex = 0;
+        // Gửi card neo để server đọc lân cận theo keyset thay vì đếm theo index
+        let beforeCardId: number | null = null;
+        let afterCardId: number | null = null;
         const overData = over.data?.current as any;
 
         if (overData?.type === "card") {
@@ -66,18 +69,24 @@ const BoardPage: React.FC = () => {
             const col = cardsByStatus[targetStatus] || [];
             const idx = col.findIndex((c) => c.id === Number(over.id));
             targetIndex = idx >= 0 ? idx : col.length;
+            if (idx >= 0 && col[idx].id !== activeId) {
+                // Kéo xuống trong cùng cột: card đứng sau card được thả lên
+                const sourceIdx = col.findIndex((c) => c.id === activeId);
+                if (sourceIdx >= 0 && sourceIdx < idx) afterCardId = col[idx].id;
+                else beforeCardId = col[idx].id;
+            }
         } else if (overData?.type === "column") {
             targetStatus = overData.status as Status;
             targetIndex = (cardsByStatus[targetStatus] || []).length;
         }
 
         try {
-            await api.post("/cards/move", { cardId: activeId, targetStatus, targetPosition: targetIndex });
-            await Promise.all([loadAll(), refreshSnapshot()]);
+            await api.post("/cards/move", { cardId: activeId, targetStatus, targetPosition: targetIndex, beforeCardId, afterCardId });
+            await loadAll();
         } catch (err: any) {
             notify(err?.response?.data || err.message || "Di chuyển thất bại", "error");
         }
-    }, [cards, cardsByStatus, loadAll, refreshSnapshot, notify]);
+    }, [cards, cardsByStatus, loadAll, notify]);
 
     const handleAddCard = useCallback((status: Status) => { setEditingCard({ status } as CardType); setCardModalOpen(true); }, []);
     const handleEditCard = useCallback((card: CardType) => { setEditingCard(card); setCardModalOpen(true); }, []);
@@ -86,20 +95,21 @@ const BoardPage: React.FC = () => {
         if (!window.confirm("Xóa công việc này?")) return;
         try {
             await api.delete(`/cards/${id}`);
-            await Promise.all([loadAll(), refreshSnapshot()]);
+            await loadAll();
         } catch (e: any) { notify("Xóa thất bại", "error"); }
-    }, [loadAll, refreshSnapshot, notify]);
+    }, [loadAll, notify]);
 
     const handleSaveCard = useCallback(async (card: Partial<CardType>, form: TaskFormData) => {
         try {
             const payload = { ...card, dueDate: form.dueDateInput || null, priority: form.priorityInput || null, status: form.selectedStatus, estimateHours: form.estimateHours ? Number(form.estimateHours) : null, actualHours: form.actualHours ? Number(form.actualHours) : null };
-            if (card.id) await api.put("/cards", { id: card.id, ...payload });
+            // position của card là rank nội bộ, không phải index -> không gửi lại khi sửa
+            if (card.id) await api.put("/cards", { id: card.id, ...payload, position: undefined });
             else await api.post("/cards", { boardId: Number(boardId), position: cardsByStatus[form.selectedStatus]?.length || 0, ...payload });
 
             setCardModalOpen(false); setEditingCard(null);
-            await Promise.all([loadAll(), refreshSnapshot()]);
+            await loadAll();
         } catch (e: any) { notify("Lỗi lưu thẻ", "error"); }
-    }, [boardId, cardsByStatus, loadAll, refreshSnapshot, notify]);
+    }, [boardId, cardsByStatus, loadAll, notify]);
 
     const handleSaveBoard = useCallback(async () => {
         if (!board) return;
@@ -135,9 +145,9 @@ const BoardPage: React.FC = () => {
             </Tabs>
 
             {tab === 0 && <KanbanBoard cardsByStatus={cardsByStatus} wipLimit={board?.wipLimit ?? null} projectDeadline={board?.endDate ?? null} activeCard={activeCard} onDragStart={handleDragStart} onDragEnd={handleDragEnd} onAddCard={handleAddCard} onEditCard={handleEditCard} onDeleteCard={handleDeleteCard} />}
-            {tab === 1 && <ForecastTab board={board} cards={cards} histories={histories} metrics={metrics} burndownData={burndownData} velocityMonths={velocityMonths} averageVelocity={averageVelocity} burndownLoading={burndownLoading} burndownError={burndownError} forecast={forecast} estimatedEndDate={estimatedEndDate} projectHealth={projectHealth} remainingPoints={remainingPoints} daysAheadOrBehind={null} />}
+            {tab === 1 && <ForecastTab board={board} cards={cards} firstDone={firstDone} metrics={metrics} burndownData={burndownData} velocityMonths={velocityMonths} averageVelocity={averageVelocity} burndownLoading={burndownLoading} burndownError={burndownError} forecast={forecast} cycleTime={cycleTime} estimatedEndDate={estimatedEndDate} projectHealth={projectHealth} remainingPoints={remainingPoints} daysAheadOrBehind={null} />}
             {tab === 2 && <MemberList members={members} mainColor={mainColor} isAdmin={isAdmin} onChangeRole={handleChangeMemberRole} onRemove={handleRemoveMember} currentUsername={user?.username} />}
-            {tab === 3 && <HistoryList histories={histories} />}
+            {tab === 3 && <HistoryList histories={histories} hasMore={hasMoreHistories} onLoadMore={loadMoreHistories} />}
 
             <TaskModal open={cardModalOpen} onClose={() => { setCardModalOpen(false); setEditingCard(null); }} editingCard={editingCard} projectDeadline={board?.endDate ?? null} onSave={handleSaveCard} />
             <BoardEditModal open={boardEditOpen} onClose={() => setBoardEditOpen(false)} board={board} onBoardChange={setBoard} onSave={handleSaveBoard} saving={boardSaving} />
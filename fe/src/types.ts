@@ -14,11 +14,13 @@ export interface Workspace {
 export interface Board {
     id: number;
     name: string;
-    workspace: Workspace;
+    workspace?: Workspace;
+    workspaceId?: number;   // bootstrap trả board phẳng (BoardView) thay cho workspace lồng
     status: BoardStatus;
     createdAt?: string;
     endDate?: string;
     wipLimit?: number | null;
+    version?: number;
 }
 
 export interface Card {
@@ -32,13 +34,12 @@ export interface Card {
     status: Status;
     estimateHours?: number;
     actualHours?: number;
-    board: Board;
+    boardId: number;
 }
 
 export interface BoardMember {
     id: number;
     user: User;
-    board: Board;
     role: 'ADMIN' | 'MEMBER' | 'VIEWER';
 }
 
@@ -47,10 +48,48 @@ export interface CardHistory {
     fromStatus: Status;
     toStatus: Status;
     changeDate: string;
-    card: Card;
+    card: Pick<Card, 'id' | 'title'>;
     actor?: User;
 }
 
+// Một trang history; nextCursor = null khi đã hết
+export interface HistoryPage {
+    items: CardHistory[];
+    nextCursor: string | null;
+}
+
+// Lần đầu card vào DONE (dùng cho cycle time)
+export interface FirstDone {
+    cardId: number;
+    changeDate: string;
+}
+
+// GET /boards/{id}/cycle-time: phân vị (ngày) + số card theo bucket log (bucketUpperDays[i] = cận trên bucket i)
+export interface DurationHistogram {
+    samples: number;
+    p50Days: number | null;
+    p85Days: number | null;
+    p95Days: number | null;
+    bucketUpperDays: number[];
+    counts: number[];
+}
+
+export interface CycleTimeStats {
+    leadTime: DurationHistogram;
+    cycleTime: DurationHistogram;
+}
+
+// GET /boards/{id}/bootstrap; section không yêu cầu sẽ là null
+export interface BoardBootstrap {
+    board: Board;
+    cards: Card[] | null;
+    members: BoardMember[] | null;
+    history: HistoryPage | null;
+    firstDone: FirstDone[] | null;
+    forecast: any | null;
+    burndown: BurndownResponse | null;
+}
+
 export interface BoardProgress {
     total: number;
     done: number;
@@ -95,3 +134,24 @@ export interface BurndownResponse {
     projectHealth: 'ON_TRACK' | 'AT_RISK' | 'DELAYED'; // Trạng thái dự án
 }
 
+
+// /boards/{id}/changes?since=V
+export interface CardChanges {
+    version: number;
+    resyncRequired: boolean;
+    upserted: Card[];
+    deleted: number[];
+}
+
+// Event SSE từ /boards/{id}/events
+export type BoardEventType =
+    | 'CARD_CREATED' | 'CARD_UPDATED' | 'CARD_MOVED' | 'CARD_DELETED' | 'CARD_ASSIGNED'
+    | 'MEMBER_ADDED' | 'MEMBER_ROLE_CHANGED' | 'MEMBER_REMOVED' | 'BOARD_UPDATED';
+
+export interface BoardEvent {
+    boardId: number;
+    type: BoardEventType;
+    cardId?: number | null;
+    userId?: number | null;
+    card?: Card | null;
+}
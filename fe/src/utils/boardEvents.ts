@@ -0,0 +1,77 @@
+import api from "../api";
+import { BoardEvent } from "../types";
+
+const RETRY_MS = 3000;
+
+/**
+ * Nghe /boards/{id}/events. Dùng fetch thay cho EventSource vì EventSource
+ * không gửi được header Authorization. Mất kết nối (server ngắt client đọc chậm,
+ * timeout, mạng) thì tự kết nối lại và gọi onReconnect để tải lại phần có thể đã lỡ.
+ * Trả về hàm hủy đăng ký.
+ */
+export function subscribeBoardEvents(
+    boardId: string,
+    onEvent: (event: BoardEvent) => void,
+    onReconnect: () => void,
+): () => void {
+    const controller = new AbortController();
+    let connectedBefore = false;
+
+    const connect = async () => {
+        while (!controller.signal.aborted) {
+            try {
+                const token = localStorage.getItem("token");
+                const res = await fetch(`${api.defaults.baseURL}/boards/${boardId}/events`, {
+                    headers: {
+                        Accept: "text/event-stream",
+                        ...(token ? { Authorization: `Bearer ${token}` } : {}),
+                    },
+                    signal: controller.signal,
+                });
+                // 401/403: không thử lại, phần còn lại của trang sẽ xử lý
+                if (res.status === 401 || res.status === 403) return;
+                if (!res.ok || !res.body) throw new Error(`HTTP ${res.status}`);
+
+                if (connectedBefore) onReconnect();
+                connectedBefore = true;
+                await readFrames(res.body, onEvent);
+            } catch (e) {
+                if (controller.signal.aborted) return;
+                console.warn("Board events disconnected:", e);
+            }
+            await new Promise((r) => setTimeout(r, RETRY_MS));
+        }
+    };
+
+    connect();
+    return () => controller.abort();
+}
+
+// Tách frame SSE (ngăn cách bởi dòng trống), bỏ qua comment ":ping"
+async function readFrames(body: ReadableStream<Uint8Array>, onEvent: (event: BoardEvent) => void) {
+    const reader = body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = "";
+    while (true) {
+        const { value, done } = await reader.read();
+        if (done) return;
+        buffer += decoder.decode(value, { stream: true }).replace(/\r\n/g, "\n");
+        let sep: number;
+        while ((sep = buffer.indexOf("\n\n")) >= 0) {
+            const frame = buffer.slice(0, sep);
+            buffer = buffer.slice(sep + 2);
+            const data = frame
+                .split("\n")
+                .filter((line) => line.startsWith("data:"))
+                .map((line) => line.slice(5).trimStart())
+                .join("\n");
+            if (data) {
+                try {
+                    onEvent(JSON.parse(data));
+                } catch (e) {
+                    console.warn("Bad board event:", e);
+                }
+            }
+        }
+    }
+}